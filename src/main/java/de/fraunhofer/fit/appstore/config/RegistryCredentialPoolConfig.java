@@ -0,0 +1,70 @@
+/*
+ * Copyright 2021 Fraunhofer Institute for Applied Information Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.fraunhofer.fit.appstore.config;
+
+import lombok.Data;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import java.time.Duration;
+
+/**
+ * Configurations for the pool of pre-provisioned registry pull credentials. Scheduling is
+ * enabled for the periodic maintenance of the pool.
+ */
+@Data
+@Configuration
+@EnableScheduling
+public class RegistryCredentialPoolConfig {
+
+    /**
+     * Indicates whether credentials are taken from the pool or created on demand.
+     */
+    @Value("${registry.credentials.pool.enabled:true}")
+    private boolean enabled;
+
+    /**
+     * If the pool size drops below this value, a refill is triggered.
+     */
+    @Value("${registry.credentials.pool.low-watermark:5}")
+    private int lowWatermark;
+
+    /**
+     * The pool is refilled up to this value.
+     */
+    @Value("${registry.credentials.pool.high-watermark:20}")
+    private int highWatermark;
+
+    /**
+     * The time an unused credential stays valid in the pool.
+     */
+    @Value("${registry.credentials.pool.ttl:PT12H}")
+    private Duration ttl;
+
+    /**
+     * The delay between two maintenance runs of the pool (millis).
+     */
+    @Value("${registry.credentials.pool.maintenance-delay:30000}")
+    private long maintenanceDelay;
+
+    /**
+     * The file listing the registry users held by the pool. Users listed there after a crash
+     * are revoked on the next start.
+     */
+    @Value("${registry.credentials.pool.path:/data/registry/credential-pool.txt}")
+    private String path;
+}
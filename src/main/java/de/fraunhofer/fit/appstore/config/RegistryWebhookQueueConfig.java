@@ -0,0 +1,61 @@
+/*
+ * Copyright 2021 Fraunhofer Institute for Applied Information Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.fraunhofer.fit.appstore.config;
+
+import lombok.Data;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Configurations for the queue of received registry webhook events.
+ */
+@Data
+@Configuration
+public class RegistryWebhookQueueConfig {
+
+    /**
+     * The directory accepted events are stored in until they have been processed. It has to be
+     * kept on a volume, so events survive recreating the container.
+     */
+    @Value("${registry.webhook.queue.path:/data/webhooks}")
+    private String path;
+
+    /**
+     * The number of threads processing events.
+     */
+    @Value("${registry.webhook.queue.threads:4}")
+    private int threads;
+
+    /**
+     * The number of attempts to process an event.
+     */
+    @Value("${registry.webhook.queue.max-attempts:5}")
+    private int maxAttempts;
+
+    /**
+     * The delay before a failed event is processed again.
+     */
+    @Value("${registry.webhook.queue.retry-delay:PT30S}")
+    private Duration retryDelay;
+
+    /**
+     * The time a repository's events are collected before they are processed together.
+     */
+    @Value("${registry.webhook.queue.coalesce-window:PT2S}")
+    private Duration coalesceWindow;
+}
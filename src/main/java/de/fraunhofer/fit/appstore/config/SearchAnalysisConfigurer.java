@@ -0,0 +1,99 @@
+/*
+ * Copyright 2021 Fraunhofer Institute for Applied Information Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.fraunhofer.fit.appstore.config;
+
+import io.dataspaceconnector.model.config.SearchConstants;
+import org.apache.lucene.analysis.core.LowerCaseFilterFactory;
+import org.apache.lucene.analysis.miscellaneous.ASCIIFoldingFilter;
+import org.apache.lucene.analysis.miscellaneous.ASCIIFoldingFilterFactory;
+import org.apache.lucene.analysis.ngram.EdgeNGramFilterFactory;
+import org.apache.lucene.analysis.snowball.SnowballPorterFilterFactory;
+import org.apache.lucene.analysis.standard.StandardTokenizerFactory;
+import org.hibernate.search.backend.lucene.analysis.LuceneAnalysisConfigurationContext;
+import org.hibernate.search.backend.lucene.analysis.LuceneAnalysisConfigurer;
+
+/**
+ * Defines the analyzers and normalizers of the full-text search index.
+ */
+public class SearchAnalysisConfigurer implements LuceneAnalysisConfigurer {
+
+    /**
+     * The shortest indexed prefix.
+     */
+    private static final String MIN_PREFIX_LENGTH = "2";
+
+    /**
+     * The longest indexed prefix.
+     */
+    private static final String MAX_PREFIX_LENGTH = "20";
+
+    /**
+     * The maximum number of characters a single character is folded to.
+     */
+    private static final int MAX_FOLDING_EXPANSION = 4;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void configure(final LuceneAnalysisConfigurationContext context) {
+        context.analyzer(SearchConstants.TEXT_ANALYZER).custom()
+                .tokenizer(StandardTokenizerFactory.class)
+                .tokenFilter(LowerCaseFilterFactory.class)
+                .tokenFilter(ASCIIFoldingFilterFactory.class)
+                .tokenFilter(SnowballPorterFilterFactory.class)
+                .param("language", "English");
+
+        context.analyzer(SearchConstants.PREFIX_ANALYZER).custom()
+                .tokenizer(StandardTokenizerFactory.class)
+                .tokenFilter(LowerCaseFilterFactory.class)
+                .tokenFilter(ASCIIFoldingFilterFactory.class)
+                .tokenFilter(EdgeNGramFilterFactory.class)
+                .param("minGramSize", MIN_PREFIX_LENGTH)
+                .param("maxGramSize", MAX_PREFIX_LENGTH);
+
+        context.analyzer(SearchConstants.PREFIX_QUERY_ANALYZER).custom()
+                .tokenizer(StandardTokenizerFactory.class)
+                .tokenFilter(LowerCaseFilterFactory.class)
+                .tokenFilter(ASCIIFoldingFilterFactory.class);
+
+        context.normalizer(SearchConstants.SORT_NORMALIZER).custom()
+                .tokenFilter(LowerCaseFilterFactory.class)
+                .tokenFilter(ASCIIFoldingFilterFactory.class);
+    }
+
+    /**
+     * Apply the sort normalizer to a value, e.g. to compare it to the indexed sort keys.
+     *
+     * @param value The value, may be null.
+     * @return The normalized value, null if the value is null.
+     */
+    public static String normalizeSortKey(final String value) {
+        if (value == null) {
+            return null;
+        }
+
+        final var lowerCase = value.codePoints()
+                .map(Character::toLowerCase)
+                .collect(StringBuilder::new, StringBuilder::appendCodePoint, StringBuilder::append)
+                .toString()
+                .toCharArray();
+        final var folded = new char[lowerCase.length * MAX_FOLDING_EXPANSION];
+        final var length = ASCIIFoldingFilter.foldToASCII(lowerCase, 0, folded, 0,
+                lowerCase.length);
+        return new String(folded, 0, length);
+    }
+}
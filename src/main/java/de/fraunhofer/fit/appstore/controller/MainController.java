@@ -16,6 +16,7 @@
 package de.fraunhofer.fit.appstore.controller;
 
 import io.dataspaceconnector.common.ids.ConnectorService;
+import io.dataspaceconnector.common.ids.SelfDescriptionCache;
 import io.dataspaceconnector.config.BaseType;
 import io.dataspaceconnector.controller.resource.type.AgreementController;
 import io.dataspaceconnector.controller.resource.type.AppController;
@@ -44,10 +45,12 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import org.springframework.hateoas.RepresentationModel;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
@@ -65,6 +68,11 @@ public class MainController {
      */
     private final @NonNull ConnectorService connectorService;
 
+    /**
+     * Cache of the self-description with all resources.
+     */
+    private final @NonNull SelfDescriptionCache selfDescriptionCache;
+
     /**
      * Gets connector self-description without catalogs and resources.
      *
@@ -82,20 +90,28 @@ public class MainController {
     }
 
     /**
-     * Gets connector self-description with all resources.
+     * Gets connector self-description with all resources. Responds with 304 (Not modified) if
+     * the self-description matches the entity tag given by If-None-Match.
      *
+     * @param request The web request.
      * @return Self-description or error response.
      */
     @GetMapping(value = "/api/connector", produces = "application/ld+json")
     @Operation(summary = "Private IDS self-description")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Ok"),
+            @ApiResponse(responseCode = "304", description = "Not modified"),
             @ApiResponse(responseCode = "401", description = "Unauthorized"),
             @ApiResponse(responseCode = "500", description = "Internal server error")})
     @ResponseBody
-    public ResponseEntity<Object> getPrivateSelfDescription() {
-        //return  null;
-        return ResponseEntity.ok(connectorService.getAppStoreWithAppResources().toRdf());
+    public ResponseEntity<Object> getPrivateSelfDescription(final WebRequest request) {
+        final var description = selfDescriptionCache.getSelfDescription();
+        if (request.checkNotModified(description.getEtag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(description.getEtag()).build();
+        }
+
+        return ResponseEntity.ok().eTag(description.getEtag()).body(description.getRdf());
     }
 
     /**
@@ -17,12 +17,8 @@ package de.fraunhofer.fit.appstore.controller.registry.webhook;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonMappingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import de.fraunhofer.fit.appstore.exceptions.WebhookException;
-import de.fraunhofer.fit.appstore.model.registry.webhook.Event;
-import de.fraunhofer.fit.appstore.services.registry.webhook.RegistryWebhookService;
-import io.dataspaceconnector.common.exception.InvalidResourceException;
-import io.dataspaceconnector.common.exception.ResourceNotFoundException;
+import de.fraunhofer.fit.appstore.services.registry.webhook.RegistryWebhookQueue;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
@@ -38,6 +34,8 @@ import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.io.IOException;
+
 /**
  * Provides a webhook endpoint for the registry.
  */
@@ -49,25 +47,19 @@ import org.springframework.web.bind.annotation.RestController;
 public class RegistryWebhookController {
 
     /**
-     * Service for handling registry webhooks.
-     */
-    private final @NonNull RegistryWebhookService registryWebhookService;
-
-    /**
-     * The object mapper.
+     * Queue for registry webhook events.
      */
-    private final @NonNull ObjectMapper objectMapper;
+    private final @NonNull RegistryWebhookQueue registryWebhookQueue;
 
     /**
-     * Provides a rest endpoint for registry webhooks.
+     * Provides a rest endpoint for registry webhooks. The event is stored and processed in the
+     * background.
      *
      * @param webhook The webhook.
-     * @return Response with code 200 (Ok).
+     * @return Response with code 202 (Accepted).
      */
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Ok"),
-            @ApiResponse(responseCode = "400", description = "Bad request"),
-            @ApiResponse(responseCode = "404", description = "Not found"),
+            @ApiResponse(responseCode = "202", description = "Accepted"),
             @ApiResponse(responseCode = "500", description = "Internal server error")
     })
     @RequestMapping(value = "/registry", method = RequestMethod.POST)
@@ -76,27 +68,15 @@ public class RegistryWebhookController {
             @Parameter(description = "The JSON Webhook event", required = true)
             @RequestBody final String webhook) {
         try {
-            final var event = objectMapper.readValue(webhook, Event.class);
-            registryWebhookService.processRegistryEvent(event);
-            return new ResponseEntity<>("Successfully processed event.", HttpStatus.OK);
+            if (registryWebhookQueue.accept(webhook)) {
+                return new ResponseEntity<>("Accepted event.", HttpStatus.ACCEPTED);
+            }
+            return new ResponseEntity<>("Event has been accepted before.", HttpStatus.ACCEPTED);
         } catch (WebhookException e) {
             if (log.isDebugEnabled()) {
                 log.debug("Failed to process webhook event. [exception=({})]", e.getMessage());
             }
             return new ResponseEntity<>(e.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR);
-        } catch (ResourceNotFoundException e) {
-            if (log.isDebugEnabled()) {
-                log.debug("Resource not found. [exception=({})]", e.getMessage());
-            }
-            return new ResponseEntity<>("Failed to update the app. The app resource or "
-                    + "representation does not exist.", HttpStatus.NOT_FOUND);
-        } catch (InvalidResourceException e) {
-            if (log.isDebugEnabled()) {
-                log.debug("Invalid representation or resource. [exception=({})]",
-                        e.getMessage());
-            }
-            return new ResponseEntity<>("Failed to update the app. The app resource or "
-                    + "representation is not valid.", HttpStatus.BAD_REQUEST);
         } catch (JsonMappingException e) {
             if (log.isDebugEnabled()) {
                 log.debug("Could not map JSON webhook. [exception=({})]", e.getMessage());
@@ -109,6 +89,12 @@ public class RegistryWebhookController {
             }
             return new ResponseEntity<>("Could not process JSON webhook.",
                     HttpStatus.INTERNAL_SERVER_ERROR);
+        } catch (IOException e) {
+            if (log.isWarnEnabled()) {
+                log.warn("Could not store webhook event. [exception=({})]", e.getMessage());
+            }
+            return new ResponseEntity<>("Could not store webhook event.",
+                    HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
 }
@@ -15,14 +15,15 @@
  */
 package de.fraunhofer.fit.appstore.controller.ui;
 
-import de.fraunhofer.fit.appstore.model.search.SearchResult;
+import de.fraunhofer.fit.appstore.model.search.SearchCursor;
 import de.fraunhofer.fit.appstore.services.search.SearchAppService;
+import io.dataspaceconnector.common.exception.InvalidInputException;
 import io.dataspaceconnector.common.util.Utils;
 import io.dataspaceconnector.controller.resource.base.tag.ResourceDescription;
 import io.dataspaceconnector.controller.util.ResponseCode;
 import io.dataspaceconnector.controller.util.ResponseDescription;
+import io.dataspaceconnector.controller.util.ResponseUtils;
 import io.dataspaceconnector.service.resource.type.AppService;
-import io.dataspaceconnector.service.resource.type.OfferedResourceService;
 import io.dataspaceconnector.service.resource.type.ResourceService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -30,7 +31,7 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
@@ -59,61 +60,63 @@ public class UiController {
      */
     private final @NonNull AppService appService;
 
-    /**
-     * The service managing resources.
-     */
-    private final @NonNull OfferedResourceService resourceService;
-
     /**
      * The service managing apps.
      */
     private final @NonNull SearchAppService appSearchService;
 
     /**
-     * Search for apps.
+     * Search for apps. Further pages are requested with the cursor returned with the previous
+     * page.
      *
      * @param searchText The search text.
-     * @param page       The number of pages.
+     * @param category   The category to filter by.
+     * @param page       The number of the first page, ignored if a cursor is given.
      * @param size       The number of results per page.
+     * @param cursor     The cursor of the page.
      * @return Response with code 200 (Ok) and the search result.
      */
     @Tag(name = "UI", description = ResourceDescription.APPS)
     @GetMapping(value = "/search")
-    @Operation(summary = "Search all Apps with value in description")
+    @Operation(summary = "Search all Apps by title, keywords and description")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = ResponseCode.OK, description = ResponseDescription.OK)})
+            @ApiResponse(responseCode = ResponseCode.OK, description = ResponseDescription.OK),
+            @ApiResponse(responseCode = ResponseCode.BAD_REQUEST,
+                    description = ResponseDescription.BAD_REQUEST)})
     public ResponseEntity<Object> searchApps(
             @RequestParam(value = "search") final String searchText,
+            @RequestParam(value = "category", required = false) final String category,
             @RequestParam(value = "page", required = false,
                     defaultValue = "0") final Integer page,
             @RequestParam(value = "size", required = false,
-                    defaultValue = "30") final Integer size) {
-
-        final var resultsCount = appSearchService.searchAppsResultCount(searchText);
-        final var pageCount = appSearchService.searchAppsPagesCount(searchText, size);
-        final var appList = appSearchService.searchAppsByDescription(searchText, page, size);
-
-        final var result = new SearchResult();
-        result.setPageNo(page);
-        result.setResultsCount(resultsCount);
-        result.setPageCount(pageCount);
-        result.setAppList(appList);
-
-        return new ResponseEntity<>(result, HttpStatus.OK);
+                    defaultValue = "30") final Integer size,
+            @RequestParam(value = "cursor", required = false) final String cursor) {
+        try {
+            final var pageable = Utils.toPageRequest(page, size);
+            final var result = appSearchService.search(searchText, category,
+                    toCursor(cursor, pageable), pageable.getPageSize());
+            return new ResponseEntity<>(result, HttpStatus.OK);
+        } catch (InvalidInputException e) {
+            return ResponseUtils.respondInvalidInput(e);
+        }
     }
 
     /**
-     * Get a list of all apps for displaying them in the ui.
+     * Get a page of the offered apps sorted by title for displaying them in the ui. Further
+     * pages are requested with the cursor returned with the previous page.
      *
-     * @param page The page number
-     * @param size The page size
-     * @return The List of apps
+     * @param page   The number of the first page, ignored if a cursor is given.
+     * @param size   The page size.
+     * @param cursor The cursor of the page.
+     * @return The page of apps.
      */
     @Tag(name = "UI", description = ResourceDescription.APPS)
     @GetMapping(value = "/list")
-    @Operation(summary = "Search all Apps with value in description")
+    @Operation(summary = "List all Apps sorted by title")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = ResponseCode.OK, description = ResponseDescription.OK)})
+            @ApiResponse(responseCode = ResponseCode.OK, description = ResponseDescription.OK),
+            @ApiResponse(responseCode = ResponseCode.BAD_REQUEST,
+                    description = ResponseDescription.BAD_REQUEST)})
     public ResponseEntity<Object> getApps(
             @RequestParam(
                     value = "page",
@@ -122,18 +125,38 @@ public class UiController {
             @RequestParam(
                     value = "size",
                     required = false,
-                    defaultValue = "30") final Integer size) {
-        var pageable = Utils.toPageRequest(page, size);
-        var apps = resourceService.getAll(Pageable.unpaged());
-
-        //PagedModel<Resource> pgm = new PagedModel(
-        //                                          apps.getContent(),
-        //                                          new PagedModel.PageMetadata(apps.getSize(),
-        //                                          apps.getNumber(),
-        //                                          apps.getTotalElements(),
-        //                                          apps.getTotalPages()));
+                    defaultValue = "30") final Integer size,
+            @RequestParam(value = "cursor", required = false) final String cursor) {
+        try {
+            final var pageable = Utils.toPageRequest(page, size);
+            final var result = appSearchService.list(toCursor(cursor, pageable),
+                    pageable.getPageSize());
+            return new ResponseEntity<>(result, HttpStatus.OK);
+        } catch (InvalidInputException e) {
+            return ResponseUtils.respondInvalidInput(e);
+        }
+    }
 
-        return new ResponseEntity<>(apps, HttpStatus.OK);
+    /**
+     * Get the app categories with the number of apps per category.
+     *
+     * @return The number of apps per category, ordered by descending count.
+     */
+    @Tag(name = "UI", description = ResourceDescription.APPS)
+    @GetMapping(value = "/categories")
+    @Operation(summary = "Get all App categories with the number of Apps")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = ResponseCode.OK, description = ResponseDescription.OK)})
+    public ResponseEntity<Object> getCategories() {
+        return new ResponseEntity<>(appSearchService.getAppCategories(), HttpStatus.OK);
     }
 
+    private static SearchCursor toCursor(final String cursor, final PageRequest pageable) {
+        if (cursor != null && !cursor.isBlank()) {
+            return SearchCursor.decode(cursor);
+        }
+
+        return pageable.getPageNumber() == 0 ? null
+                : SearchCursor.at((int) pageable.getOffset());
+    }
 }
@@ -15,22 +15,68 @@
  */
 package de.fraunhofer.fit.appstore.initializer;
 
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
+import org.hibernate.search.engine.backend.metamodel.IndexFieldDescriptor;
 import org.hibernate.search.mapper.orm.Search;
-import org.springframework.context.ApplicationListener;
-import org.springframework.context.event.ContextRefreshedEvent;
+import org.hibernate.search.mapper.orm.entity.SearchIndexedEntity;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
 import javax.persistence.PersistenceContext;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
+import java.util.HexFormat;
 
 /**
- * Implements hibernate search functionality.
+ * Implements hibernate search functionality. On startup, the index on disk is reused if it is
+ * consistent with the database, otherwise it is rebuilt in the background. Consistency is
+ * recorded by a marker written on shutdown, holding a fingerprint of the index schema and the
+ * indexed database content. The marker is removed on startup, so an index left behind by a
+ * crashed instance is never reused.
  */
 @Log4j2
 @Component
-public class HibernateSearchInitializer implements ApplicationListener<ContextRefreshedEvent> {
+@RequiredArgsConstructor
+public class HibernateSearchInitializer {
+
+    /**
+     * The name of the marker file in the index directory.
+     */
+    private static final String MARKER_FILE = "index.marker";
+
+    /**
+     * The directory type of indexes persisted on disk.
+     */
+    private static final String FILESYSTEM_DIRECTORY = "local-filesystem";
+
+    /**
+     * The entity manager factory.
+     */
+    private final @NonNull EntityManagerFactory entityManagerFactory;
+
+    /**
+     * The transaction manager.
+     */
+    private final @NonNull PlatformTransactionManager transactionManager;
+
+    /**
+     * The state of the search index.
+     */
+    private final @NonNull SearchIndexStatus indexStatus;
 
     /**
      * The entity manager.
@@ -39,24 +85,209 @@ public class HibernateSearchInitializer implements ApplicationListener<ContextRe
     private EntityManager entityManager;
 
     /**
-     * {@inheritDoc}
+     * The type of the index directory.
      */
-    @Override
-    @Transactional
-    public void onApplicationEvent(final ContextRefreshedEvent contextRefreshedEvent) {
-        final var searchSession = Search.session(entityManager);
-        final var indexer = searchSession.massIndexer();
+    @Value("${spring.jpa.properties.hibernate.search.backend.directory.type:"
+            + FILESYSTEM_DIRECTORY + "}")
+    private String directoryType;
+
+    /**
+     * The root of the index directory.
+     */
+    @Value("${spring.jpa.properties.hibernate.search.backend.directory.root:.}")
+    private String directoryRoot;
+
+    /**
+     * The number of threads loading entities while rebuilding the index.
+     */
+    @Value("${search.index.threads-to-load-objects:4}")
+    private int threadsToLoadObjects;
+
+    /**
+     * The number of entities loaded per batch while rebuilding the index.
+     */
+    @Value("${search.index.batch-size-to-load-objects:25}")
+    private int batchSizeToLoadObjects;
+
+    /**
+     * Reuse or rebuild the index once the application has started.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        final var marker = readMarker();
+        if (marker != null && marker.equals(fingerprint()) && isComplete()) {
+            if (log.isInfoEnabled()) {
+                log.info("Reusing Hibernate Search index. [root=({})]", directoryRoot);
+            }
+            indexStatus.reuse();
+            return;
+        }
+
+        rebuild();
+    }
+
+    /**
+     * Record the consistent index on shutdown.
+     */
+    @EventListener(ContextClosedEvent.class)
+    public void onContextClosed() {
+        if (!isPersistent() || !indexStatus.isReady()) {
+            return;
+        }
+
+        try {
+            Files.writeString(markerFile(), fingerprint(), StandardCharsets.UTF_8);
+        } catch (IOException | RuntimeException e) {
+            if (log.isWarnEnabled()) {
+                log.warn("Failed to write Hibernate Search index marker. [exception=({})]",
+                        e.getMessage());
+            }
+        }
+    }
+
+    private void rebuild() {
         if (log.isInfoEnabled()) {
-            log.info("Hibernate Search initialized");
+            log.info("Rebuilding Hibernate Search index in the background.");
+        }
+
+        indexStatus.start();
+        Search.mapping(entityManagerFactory).scope(Object.class).massIndexer()
+                .threadsToLoadObjects(threadsToLoadObjects)
+                .batchSizeToLoadObjects(batchSizeToLoadObjects)
+                .monitor(indexStatus)
+                .start()
+                .whenComplete((result, throwable) -> {
+                    if (throwable != null) {
+                        indexStatus.fail(throwable);
+                        if (log.isErrorEnabled()) {
+                            log.error("Failed to build Hibernate Search index. "
+                                    + "[exception=({})]", throwable.getMessage(), throwable);
+                        }
+                        return;
+                    }
+
+                    indexStatus.complete();
+                    if (log.isInfoEnabled()) {
+                        log.info("Hibernate Search index built. [status=({})]",
+                                indexStatus.toSummary());
+                    }
+                });
+    }
+
+    /**
+     * Read and remove the marker of the last run.
+     *
+     * @return The fingerprint recorded by the last run, null if there is none.
+     */
+    private String readMarker() {
+        if (!isPersistent()) {
+            return null;
         }
 
         try {
-            indexer.startAndWait();
-        } catch (InterruptedException e) {
-            if (log.isDebugEnabled()) {
-                log.error("An error occurred when trying to build Hibernate Search indexes. "
-                        + "[exception=({})]" + e.toString(), e);
+            final var file = markerFile();
+            if (!Files.exists(file)) {
+                return null;
+            }
+
+            final var marker = Files.readString(file, StandardCharsets.UTF_8);
+            Files.delete(file);
+            return marker;
+        } catch (IOException e) {
+            if (log.isWarnEnabled()) {
+                log.warn("Failed to read Hibernate Search index marker. [exception=({})]",
+                        e.getMessage());
             }
+            return null;
         }
     }
+
+    /**
+     * Compute a fingerprint of the index schema and of the indexed database content. The
+     * content is represented by the number of entities and their latest modification per
+     * indexed type.
+     *
+     * @return The fingerprint.
+     */
+    private String fingerprint() {
+        final var description = new TransactionTemplate(transactionManager).execute(status -> {
+            final var builder = new StringBuilder();
+            for (final var entity : indexedEntities()) {
+                builder.append(entity.jpaName()).append('\n');
+                entity.indexManager().descriptor().staticFields().stream()
+                        .sorted(Comparator.comparing(IndexFieldDescriptor::absolutePath))
+                        .forEach(field -> builder.append(describe(field)).append('\n'));
+
+                final var stats = entityManager.createQuery("SELECT COUNT(e), "
+                        + "MAX(e.modificationDate) FROM " + entity.jpaName() + " e",
+                        Object[].class).getSingleResult();
+                builder.append(stats[0]).append(' ').append(stats[1]).append('\n');
+            }
+            return builder.toString();
+        });
+
+        try {
+            final var digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(
+                    description.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            // SHA-256 must be supported by every JVM.
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Check whether the index holds a document for every indexed entity.
+     *
+     * @return True if the document counts match the entity counts.
+     */
+    private boolean isComplete() {
+        final var complete = new TransactionTemplate(transactionManager).execute(status -> {
+            final var searchSession = Search.session(entityManager);
+            for (final var entity : indexedEntities()) {
+                final var entities = entityManager.createQuery("SELECT COUNT(e) FROM "
+                        + entity.jpaName() + " e", Long.class).getSingleResult();
+                final var documents = searchSession.search(entity.javaClass())
+                        .where(f -> f.matchAll())
+                        .fetchTotalHitCount();
+                if (entities != documents) {
+                    return false;
+                }
+            }
+            return true;
+        });
+        return Boolean.TRUE.equals(complete);
+    }
+
+    private Iterable<? extends SearchIndexedEntity<?>> indexedEntities() {
+        return Search.mapping(entityManagerFactory).allIndexedEntities().stream()
+                .sorted(Comparator.comparing(SearchIndexedEntity::jpaName))
+                .toList();
+    }
+
+    private static String describe(final IndexFieldDescriptor field) {
+        if (!field.isValueField()) {
+            return field.absolutePath();
+        }
+
+        final var type = field.toValueField().type();
+        return String.join(" ", field.absolutePath(),
+                type.valueClass().getName(),
+                type.analyzerName().orElse("-"),
+                type.searchAnalyzerName().orElse("-"),
+                type.normalizerName().orElse("-"),
+                String.valueOf(type.searchable()),
+                String.valueOf(type.sortable()),
+                String.valueOf(type.aggregable()),
+                String.valueOf(type.projectable()),
+                String.valueOf(field.multiValued()));
+    }
+
+    private boolean isPersistent() {
+        return FILESYSTEM_DIRECTORY.equals(directoryType);
+    }
+
+    private Path markerFile() {
+        return Path.of(directoryRoot, MARKER_FILE);
+    }
 }
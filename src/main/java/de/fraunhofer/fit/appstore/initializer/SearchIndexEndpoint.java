@@ -0,0 +1,49 @@
+/*
+ * Copyright 2021 Fraunhofer Institute for Applied Information Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.fraunhofer.fit.appstore.initializer;
+
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Actuator endpoint reporting the state of the full-text search index and the progress of
+ * rebuilding it.
+ */
+@Component
+@RequiredArgsConstructor
+@Endpoint(id = "searchindex")
+public class SearchIndexEndpoint {
+
+    /**
+     * The state of the search index.
+     */
+    private final @NonNull SearchIndexStatus indexStatus;
+
+    /**
+     * Get the state of the search index.
+     *
+     * @return The state and the indexing progress.
+     */
+    @ReadOperation
+    public Map<String, Object> status() {
+        return indexStatus.toSummary();
+    }
+}
@@ -0,0 +1,209 @@
+/*
+ * Copyright 2021 Fraunhofer Institute for Applied Information Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.fraunhofer.fit.appstore.initializer;
+
+import org.hibernate.search.mapper.orm.massindexing.MassIndexingMonitor;
+import org.springframework.stereotype.Component;
+
+import java.time.ZonedDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps track of the state of the full-text search index. Until the index is known to be
+ * consistent with the database, searches are answered from the database.
+ */
+@Component
+public class SearchIndexStatus implements MassIndexingMonitor {
+
+    /**
+     * The states of the search index.
+     */
+    public enum State {
+        /**
+         * The index has not been checked yet.
+         */
+        UNKNOWN,
+
+        /**
+         * The index is being rebuilt.
+         */
+        INDEXING,
+
+        /**
+         * The index is consistent with the database.
+         */
+        READY,
+
+        /**
+         * Rebuilding the index failed.
+         */
+        FAILED
+    }
+
+    /**
+     * The current state.
+     */
+    private volatile State state = State.UNKNOWN;
+
+    /**
+     * Whether the index has been reused from the last run.
+     */
+    private volatile boolean reused;
+
+    /**
+     * The time the current state has been entered.
+     */
+    private volatile ZonedDateTime since = ZonedDateTime.now();
+
+    /**
+     * The message of the last indexing failure.
+     */
+    private volatile String failure;
+
+    /**
+     * The number of entities to index.
+     */
+    private final AtomicLong total = new AtomicLong();
+
+    /**
+     * The number of entities loaded.
+     */
+    private final AtomicLong loaded = new AtomicLong();
+
+    /**
+     * The number of documents built.
+     */
+    private final AtomicLong built = new AtomicLong();
+
+    /**
+     * The number of documents added to the index.
+     */
+    private final AtomicLong added = new AtomicLong();
+
+    /**
+     * Whether the index is consistent with the database.
+     *
+     * @return True if the index can be searched.
+     */
+    public boolean isReady() {
+        return state == State.READY;
+    }
+
+    /**
+     * Mark the index as reused from the last run.
+     */
+    public void reuse() {
+        reused = true;
+        enter(State.READY);
+    }
+
+    /**
+     * Mark the start of rebuilding the index.
+     */
+    public void start() {
+        reused = false;
+        failure = null;
+        total.set(0);
+        loaded.set(0);
+        built.set(0);
+        added.set(0);
+        enter(State.INDEXING);
+    }
+
+    /**
+     * Mark the index as rebuilt.
+     */
+    public void complete() {
+        enter(State.READY);
+    }
+
+    /**
+     * Mark rebuilding the index as failed.
+     *
+     * @param throwable The cause.
+     */
+    public void fail(final Throwable throwable) {
+        failure = throwable.getMessage();
+        enter(State.FAILED);
+    }
+
+    /**
+     * Get a summary of the state and the indexing progress.
+     *
+     * @return The summary.
+     */
+    public Map<String, Object> toSummary() {
+        final var summary = new LinkedHashMap<String, Object>();
+        summary.put("state", state);
+        summary.put("since", since);
+        summary.put("reused", reused);
+        summary.put("total", total.get());
+        summary.put("loaded", loaded.get());
+        summary.put("built", built.get());
+        summary.put("indexed", added.get());
+        if (failure != null) {
+            summary.put("failure", failure);
+        }
+        return summary;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void documentsAdded(final long increment) {
+        added.addAndGet(increment);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void documentsBuilt(final long number) {
+        built.addAndGet(number);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void entitiesLoaded(final long size) {
+        loaded.addAndGet(size);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void addToTotalCount(final long count) {
+        total.addAndGet(count);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void indexingCompleted() {
+        // The state is updated once the indexer has finished, including failures.
+    }
+
+    private void enter(final State newState) {
+        since = ZonedDateTime.now();
+        state = newState;
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright 2021 Fraunhofer Institute for Applied Information Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.fraunhofer.fit.appstore.model.search;
+
+import io.dataspaceconnector.common.exception.InvalidInputException;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Position in a paged search result. A cursor either points behind a hit, identified by its
+ * normalized sort title and its id, or at an offset. Offsets are only used for hits ranked by
+ * relevance, as the score can not be used for continuing a search. Cursors are exchanged with
+ * clients as opaque tokens.
+ */
+@Getter
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+public final class SearchCursor {
+
+    /**
+     * Token prefix of cursors pointing behind a hit.
+     */
+    private static final char KEYSET = 'k';
+
+    /**
+     * Token prefix of cursors pointing at an offset.
+     */
+    private static final char OFFSET = 'o';
+
+    /**
+     * Marker of hits without a title.
+     */
+    private static final char NO_TITLE = '-';
+
+    /**
+     * Marker of hits with a title.
+     */
+    private static final char TITLE = '=';
+
+    /**
+     * The length of a serialized uuid.
+     */
+    private static final int UUID_LENGTH = 36;
+
+    /**
+     * The normalized sort title of the last hit, null if it has no title.
+     */
+    private final String title;
+
+    /**
+     * The id of the last hit, null for offset cursors.
+     */
+    private final UUID id;
+
+    /**
+     * The offset of the next hit.
+     */
+    private final int offset;
+
+    /**
+     * Create a cursor pointing behind a hit.
+     *
+     * @param title The normalized sort title of the hit, may be null.
+     * @param id    The id of the hit.
+     * @return The cursor.
+     */
+    public static SearchCursor after(final String title, final UUID id) {
+        return new SearchCursor(title, id, 0);
+    }
+
+    /**
+     * Create a cursor pointing at an offset.
+     *
+     * @param offset The offset.
+     * @return The cursor.
+     */
+    public static SearchCursor at(final int offset) {
+        return new SearchCursor(null, null, Math.max(0, offset));
+    }
+
+    /**
+     * Whether this cursor points behind a hit.
+     *
+     * @return True if the cursor points behind a hit, false if it points at an offset.
+     */
+    public boolean isKeyset() {
+        return id != null;
+    }
+
+    /**
+     * Encode this cursor as an opaque token.
+     *
+     * @return The token.
+     */
+    public String encode() {
+        final var value = isKeyset()
+                ? KEYSET + id.toString() + (title == null ? String.valueOf(NO_TITLE) : TITLE + title)
+                : OFFSET + Integer.toString(offset);
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decode a cursor from a token.
+     *
+     * @param token The token.
+     * @return The cursor.
+     * @throws InvalidInputException if the token is not a valid cursor.
+     */
+    public static SearchCursor decode(final String token) {
+        try {
+            final var value = new String(Base64.getUrlDecoder().decode(token),
+                    StandardCharsets.UTF_8);
+            if (value.charAt(0) == OFFSET) {
+                return at(Integer.parseInt(value.substring(1)));
+            }
+
+            if (value.charAt(0) == KEYSET && value.length() > UUID_LENGTH + 1) {
+                final var id = UUID.fromString(value.substring(1, UUID_LENGTH + 1));
+                final var marker = value.charAt(UUID_LENGTH + 1);
+                if (marker == NO_TITLE) {
+                    return after(null, id);
+                }
+                if (marker == TITLE) {
+                    return after(value.substring(UUID_LENGTH + 2), id);
+                }
+            }
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new InvalidInputException("Invalid cursor.", e);
+        }
+
+        throw new InvalidInputException("Invalid cursor.");
+    }
+}
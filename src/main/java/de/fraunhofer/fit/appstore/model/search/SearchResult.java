@@ -21,6 +21,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * Entity containing search result details.
@@ -31,9 +32,9 @@ import java.util.List;
 public class SearchResult {
 
     /**
-     * The results count.
+     * The results count. Not set for pages continued by a cursor.
      */
-    private long resultsCount;
+    private Long resultsCount;
 
     /**
      * The page number.
@@ -41,13 +42,23 @@ public class SearchResult {
     private int pageNo;
 
     /**
-     * The page count.
+     * The page count. Not set for pages continued by a cursor.
      */
-    private int pageCount;
+    private Integer pageCount;
 
     /**
      * The app list.
      */
     private List<Resource> appList;
 
+    /**
+     * The number of matching apps per category. Not set for pages continued by a cursor.
+     */
+    private Map<String, Long> categories;
+
+    /**
+     * The opaque cursor of the next page, null if this is the last page.
+     */
+    private String nextCursor;
+
 }
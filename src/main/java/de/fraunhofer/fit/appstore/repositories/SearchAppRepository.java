@@ -15,22 +15,75 @@
  */
 package de.fraunhofer.fit.appstore.repositories;
 
+import de.fraunhofer.fit.appstore.config.SearchAnalysisConfigurer;
+import de.fraunhofer.fit.appstore.initializer.SearchIndexStatus;
+import de.fraunhofer.fit.appstore.model.search.SearchCursor;
+import de.fraunhofer.fit.appstore.model.search.SearchResult;
 import io.dataspaceconnector.model.app.App;
+import io.dataspaceconnector.model.config.SearchConstants;
+import io.dataspaceconnector.model.resource.OfferedResource;
 import io.dataspaceconnector.model.resource.Resource;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.search.engine.search.aggregation.AggregationKey;
+import org.hibernate.search.engine.search.predicate.dsl.BooleanPredicateClausesStep;
+import org.hibernate.search.engine.search.predicate.dsl.PredicateFinalStep;
+import org.hibernate.search.engine.search.predicate.dsl.SearchPredicateFactory;
 import org.hibernate.search.mapper.orm.Search;
 import org.springframework.stereotype.Repository;
 
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
 import javax.transaction.Transactional;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 
 /**
  * Repository for searching apps.
  */
 @Repository
+@RequiredArgsConstructor
 public class SearchAppRepository {
 
+    /**
+     * The boost of matches in the title.
+     */
+    private static final float TITLE_BOOST = 3.0f;
+
+    /**
+     * The boost of matches in the keywords.
+     */
+    private static final float KEYWORDS_BOOST = 2.0f;
+
+    /**
+     * The boost of matches of title word prefixes.
+     */
+    private static final float PREFIX_BOOST = 1.5f;
+
+    /**
+     * The boost of fuzzy matches.
+     */
+    private static final float FUZZY_BOOST = 0.5f;
+
+    /**
+     * The maximum number of categories returned as facets.
+     */
+    private static final int MAX_CATEGORIES = 100;
+
+    /**
+     * The maximum number of categories returned for the whole catalogue.
+     */
+    private static final int MAX_ALL_CATEGORIES = 1000;
+
+    /**
+     * The key of the category aggregation.
+     */
+    private static final AggregationKey<Map<String, Long>> CATEGORIES =
+            AggregationKey.of("categories");
+
     /**
      * The entity manager.
      */
@@ -38,153 +91,298 @@ public class SearchAppRepository {
     private EntityManager entityManager;
 
     /**
-     * Search the number of apps for a given search input.
-     *
-     * @param searchText The search text.
-     * @return The number of matching apps.
+     * The state of the search index.
      */
-    @Transactional
-    public long searchResourceTotalCount(final String searchText) {
-        final var searchSession = Search.session(entityManager);
-        final var scope = searchSession.scope(Resource.class);
-
-        return searchSession.search(Resource.class)
-                .where(scope.predicate().match()
-                        .fields("description")
-                        .matching(searchText).toPredicate())
-                .fetchTotalHitCount();
-    }
+    private final @NonNull SearchIndexStatus indexStatus;
 
     /**
-     * Search apps for a given search input, the page number, and the number of results per page.
+     * Search app resources matching a text and optionally a category. The hits of the requested
+     * page, the total number of hits, and the number of hits per category are computed by a
+     * single query. Hits are ranked by relevance: matches in the title weigh more than matches
+     * in the keywords and the description, prefixes of title words and misspelled words match
+     * as well. Without a search text, the hits are sorted by title and continued behind the
+     * last hit of the previous page, see {@link #browse(Class, String, SearchCursor, int)}.
+     * While the index is being built, the database is searched instead.
      *
-     * @param text           The search text.
-     * @param pageNo         The page number.
+     * @param text           The search text. If empty, all resources match.
+     * @param category       The category to filter by, may be null.
+     * @param cursor         The position of the page, null for the first page.
      * @param resultsPerPage The number of results per page.
-     * @return A list of matching apps.
+     * @return The search result.
      */
     @Transactional
-    public List<App> searchApps(final String text, final int pageNo, final int resultsPerPage) {
+    public SearchResult search(final String text, final String category,
+                               final SearchCursor cursor, final int resultsPerPage) {
+        if (!indexStatus.isReady()) {
+            return searchDatabase(Resource.class, text, category, cursor, resultsPerPage);
+        }
+
+        if (text == null || text.isBlank()) {
+            return browse(Resource.class, category, cursor, resultsPerPage);
+        }
+
         final var searchSession = Search.session(entityManager);
-        final var scope = searchSession.scope(App.class);
 
-        // For Pagination Skip Results --> offset = pageNo * resultsPerPage
-        final int offset = pageNo * resultsPerPage;
-        final var result = searchSession.search(scope)
-                .where(scope.predicate()
-                        .match()
-                        .fields("description")
-                        .matching(text)
-                        .toPredicate())
+        // Scores can not be continued, so ranked hits are paged by offset.
+        final int offset = cursor == null || cursor.isKeyset() ? 0 : cursor.getOffset();
+        final var result = searchSession.search(Resource.class)
+                .where(f -> filterCategory(f, f.bool().must(matchText(f, text)), category))
+                .sort(f -> f.score().then().field(SearchConstants.TITLE_SORT))
+                .aggregation(CATEGORIES, f -> f.terms()
+                        .field(SearchConstants.KEYWORDS_FACET, String.class)
+                        .maxTermCount(MAX_CATEGORIES))
                 .fetch(offset, resultsPerPage);
 
-        long totalHitCount = result.total().hitCount(); // TODO not used?
+        final var totalHitCount = result.total().hitCount();
+        final var pageCount = resultsPerPage <= 0 ? 1
+                : (int) Math.max(1, (totalHitCount + resultsPerPage - 1) / resultsPerPage);
 
-        return result.hits();
+        final var searchResult = new SearchResult();
+        searchResult.setPageNo(resultsPerPage <= 0 ? 0 : offset / resultsPerPage);
+        searchResult.setResultsCount(totalHitCount);
+        searchResult.setPageCount(pageCount);
+        searchResult.setAppList(result.hits());
+        searchResult.setCategories(result.aggregation(CATEGORIES));
+        if (offset + resultsPerPage < totalHitCount) {
+            searchResult.setNextCursor(SearchCursor.at(offset + resultsPerPage).encode());
+        }
+        return searchResult;
     }
 
     /**
-     * Search apps categories.
+     * List offered app resources sorted by title. While the index is being built, the
+     * database is queried instead.
      *
-     * @return A list of matching app resources.
+     * @param cursor         The position of the page, null for the first page.
+     * @param resultsPerPage The number of results per page.
+     * @return The search result.
      */
-    public List<Resource> searchResourceCategories() {
-        final var searchSession = Search.session(entityManager);
-        final var scope = searchSession.scope(Resource.class);
+    @Transactional
+    public SearchResult list(final SearchCursor cursor, final int resultsPerPage) {
+        if (!indexStatus.isReady()) {
+            return searchDatabase(OfferedResource.class, null, null, cursor, resultsPerPage);
+        }
 
-        return searchSession.search(scope).where(f ->
-                f.exists().field("keywords")).fetchAll().hits();
+        return browse(OfferedResource.class, null, cursor, resultsPerPage);
     }
 
     /**
-     * Search app descriptions.
+     * Page through resources sorted by title and id. A page is continued behind the last hit of
+     * the previous page instead of skipping the hits before it, so every page costs the same.
+     * The total number of hits and the hits per category are only computed for the first page,
+     * as following pages only see the hits behind their cursor.
      *
-     * @return A list of matching apps.
+     * @param type           The resource type.
+     * @param category       The category to filter by, may be null.
+     * @param cursor         The position of the page, null for the first page.
+     * @param resultsPerPage The number of results per page.
+     * @return The search result.
      */
-    public List<App> searchAppDescription() {
+    private SearchResult browse(final Class<? extends Resource> type, final String category,
+                                final SearchCursor cursor, final int resultsPerPage) {
         final var searchSession = Search.session(entityManager);
-        final var scope = searchSession.scope(App.class);
+        final var isContinued = cursor != null && cursor.isKeyset();
+        final int offset = cursor == null || isContinued ? 0 : cursor.getOffset();
 
-        return searchSession.search(scope).where(f ->
-                f.exists().field("description")).fetchAll().hits();
+        var query = searchSession.search(type)
+                .where(f -> {
+                    final var matches = f.bool().must(f.matchAll());
+                    if (isContinued) {
+                        matches.filter(after(f, cursor));
+                    }
+                    return filterCategory(f, matches, category);
+                })
+                .sort(f -> f.field(SearchConstants.TITLE_SORT).missing().last()
+                        .then().field(SearchConstants.ID_SORT));
+        if (!isContinued) {
+            query = query.aggregation(CATEGORIES, f -> f.terms()
+                    .field(SearchConstants.KEYWORDS_FACET, String.class)
+                    .maxTermCount(MAX_CATEGORIES));
+        }
+
+        // Fetch one more hit to know whether there is a next page.
+        final var result = query.fetch(offset, resultsPerPage + 1);
+        final List<Resource> hits = new ArrayList<>(result.hits());
+
+        final var searchResult = new SearchResult();
+        if (hits.size() > resultsPerPage) {
+            hits.subList(resultsPerPage, hits.size()).clear();
+            final var last = hits.get(hits.size() - 1);
+            searchResult.setNextCursor(SearchCursor.after(
+                    SearchAnalysisConfigurer.normalizeSortKey(last.getTitle()),
+                    last.getId()).encode());
+        }
+
+        searchResult.setAppList(hits);
+        if (!isContinued) {
+            final var totalHitCount = result.total().hitCount();
+            searchResult.setPageNo(resultsPerPage <= 0 ? 0 : offset / resultsPerPage);
+            searchResult.setResultsCount(totalHitCount);
+            searchResult.setPageCount(resultsPerPage <= 0 ? 1
+                    : (int) Math.max(1, (totalHitCount + resultsPerPage - 1) / resultsPerPage));
+            searchResult.setCategories(result.aggregation(CATEGORIES));
+        }
+        return searchResult;
     }
 
     /**
-     * Search app resources by category.
+     * Search the database for resources whose title or description contain a text, used while
+     * the index is being built. Hits are sorted by title and paged by offset; cursors pointing
+     * behind a hit restart at the first page. Categories are not counted.
      *
-     * @param category       The category.
-     * @param pageNo         The page number.
+     * @param type           The resource type.
+     * @param text           The search text, may be null.
+     * @param category       The category to filter by, may be null.
+     * @param cursor         The position of the page, null for the first page.
      * @param resultsPerPage The number of results per page.
-     * @return A list of matching resources.
+     * @return The search result.
      */
-    @Transactional
-    public List<Resource> searchResourcesByCategory(final String category, final int pageNo,
-                                                    final int resultsPerPage) {
-        final var searchSession = Search.session(entityManager);
-        final var scope = searchSession.scope(Resource.class);
-
-        // For Pagination Skip Results --> offset = pageNo * resultsPerPage
-        final int offset = pageNo * resultsPerPage;
-        final var result = searchSession.search(scope)
-                .where(scope.predicate()
-                        .match()
-                        .field("keywords")
-                        .matching(category)
-                        .toPredicate())
-                .fetch(offset, resultsPerPage);
+    private SearchResult searchDatabase(final Class<? extends Resource> type, final String text,
+                                        final String category, final SearchCursor cursor,
+                                        final int resultsPerPage) {
+        final var hasText = text != null && !text.isBlank();
+        final var hasCategory = category != null && !category.isBlank();
+
+        final var where = new StringBuilder(" FROM ").append(type.getSimpleName())
+                .append(" r WHERE 1 = 1");
+        if (hasText) {
+            where.append(" AND (LOWER(r.title) LIKE :pattern ESCAPE '!'"
+                    + " OR LOWER(r.description) LIKE :pattern ESCAPE '!')");
+        }
+        if (hasCategory) {
+            where.append(" AND :category MEMBER OF r.keywords");
+        }
+
+        final var countQuery = entityManager.createQuery("SELECT COUNT(r)" + where, Long.class);
+        final var hitQuery = entityManager.createQuery("SELECT r" + where
+                + " ORDER BY r.title, r.id", Resource.class);
+        for (final var query : List.of(countQuery, hitQuery)) {
+            if (hasText) {
+                query.setParameter("pattern", "%" + text.strip().toLowerCase(Locale.ROOT)
+                        .replace("!", "!!")
+                        .replace("%", "!%")
+                        .replace("_", "!_") + "%");
+            }
+            if (hasCategory) {
+                query.setParameter("category", category);
+            }
+        }
 
-        long totalHitCount = result.total().hitCount();
+        final int offset = cursor == null || cursor.isKeyset() ? 0 : cursor.getOffset();
+        final long totalHitCount = countQuery.getSingleResult();
+        final var hits = hitQuery.setFirstResult(offset)
+                .setMaxResults(resultsPerPage)
+                .getResultList();
 
-        return result.hits();
+        final var searchResult = new SearchResult();
+        searchResult.setPageNo(resultsPerPage <= 0 ? 0 : offset / resultsPerPage);
+        searchResult.setResultsCount(totalHitCount);
+        searchResult.setPageCount(resultsPerPage <= 0 ? 1
+                : (int) Math.max(1, (totalHitCount + resultsPerPage - 1) / resultsPerPage));
+        searchResult.setAppList(hits);
+        if (offset + resultsPerPage < totalHitCount) {
+            searchResult.setNextCursor(SearchCursor.at(offset + resultsPerPage).encode());
+        }
+        return searchResult;
     }
 
     /**
-     * Search apps by category.
+     * Match the hits sorted behind the hit of a cursor. Hits without a title are sorted last.
      *
-     * @param category       The category.
-     * @param pageNo         The page number.
-     * @param resultsPerPage The number of results per page.
-     * @return A list of matching apps.
+     * @param f      The predicate factory.
+     * @param cursor The cursor.
+     * @return The predicate.
      */
-    @Transactional
-    public List<Resource> searchResourceByDescription(final String category, final int pageNo,
-                                                 final int resultsPerPage) {
-        final var searchSession = Search.session(entityManager);
-        final var scope = searchSession.scope(Resource.class);
-
-        // For Pagination Skip Results --> offset = pageNo * resultsPerPage
-        final int offset = pageNo * resultsPerPage;
-        final var result = searchSession.search(scope)
-                .where(scope.predicate()
-                        .match()
-                        .field("description")
-                        .matching(category)
-                        .toPredicate())
-                .fetch(offset, resultsPerPage);
+    private PredicateFinalStep after(final SearchPredicateFactory f, final SearchCursor cursor) {
+        final var title = cursor.getTitle();
+        final var behindId = f.range().field(SearchConstants.ID_SORT)
+                .greaterThan(cursor.getId());
+        final var noTitle = f.bool().mustNot(f.exists().field(SearchConstants.TITLE_SORT));
+        if (title == null) {
+            return noTitle.must(behindId);
+        }
 
-        long totalHitCount = result.total().hitCount();
+        return f.bool()
+                .should(f.range().field(SearchConstants.TITLE_SORT).greaterThan(title))
+                .should(f.bool()
+                        .must(f.match().field(SearchConstants.TITLE_SORT).matching(title))
+                        .must(behindId))
+                .should(noTitle);
+    }
 
-        return result.hits();
+    private PredicateFinalStep filterCategory(final SearchPredicateFactory f,
+                                              final BooleanPredicateClausesStep<?> matches,
+                                              final String category) {
+        if (category != null && !category.isBlank()) {
+            matches.filter(f.match()
+                    .field(SearchConstants.KEYWORDS_FACET)
+                    .matching(category));
+        }
+        return matches;
+    }
+
+    private PredicateFinalStep matchText(final SearchPredicateFactory f, final String text) {
+        if (text == null || text.isBlank()) {
+            return f.matchAll();
+        }
+
+        return f.bool()
+                .should(f.match()
+                        .field(SearchConstants.TITLE).boost(TITLE_BOOST)
+                        .field(SearchConstants.KEYWORDS).boost(KEYWORDS_BOOST)
+                        .field(SearchConstants.DESCRIPTION)
+                        .matching(text))
+                .should(f.match()
+                        .field(SearchConstants.TITLE_PREFIX)
+                        .matching(text)
+                        .boost(PREFIX_BOOST))
+                .should(f.match()
+                        .field(SearchConstants.TITLE)
+                        .field(SearchConstants.KEYWORDS)
+                        .field(SearchConstants.DESCRIPTION)
+                        .matching(text)
+                        .fuzzy()
+                        .boost(FUZZY_BOOST));
     }
 
     /**
-     * Search app resources by category total count.
+     * Count the app resources per category. The counts are read from the index, no entities
+     * are loaded. While the index is being built, the database is queried instead.
      *
-     * @param category The category.
-     * @return The total count.
+     * @return The number of resources per category, ordered by descending count.
      */
     @Transactional
-    public long searchResourcesByCategoryTotalCount(final String category) {
+    public Map<String, Long> countCategories() {
+        if (!indexStatus.isReady()) {
+            final var categories = new LinkedHashMap<String, Long>();
+            entityManager.createQuery("SELECT k, COUNT(r) FROM Resource r JOIN r.keywords k"
+                            + " GROUP BY k ORDER BY COUNT(r) DESC", Object[].class)
+                    .setMaxResults(MAX_ALL_CATEGORIES)
+                    .getResultList()
+                    .forEach(row -> categories.put((String) row[0], (Long) row[1]));
+            return categories;
+        }
+
+        return Search.session(entityManager).search(Resource.class)
+                .where(f -> f.matchAll())
+                .aggregation(CATEGORIES, f -> f.terms()
+                        .field(SearchConstants.KEYWORDS_FACET, String.class)
+                        .maxTermCount(MAX_ALL_CATEGORIES))
+                .fetch(0)
+                .aggregation(CATEGORIES);
+    }
+
+    /**
+     * Search app descriptions.
+     *
+     * @return A list of matching apps.
+     */
+    public List<App> searchAppDescription() {
         final var searchSession = Search.session(entityManager);
-        final var scope = searchSession.scope(Resource.class);
-
-        return searchSession.search(Resource.class)
-                .where(scope.predicate()
-                        .match()
-                        .fields("keywords")
-                        .matching(category)
-                        .toPredicate())
-                .fetchTotalHitCount();
+        final var scope = searchSession.scope(App.class);
+
+        return searchSession.search(scope).where(f ->
+                f.exists().field("description")).fetchAll().hits();
     }
 
 }
@@ -0,0 +1,487 @@
+/*
+ * Copyright 2021 Fraunhofer Institute for Applied Information Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.fraunhofer.fit.appstore.services.registry;
+
+import de.fraunhofer.fit.appstore.config.RegistryCredentialPoolConfig;
+import de.fraunhofer.fit.appstore.exceptions.RegistryException;
+import de.fraunhofer.fit.harbor.client.invoker.ApiException;
+import de.fraunhofer.fit.harbor.client.model.UserCreationReq;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Keeps a pool of ready-to-use guest credentials for pulling images from the registry. The pool
+ * is refilled in the background, so that handing out credentials does not require any registry
+ * call on the request path. The names of the pooled users are written to a file in the
+ * background, so users left over by a crash are revoked on the next start. Users whose
+ * revocation failed stay listed and are revoked again by the next maintenance run.
+ */
+@Log4j2
+@Service
+public class RegistryCredentialPool {
+
+    /**
+     * The registry service.
+     */
+    private final @NonNull RegistryService registryService;
+
+    /**
+     * The pool configuration.
+     */
+    private final @NonNull RegistryCredentialPoolConfig poolConfig;
+
+    /**
+     * The pooled credentials. New credentials are added at the tail, the oldest ones are at the
+     * head.
+     */
+    private final Deque<PooledCredential> credentials = new ConcurrentLinkedDeque<>();
+
+    /**
+     * The number of pooled credentials. Tracked separately, since the size of the deque is not a
+     * constant-time operation.
+     */
+    private final AtomicInteger size = new AtomicInteger();
+
+    /**
+     * The names of users that left the pool and still have to be revoked.
+     */
+    private final Set<String> stale = ConcurrentHashMap.newKeySet();
+
+    /**
+     * The default directory of the pool file, relative to the working directory. Used if the
+     * configured directory can not be created.
+     */
+    private static final Path FALLBACK_DIRECTORY = Path.of("data", "registry");
+
+    /**
+     * The file listing the pooled and stale users. Writes are guarded by the pool's lock.
+     */
+    private final Path file;
+
+    /**
+     * Indicates whether a write of the pool file is scheduled and has not started yet.
+     */
+    private final AtomicBoolean persistScheduled = new AtomicBoolean();
+
+    /**
+     * Indicates whether the last write of the pool file failed. Only the first failure of a
+     * series is logged as warning.
+     */
+    private final AtomicBoolean persistFailed = new AtomicBoolean();
+
+    /**
+     * Indicates whether a refill is currently scheduled or running.
+     */
+    private final AtomicBoolean refilling = new AtomicBoolean();
+
+    /**
+     * Executor running refills and revocations.
+     */
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        final var thread = new Thread(runnable, "registry-credential-pool");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Counts credentials served from the pool.
+     */
+    private final Counter hitCounter;
+
+    /**
+     * Counts credentials that had to be created on demand.
+     */
+    private final Counter missCounter;
+
+    /**
+     * Counts revoked credentials.
+     */
+    private final Counter revocationCounter;
+
+    /**
+     * Measures the duration of a refill.
+     */
+    private final Timer refillTimer;
+
+    /**
+     * Constructor for RegistryCredentialPool.
+     *
+     * @param registrySvc   The registry service.
+     * @param config        The pool configuration.
+     * @param meterRegistry The meter registry.
+     */
+    @SuppressFBWarnings("PATH_TRAVERSAL_IN")
+    public RegistryCredentialPool(final @NonNull RegistryService registrySvc,
+                                  final @NonNull RegistryCredentialPoolConfig config,
+                                  final @NonNull MeterRegistry meterRegistry) {
+        this.registryService = registrySvc;
+        this.poolConfig = config;
+        this.file = resolveFile(Path.of(config.getPath()));
+        this.hitCounter = meterRegistry.counter("appstore.registry.credentials.pool.hits");
+        this.missCounter = meterRegistry.counter("appstore.registry.credentials.pool.misses");
+        this.revocationCounter
+                = meterRegistry.counter("appstore.registry.credentials.pool.revocations");
+        this.refillTimer = meterRegistry.timer("appstore.registry.credentials.pool.refill");
+        Gauge.builder("appstore.registry.credentials.pool.size", size, AtomicInteger::get)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Revoke the users that were held by the pool when the application stopped last time.
+     */
+    @PostConstruct
+    public void recover() {
+        if (!Files.exists(file)) {
+            return;
+        }
+
+        try {
+            for (final var line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                if (!line.isBlank()) {
+                    stale.add(line.strip());
+                }
+            }
+        } catch (IOException e) {
+            if (log.isWarnEnabled()) {
+                log.warn("Failed to read pooled registry users. [file=({}), exception=({})]",
+                        file, e.getMessage());
+            }
+            return;
+        }
+
+        if (!stale.isEmpty()) {
+            if (log.isInfoEnabled()) {
+                log.info("Revoking registry users left over in the pool. [count=({})]",
+                        stale.size());
+            }
+            executor.execute(this::revokeStale);
+        }
+    }
+
+    /**
+     * Take credentials for pulling images. The credentials are taken from the pool if possible,
+     * otherwise they are created on demand.
+     *
+     * @return The user credentials.
+     * @throws IllegalArgumentException if the input is invalid.
+     * @throws RegistryException        if the registry could not process the request.
+     * @throws ApiException             if the credentials could not be created.
+     */
+    public UserCreationReq take() throws IllegalArgumentException, RegistryException,
+            ApiException {
+        if (poolConfig.isEnabled()) {
+            // Take the newest credential, expired ones are only found if the whole pool expired.
+            PooledCredential credential;
+            while ((credential = credentials.pollLast()) != null) {
+                size.decrementAndGet();
+                if (!isExpired(credential)) {
+                    // Handed out users must not be revoked after a crash. The file is written
+                    // in the background, so the request does not wait for the disk.
+                    persistAsync();
+                    hitCounter.increment();
+                    refillIfRequired();
+                    return credential.getUser();
+                }
+
+                revokeAsync(credential.getUser().getUsername());
+            }
+
+            missCounter.increment();
+            refillIfRequired();
+        }
+
+        return registryService.createUserCredentialsForPullingImages();
+    }
+
+    /**
+     * Get the number of pooled credentials.
+     *
+     * @return The pool size.
+     */
+    public int size() {
+        return size.get();
+    }
+
+    /**
+     * Periodically revokes expired credentials and refills the pool.
+     */
+    @Scheduled(fixedDelayString = "${registry.credentials.pool.maintenance-delay:30000}")
+    public void maintain() {
+        if (!poolConfig.isEnabled()) {
+            return;
+        }
+
+        executor.execute(this::evictExpired);
+        if (!stale.isEmpty()) {
+            executor.execute(this::revokeStale);
+        }
+        refillIfRequired();
+    }
+
+    /**
+     * Revokes all unused credentials on shutdown.
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+
+        PooledCredential credential;
+        while ((credential = credentials.pollFirst()) != null) {
+            size.decrementAndGet();
+            revoke(credential.getUser().getUsername());
+        }
+    }
+
+    /**
+     * Schedule a refill if the pool size dropped below the low watermark and no refill is
+     * running yet.
+     */
+    private void refillIfRequired() {
+        if (size.get() < poolConfig.getLowWatermark() && refilling.compareAndSet(false, true)) {
+            try {
+                executor.execute(this::refill);
+            } catch (Exception e) {
+                refilling.set(false);
+                if (log.isDebugEnabled()) {
+                    log.debug("Could not schedule credential refill. [exception=({})]",
+                            e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Fill the pool up to the high watermark.
+     */
+    private void refill() {
+        final var start = System.nanoTime();
+        var created = 0;
+        try {
+            while (size.get() < poolConfig.getHighWatermark()
+                    && !Thread.currentThread().isInterrupted()) {
+                final var user = registryService.createUserCredentialsForPullingImages();
+                credentials.addLast(new PooledCredential(user, Instant.now()));
+                size.incrementAndGet();
+                persist();
+                created++;
+            }
+        } catch (ApiException | RegistryException | IllegalArgumentException e) {
+            if (log.isWarnEnabled()) {
+                log.warn("Failed to refill registry credential pool. [exception=({})]",
+                        e.getMessage());
+            }
+        } finally {
+            refillTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            refilling.set(false);
+        }
+
+        if (log.isDebugEnabled()) {
+            log.debug("Refilled registry credential pool. [created=({}), size=({})]",
+                    created, size.get());
+        }
+    }
+
+    /**
+     * Remove and revoke expired credentials. Since credentials are added in creation order, only
+     * the head of the pool has to be inspected.
+     */
+    private void evictExpired() {
+        PooledCredential credential;
+        while ((credential = credentials.peekFirst()) != null && isExpired(credential)) {
+            if (credentials.removeFirstOccurrence(credential)) {
+                size.decrementAndGet();
+                revoke(credential.getUser().getUsername());
+            }
+        }
+    }
+
+    /**
+     * Check whether a pooled credential exceeded its time to live.
+     *
+     * @param credential The pooled credential.
+     * @return True if the credential is expired.
+     */
+    private boolean isExpired(final PooledCredential credential) {
+        return credential.getCreated().plus(poolConfig.getTtl()).isBefore(Instant.now());
+    }
+
+    /**
+     * Revoke a user in the background.
+     *
+     * @param username The username.
+     */
+    private void revokeAsync(final String username) {
+        stale.add(username);
+        try {
+            executor.execute(() -> revoke(username));
+        } catch (Exception e) {
+            revoke(username);
+        }
+    }
+
+    /**
+     * Revoke the users that could not be revoked before.
+     */
+    private void revokeStale() {
+        for (final var username : List.copyOf(stale)) {
+            if (Thread.currentThread().isInterrupted()) {
+                return;
+            }
+            revoke(username);
+        }
+    }
+
+    /**
+     * Delete a registry user. If that fails, the user is kept as stale and revoked again later.
+     *
+     * @param username The username.
+     */
+    private void revoke(final String username) {
+        stale.add(username);
+        try {
+            registryService.deleteUser(username);
+            stale.remove(username);
+            revocationCounter.increment();
+        } catch (ApiException | RegistryException e) {
+            if (log.isWarnEnabled()) {
+                log.warn("Failed to revoke registry user. [username=({}), exception=({})]",
+                        username, e.getMessage());
+            }
+        }
+        persist();
+    }
+
+    /**
+     * Use the configured pool file if its directory can be created, otherwise a file relative to
+     * the working directory. The configured default only exists in the Docker image.
+     *
+     * @param configured The configured pool file.
+     * @return The pool file.
+     */
+    @SuppressFBWarnings("PATH_TRAVERSAL_IN")
+    private static Path resolveFile(final Path configured) {
+        final var path = configured.toAbsolutePath();
+        try {
+            Files.createDirectories(path.getParent());
+            return path;
+        } catch (IOException e) {
+            final var fallback = FALLBACK_DIRECTORY.resolve(path.getFileName()).toAbsolutePath();
+            if (log.isWarnEnabled()) {
+                log.warn("Cannot create directory of registry credential pool file, using "
+                        + "fallback. [file=({}), fallback=({}), exception=({})]", path,
+                        fallback, e.getMessage());
+            }
+            return fallback;
+        }
+    }
+
+    /**
+     * Write the pool file in the background. Writes requested while one is waiting are merged.
+     */
+    private void persistAsync() {
+        if (persistScheduled.compareAndSet(false, true)) {
+            try {
+                executor.execute(() -> {
+                    persistScheduled.set(false);
+                    persist();
+                });
+            } catch (Exception e) {
+                // Shut down, the remaining users are written by their revocation.
+                persistScheduled.set(false);
+            }
+        }
+    }
+
+    /**
+     * Write the names of the pooled and stale users to the pool file.
+     */
+    private synchronized void persist() {
+        final var names = new ArrayList<String>(stale);
+        for (final var credential : credentials) {
+            names.add(credential.getUser().getUsername());
+        }
+
+        try {
+            final var directory = file.getParent();
+            Files.createDirectories(directory);
+            final var tmp = Files.createTempFile(directory, "credential-pool-", ".tmp");
+            try {
+                Files.write(tmp, names, StandardCharsets.UTF_8);
+                Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE,
+                        StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                Files.deleteIfExists(tmp);
+            }
+            persistFailed.set(false);
+        } catch (IOException e) {
+            if (!persistFailed.getAndSet(true)) {
+                if (log.isWarnEnabled()) {
+                    log.warn("Failed to write pooled registry users. [file=({}), "
+                            + "exception=({})]", file, e.getMessage());
+                }
+            } else if (log.isDebugEnabled()) {
+                log.debug("Failed to write pooled registry users. [file=({}), "
+                        + "exception=({})]", file, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * A credential together with its creation time.
+     */
+    @Getter
+    @RequiredArgsConstructor
+    private static final class PooledCredential {
+        /**
+         * The user credentials.
+         */
+        private final UserCreationReq user;
+
+        /**
+         * The creation time.
+         */
+        private final Instant created;
+    }
+}
@@ -225,6 +225,22 @@ public class RegistryService {
         return user;
     }
 
+    /**
+     * Delete a user from the registry. Nothing happens if the user does not exist.
+     *
+     * @param username The username.
+     * @throws ApiException if the user could not be deleted.
+     */
+    public void deleteUser(final String username) throws ApiException {
+        final var users = this.searchUserByName(username);
+        for (final var user : users) {
+            if (username.equals(user.getUsername())) {
+                final var xRequestedId = UUID.randomUUID().toString();
+                this.userApi.deleteUser(user.getUserId(), xRequestedId);
+            }
+        }
+    }
+
     /**
      * Create user credentials for pushing images.
      *
@@ -0,0 +1,596 @@
+/*
+ * Copyright 2021 Fraunhofer Institute for Applied Information Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.fraunhofer.fit.appstore.services.registry.webhook;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.fraunhofer.fit.appstore.config.RegistryWebhookQueueConfig;
+import de.fraunhofer.fit.appstore.exceptions.TemplateException;
+import de.fraunhofer.fit.appstore.exceptions.WebhookException;
+import de.fraunhofer.fit.appstore.model.registry.webhook.Event;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.NonNull;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Accepts registry webhook events and processes them in the background. Accepted events are
+ * stored as files until they have been processed, so they survive a restart. Events of one
+ * repository are processed in order, different repositories in parallel. An event is identified
+ * by its type, repository and digest: a redelivered event is ignored, and a pending event is
+ * replaced by a newer one with the same key. A lane waits for the coalesce window before it
+ * processes its pending events as one batch, so the events of a push are applied to the app at
+ * once. Events that could not be processed after all attempts are moved to the failed sub
+ * directory.
+ */
+@Log4j2
+@Service
+public class RegistryWebhookQueue {
+
+    /**
+     * The file extension of stored events.
+     */
+    private static final String EXTENSION = ".json";
+
+    /**
+     * The sub directory for events that could not be processed.
+     */
+    private static final String FAILED_DIRECTORY = "failed";
+
+    /**
+     * The number of processed event keys remembered for detecting redeliveries.
+     */
+    private static final int PROCESSED_CAPACITY = 1000;
+
+    /**
+     * The default directory of stored events, relative to the working directory. Used if the
+     * configured directory can not be created.
+     */
+    private static final Path FALLBACK_DIRECTORY = Path.of("data", "webhooks");
+
+    /**
+     * The service processing events.
+     */
+    private final @NonNull RegistryWebhookService webhookService;
+
+    /**
+     * The queue settings.
+     */
+    private final @NonNull RegistryWebhookQueueConfig config;
+
+    /**
+     * The object mapper.
+     */
+    private final @NonNull ObjectMapper objectMapper;
+
+    /**
+     * The directory of stored events.
+     */
+    private final Path root;
+
+    /**
+     * Executor processing the lanes.
+     */
+    private final ScheduledExecutorService executor;
+
+    /**
+     * The lanes by repository.
+     */
+    private final Map<String, Lane> lanes = new ConcurrentHashMap<>();
+
+    /**
+     * The sequence number of the last stored event.
+     */
+    private final AtomicLong sequence = new AtomicLong();
+
+    /**
+     * The number of events waiting for processing, over all lanes.
+     */
+    private final AtomicInteger queued = new AtomicInteger();
+
+    /**
+     * The occurrence of the last processed event by key. Guarded by itself.
+     */
+    private final Map<String, String> processed = new LinkedHashMap<>() {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<String, String> eldest) {
+            return size() > PROCESSED_CAPACITY;
+        }
+    };
+
+    /**
+     * Counts accepted events.
+     */
+    private final Counter acceptedCounter;
+
+    /**
+     * Counts ignored redeliveries.
+     */
+    private final Counter duplicateCounter;
+
+    /**
+     * Counts events that could not be processed.
+     */
+    private final Counter failedCounter;
+
+    /**
+     * Counts processed batches.
+     */
+    private final Counter batchCounter;
+
+    /**
+     * Constructor for RegistryWebhookQueue.
+     *
+     * @param registryWebhookService The service processing events.
+     * @param queueConfig            The queue settings.
+     * @param mapper                 The object mapper.
+     * @param meterRegistry          The meter registry.
+     */
+    @SuppressFBWarnings("PATH_TRAVERSAL_IN")
+    public RegistryWebhookQueue(final @NonNull RegistryWebhookService registryWebhookService,
+                                final @NonNull RegistryWebhookQueueConfig queueConfig,
+                                final @NonNull ObjectMapper mapper,
+                                final @NonNull MeterRegistry meterRegistry) {
+        this.webhookService = registryWebhookService;
+        this.config = queueConfig;
+        this.objectMapper = mapper;
+        this.root = resolveRoot(Path.of(queueConfig.getPath()));
+
+        final var threadCount = new AtomicInteger();
+        this.executor = Executors.newScheduledThreadPool(
+                Math.max(1, queueConfig.getThreads()), runnable -> {
+                    final var thread = new Thread(runnable,
+                            "registry-webhook-queue-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+
+        this.acceptedCounter = meterRegistry.counter("registry.webhook.queue.accepted");
+        this.duplicateCounter = meterRegistry.counter("registry.webhook.queue.duplicates");
+        this.failedCounter = meterRegistry.counter("registry.webhook.queue.failed");
+        this.batchCounter = meterRegistry.counter("registry.webhook.queue.batches");
+        Gauge.builder("registry.webhook.queue.depth", queued, AtomicInteger::get)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queue the events that have been accepted before the last shutdown.
+     *
+     * @throws IOException if the stored events could not be listed.
+     */
+    @PostConstruct
+    public void recover() throws IOException {
+        Files.createDirectories(root);
+        // New events must not reuse the names of failed ones.
+        sequence.set(Math.max(sequence.get(), getLastFailedSequence()));
+
+        final var files = new ArrayList<Path>();
+        try (var stream = Files.list(root)) {
+            stream.filter(Files::isRegularFile).forEach(files::add);
+        }
+        files.sort(null);
+
+        for (final var file : files) {
+            final var name = file.getFileName().toString();
+            if (!name.endsWith(EXTENSION)) {
+                // Left over from an interrupted write.
+                Files.deleteIfExists(file);
+                continue;
+            }
+
+            try {
+                sequence.set(Math.max(sequence.get(), Long.parseLong(
+                        name.substring(0, name.length() - EXTENSION.length()))));
+                final var event = objectMapper.readValue(Files.readString(file), Event.class);
+                RegistryWebhookUtils.validateEvent(event);
+                getLane(event).add(new Queued(file, event, getKey(event)));
+            } catch (IOException | NumberFormatException | WebhookException e) {
+                moveToFailed(file, e);
+            }
+        }
+
+        if (!files.isEmpty() && log.isInfoEnabled()) {
+            log.info("Recovered registry webhook events. [count=({})]", queued.get());
+        }
+    }
+
+    /**
+     * Use the configured directory if it can be created, otherwise a directory relative to the
+     * working directory. The configured default only exists in the Docker image.
+     *
+     * @param configured The configured directory.
+     * @return The directory of stored events.
+     */
+    @SuppressFBWarnings("PATH_TRAVERSAL_IN")
+    private static Path resolveRoot(final Path configured) {
+        try {
+            Files.createDirectories(configured);
+            return configured;
+        } catch (IOException e) {
+            final var fallback = FALLBACK_DIRECTORY.toAbsolutePath();
+            if (log.isWarnEnabled()) {
+                log.warn("Cannot create webhook queue directory, using fallback. "
+                        + "[path=({}), fallback=({}), exception=({})]", configured, fallback,
+                        e.getMessage());
+            }
+            return fallback;
+        }
+    }
+
+    /**
+     * Accept a webhook event for processing.
+     *
+     * @param body The JSON webhook event.
+     * @return false if the event has been ignored as redelivery.
+     * @throws JsonProcessingException if the event could not be read.
+     * @throws WebhookException        if the event is invalid.
+     * @throws IOException             if the event could not be stored.
+     */
+    public boolean accept(final String body) throws JsonProcessingException, WebhookException,
+            IOException {
+        final var event = objectMapper.readValue(body, Event.class);
+        RegistryWebhookUtils.validateEvent(event);
+
+        final var key = getKey(event);
+        synchronized (processed) {
+            if (processed.containsKey(key)
+                    && Objects.equals(processed.get(key), event.getOccurAt())) {
+                duplicateCounter.increment();
+                return false;
+            }
+        }
+
+        return getLane(event).offer(event, key, body);
+    }
+
+    /**
+     * Get the number of events waiting for processing.
+     *
+     * @return The queue depth.
+     */
+    public int getQueueDepth() {
+        return queued.get();
+    }
+
+    /**
+     * Stop processing events on shutdown. Pending events stay stored and are processed after the
+     * next start.
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+        if (queued.get() > 0 && log.isInfoEnabled()) {
+            log.info("Keeping pending registry webhook events. [count=({})]", queued.get());
+        }
+    }
+
+    private Lane getLane(final Event event) {
+        final var repository = event.getEventData().getRepository();
+        final var name = repository.getRepoFullName() != null
+                ? repository.getRepoFullName() : repository.getName();
+        return lanes.computeIfAbsent(String.valueOf(name), Lane::new);
+    }
+
+    private static String getKey(final Event event) {
+        final var repository = event.getEventData().getRepository();
+        final var resources = event.getEventData().getResources();
+        final var digest = resources.length > 0 && resources[0] != null
+                ? resources[0].getDigest() : null;
+        return event.getType() + "|" + repository.getRepoFullName() + "|"
+                + repository.getName() + "|" + digest;
+    }
+
+    private Path store(final String body) throws IOException {
+        final var target = root.resolve(String.format("%020d", sequence.incrementAndGet())
+                + EXTENSION);
+        final var tmp = Files.createTempFile(root, "event-", ".tmp");
+        try {
+            Files.writeString(tmp, body, StandardCharsets.UTF_8);
+            Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+
+        return target;
+    }
+
+    private void delete(final Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            if (log.isWarnEnabled()) {
+                log.warn("Failed to delete registry webhook event. [file=({}), exception=({})]",
+                        file, e.getMessage());
+            }
+        }
+    }
+
+    private long getLastFailedSequence() throws IOException {
+        final var failed = root.resolve(FAILED_DIRECTORY);
+        if (!Files.isDirectory(failed)) {
+            return 0;
+        }
+
+        var result = 0L;
+        try (var stream = Files.list(failed)) {
+            for (final var file : (Iterable<Path>) stream::iterator) {
+                final var name = file.getFileName().toString();
+                var end = 0;
+                while (end < name.length() && Character.isDigit(name.charAt(end))) {
+                    end++;
+                }
+
+                if (end > 0) {
+                    try {
+                        result = Math.max(result, Long.parseLong(name.substring(0, end)));
+                    } catch (NumberFormatException e) {
+                        // Not written by this queue.
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    private void moveToFailed(final Path file, final Exception reason) {
+        failedCounter.increment();
+        if (log.isWarnEnabled()) {
+            log.warn("Could not process registry webhook event. [file=({}), reason=({})]",
+                    file, reason.getMessage());
+        }
+
+        try {
+            final var failed = root.resolve(FAILED_DIRECTORY);
+            Files.createDirectories(failed);
+            var target = failed.resolve(file.getFileName());
+            if (Files.exists(target)) {
+                // Keep the earlier failed event.
+                final var name = file.getFileName().toString();
+                final var base = name.endsWith(EXTENSION)
+                        ? name.substring(0, name.length() - EXTENSION.length()) : name;
+                target = failed.resolve(base + "-" + UUID.randomUUID() + EXTENSION);
+            }
+            Files.move(file, target);
+        } catch (IOException e) {
+            if (log.isWarnEnabled()) {
+                log.warn("Failed to move registry webhook event. [file=({}), exception=({})]",
+                        file, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * An accepted event waiting for processing.
+     */
+    private static final class Queued {
+
+        /**
+         * The stored event. Replaced if a newer event with the same key arrives.
+         */
+        private Path file;
+
+        /**
+         * The event.
+         */
+        private Event event;
+
+        /**
+         * The key of the event.
+         */
+        private final String key;
+
+        /**
+         * The number of failed processing attempts.
+         */
+        private int attempts;
+
+        private Queued(final Path storedFile, final Event storedEvent, final String eventKey) {
+            this.file = storedFile;
+            this.event = storedEvent;
+            this.key = eventKey;
+        }
+    }
+
+    /**
+     * The events of one repository. At most one batch of a lane is processed at a time.
+     */
+    private final class Lane {
+
+        /**
+         * The repository.
+         */
+        private final String repository;
+
+        /**
+         * The pending events, the oldest at the head.
+         */
+        private final Deque<Queued> pending = new ArrayDeque<>();
+
+        /**
+         * Whether the lane is processing or scheduled to process.
+         */
+        private boolean scheduled;
+
+        private Lane(final String name) {
+            this.repository = name;
+        }
+
+        private synchronized boolean offer(final Event event, final String key,
+                                           final String body) throws IOException {
+            for (final var existing : pending) {
+                if (existing.key.equals(key)) {
+                    if (Objects.equals(existing.event.getOccurAt(), event.getOccurAt())) {
+                        duplicateCounter.increment();
+                        return false;
+                    }
+
+                    // The newer event supersedes the pending one.
+                    final var file = store(body);
+                    delete(existing.file);
+                    existing.file = file;
+                    existing.event = event;
+                    existing.attempts = 0;
+                    acceptedCounter.increment();
+                    return true;
+                }
+            }
+
+            add(new Queued(store(body), event, key));
+            acceptedCounter.increment();
+            return true;
+        }
+
+        private synchronized void add(final Queued next) {
+            pending.addLast(next);
+            queued.incrementAndGet();
+            schedule(config.getCoalesceWindow().toMillis());
+        }
+
+        /**
+         * Schedule the lane. Must be called while holding the lock of the lane.
+         *
+         * @param delay The delay in milliseconds.
+         */
+        private void schedule(final long delay) {
+            if (scheduled || pending.isEmpty()) {
+                return;
+            }
+
+            scheduled = true;
+            executor.schedule(this::drain, delay, TimeUnit.MILLISECONDS);
+        }
+
+        /**
+         * Take all pending events. Unschedules the lane if there are none.
+         *
+         * @return The pending events, the oldest first.
+         */
+        private synchronized List<Queued> pollAll() {
+            final var batch = new ArrayList<>(pending);
+            pending.clear();
+            if (batch.isEmpty()) {
+                scheduled = false;
+            }
+            return batch;
+        }
+
+        private void drain() {
+            List<Queued> batch;
+            while (!(batch = pollAll()).isEmpty()) {
+                if (!process(batch)) {
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Process a batch of events.
+         *
+         * @param batch The events, the oldest first.
+         * @return false if the events have been put back for a retry.
+         */
+        private boolean process(final List<Queued> batch) {
+            final var events = new ArrayList<Event>(batch.size());
+            for (final var next : batch) {
+                events.add(next.event);
+            }
+
+            try {
+                webhookService.processRegistryEvents(events);
+                batchCounter.increment();
+                if (log.isDebugEnabled()) {
+                    log.debug("Processed registry webhook events. [repository=({}), "
+                            + "count=({})]", repository, batch.size());
+                }
+            } catch (TemplateException | RuntimeException e) {
+                final var attempts = batch.stream().mapToInt(x -> x.attempts).max().orElse(0) + 1;
+                batch.forEach(x -> x.attempts = attempts);
+                if (attempts < config.getMaxAttempts()) {
+                    return retry(batch, attempts, e);
+                }
+
+                for (final var next : batch) {
+                    queued.decrementAndGet();
+                    moveToFailed(next.file, e);
+                }
+                return true;
+            }
+
+            synchronized (processed) {
+                for (final var next : batch) {
+                    processed.put(next.key, next.event.getOccurAt());
+                }
+            }
+            for (final var next : batch) {
+                queued.decrementAndGet();
+                delete(next.file);
+            }
+            return true;
+        }
+
+        private synchronized boolean retry(final List<Queued> batch, final int attempts,
+                                           final Exception error) {
+            if (log.isDebugEnabled()) {
+                log.debug("Failed to process registry webhook events, retrying. "
+                        + "[repository=({}), count=({}), attempts=({}), exception=({})]",
+                        repository, batch.size(), attempts, error.getMessage());
+            }
+
+            // Keep the order of the repository's events.
+            for (int i = batch.size() - 1; i >= 0; i--) {
+                final var failed = batch.get(i);
+                if (pending.stream().anyMatch(x -> x.key.equals(failed.key))) {
+                    // A newer event with the same key is waiting already.
+                    queued.decrementAndGet();
+                    delete(failed.file);
+                } else {
+                    pending.addFirst(failed);
+                }
+            }
+
+            scheduled = false;
+            schedule(config.getRetryDelay().toMillis());
+            return false;
+        }
+    }
+}
@@ -15,15 +15,16 @@
  */
 package de.fraunhofer.fit.appstore.services.registry.webhook;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import de.fraunhofer.fit.appstore.exceptions.TemplateException;
 import de.fraunhofer.fit.appstore.exceptions.WebhookException;
 import de.fraunhofer.fit.appstore.model.registry.webhook.Event;
+import de.fraunhofer.fit.appstore.model.registry.webhook.Resources;
 import de.fraunhofer.fit.appstore.model.registry.webhook.ScanOverview;
 import de.fraunhofer.fit.appstore.services.template.ContainerTemplateService;
 import io.dataspaceconnector.common.exception.NotImplemented;
+import io.dataspaceconnector.model.app.App;
 import io.dataspaceconnector.model.app.AppDesc;
+import io.dataspaceconnector.model.artifact.Artifact;
 //import io.dataspaceconnector.service.resource.type.;
 //import io.dataspaceconnector.service.resource.type.;
 import io.dataspaceconnector.service.resource.type.AppService;
@@ -37,8 +38,12 @@ import org.springframework.stereotype.Service;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.zip.CRC32C;
 
 /**
  * Service for managing registry webhooks.
@@ -80,91 +85,166 @@ public class RegistryWebhookService {
     private final @NonNull ArtifactService artifactSvc;
 
     /**
-     * Process an incoming registry event.
+     * Process an incoming registry event. Pulled and deleted artifacts are not supported yet and
+     * cause a {@link NotImplemented} exception.
      *
      * @param event The event.
-     * @throws WebhookException if the event does not match the know event types.
+     * @throws WebhookException  if the event does not match the know event types.
+     * @throws TemplateException if the container template could not be stored.
      */
-    public void processRegistryEvent(final Event event) throws WebhookException {
+    public void processRegistryEvent(final Event event) throws WebhookException,
+            TemplateException {
         // Validate event before passing it to the right processor.
         RegistryWebhookUtils.validateEvent(event);
 
-        try {
+        switch (event.getType()) {
+            case PUSH_ARTIFACT:
+            case SCANNING_COMPLETED:
+            case SCANNING_FAILED:
+                this.processRegistryEvents(List.of(event));
+                break;
+            case PULL_ARTIFACT:
+                this.pullArtifactEventHandler(event);
+                break;
+            case DELETE_ARTIFACT:
+                this.deleteArtifactEventHandler(event);
+                break;
+            case UPLOAD_CHART:
+            case DOWNLOAD_CHART:
+            case DELETE_CHART:
+                // TODO: FUTURE FEATURE FOR HELM CHARTS
+                break;
+            case QUOTA_EXCEED:
+            case QUOTA_WARNING:
+            case REPLICATION:
+                // TODO: NO NEED TO IMPLEMENT NOW
+                break;
+            default:
+                throw new WebhookException("The received event is not a regular harbor "
+                        + "registry event. Not a valid event!");
+        }
+    }
+
+    /**
+     * Process several registry events at once. The push and scanning events of an app are
+     * folded into its net state: the app is updated once and its container template is
+     * regenerated at most once. Events of other types are ignored.
+     *
+     * @param events The events, the oldest first.
+     * @throws WebhookException  if an event is invalid.
+     * @throws TemplateException if a container template could not be stored.
+     */
+    public void processRegistryEvents(final List<Event> events) throws WebhookException,
+            TemplateException {
+        // ResourceId is == repoName
+        final var byResource = new LinkedHashMap<UUID, List<Event>>();
+        for (final var event : events) {
+            RegistryWebhookUtils.validateEvent(event);
+
             switch (event.getType()) {
                 case PUSH_ARTIFACT:
-                    this.pushArtifactEventHandler(event);
-                    break;
-                case PULL_ARTIFACT:
-                    this.pullArtifactEventHandler(event);
-                    break;
-                case DELETE_ARTIFACT:
-                    this.deleteArtifactEventHandler(event);
-                    break;
-                case UPLOAD_CHART:
-                case DOWNLOAD_CHART:
-                case DELETE_CHART:
-                    // TODO: FUTURE FEATURE FOR HELM CHARTS
-                    break;
                 case SCANNING_COMPLETED:
-                    this.scanningCompletedEventHandler(event);
-                    break;
                 case SCANNING_FAILED:
-                    this.scanningFailedEventHandler(event);
-                    break;
-                case QUOTA_EXCEED:
-                case QUOTA_WARNING:
-                case REPLICATION:
-                    // TODO: NO NEED TO IMPLEMENT NOW
+                    final var repoName = event.getEventData().getRepository().getName();
+                    byResource.computeIfAbsent(UUID.fromString(repoName),
+                            x -> new ArrayList<>()).add(event);
                     break;
                 default:
-                    throw new WebhookException("The received event is not a regular harbor "
-                            + "registry event. Not a valid event!");
+                    if (log.isDebugEnabled()) {
+                        log.debug("Ignoring registry event. [type=({})]", event.getType());
+                    }
+                    break;
             }
-        } catch (Exception ignored) {
-            // Nothing to do here.
+        }
+
+        for (final Map.Entry<UUID, List<Event>> entry : byResource.entrySet()) {
+            this.updateApp(entry.getKey(), entry.getValue());
         }
     }
 
     /**
-     * Handle push artifact events.
+     * Apply push and scanning events to the app of a resource.
      *
-     * @param event The event.
-     * @throws WebhookException if event processing failed.
+     * @param resourceId The resource id.
+     * @param events     The events of the resource, the oldest first. Invalid scanning events
+     *                   are skipped.
+     * @throws TemplateException if the container template could not be stored.
      */
-    private void pushArtifactEventHandler(final Event event) throws WebhookException,
-            TemplateException {
-        // REPOSITORY
-        final var created = event.getEventData().getRepository().getDateCreated();
-        final var repoName = event.getEventData().getRepository().getName();
-        final var repoNamespace = event.getEventData().getRepository().getNamespace();
-        final var repoFullName = event.getEventData().getRepository().getRepoFullName();
-        final var repoType = event.getEventData().getRepository().getRepoType();
-
-        // RESOURCE
-        final var resources = event.getEventData().getResources();
+    private void updateApp(final UUID resourceId, final List<Event> events)
+            throws TemplateException {
+        // Get app by id. Throws ResourceNotFoundException if no app could be found.
+        final var resource = resourceSvc.get(resourceId);
+        final var representation = resource.getRepresentations().get(0);
+        final var app = representation.getDataApps().get(0);
 
+        // Create new desc with the current state, then apply the events in order.
+        final var appDesc = createDesc(app);
+
+        String repoName = null;
+        String repoNamespace = null;
         String resourceDigest = null;
-        String resourceTag;
-        String resourceUrl;
-
-        if (resources != null && resources.length > 1) {
-            final var resource = resources[0];
-            resourceDigest = resource.getDigest();
-            resourceTag = resource.getTag();
-            resourceUrl = resource.getResourceUrl();
+        var pushed = false;
+
+        for (final var event : events) {
+            final var repository = event.getEventData().getRepository();
+            final var eventResource = getResource(event);
+
+            if (repository.getName() != null) {
+                repoName = repository.getName();
+            }
+            if (repository.getNamespace() != null) {
+                repoNamespace = repository.getNamespace();
+            }
+            if (eventResource != null && eventResource.getDigest() != null) {
+                resourceDigest = eventResource.getDigest();
+            }
+
+            try {
+                switch (event.getType()) {
+                    case PUSH_ARTIFACT:
+                        pushed = true;
+                        break;
+                    case SCANNING_COMPLETED:
+                        applyScanningCompleted(appDesc, eventResource);
+                        break;
+                    case SCANNING_FAILED:
+                        applyScanningFailed(appDesc, eventResource);
+                        break;
+                    default:
+                        break;
+                }
+            } catch (WebhookException e) {
+                // A broken scan report must not drop the other events of the repository.
+                if (log.isWarnEnabled()) {
+                    log.warn("Skipping invalid registry event. [resource=({}), type=({}), "
+                            + "exception=({})]", resourceId, event.getType(), e.getMessage());
+                }
+            }
         }
 
-        // ResourceId is == repoName
-        final var resourceId = UUID.fromString(repoName);
+        RegistryWebhookUtils.updateRepositoryName(app, appDesc, repoName);
+        RegistryWebhookUtils.updateRepositoryNamespace(app, appDesc, repoNamespace);
+        RegistryWebhookUtils.updateRepositoryDigest(app, appDesc, resourceDigest);
 
-        // Get app by id. Throws ResourceNotFoundException if no app could be found.
-        // TODO: Here resource id ia the uuid. how to get the whole uri
+        appSvc.update(app.getId(), appDesc);
 
-        final var resource = resourceSvc.get(resourceId);
-        final var representation = resource.getRepresentations().get(0);
-        final var app = representation.getDataApps().get(0);
+        if (log.isDebugEnabled() && events.size() > 1) {
+            log.debug("Folded registry events into one app update. [resource=({}), "
+                    + "events=({})]", resourceId, events.size());
+        }
+
+        if (pushed) {
+            storeTemplate(resourceId, representation.getArtifacts().get(0));
+        }
+    }
 
-        // Create new desc with event data.
+    /**
+     * Create a desc holding the current state of an app.
+     *
+     * @param app The app.
+     * @return The app desc.
+     */
+    private static AppDesc createDesc(final App app) {
         final var appDesc = new AppDesc();
         appDesc.setDocs(app.getDocs());
         appDesc.setRemoteId(app.getRemoteId());
@@ -181,30 +261,45 @@ public class RegistryWebhookService {
         appDesc.setSecurityScannerIssuesLow(app.getSecurityScannerIssuesLow());
         appDesc.setSecurityScannerIssuesMedium(app.getSecurityScannerIssuesMedium());
         appDesc.setSecurityScannerIssuesHigh(app.getSecurityScannerIssuesHigh());
+        return appDesc;
+    }
 
-        RegistryWebhookUtils.updateRepositoryName(app, appDesc, repoName);
-        RegistryWebhookUtils.updateRepositoryNamespace(app, appDesc, repoNamespace);
-        RegistryWebhookUtils.updateRepositoryDigest(app, appDesc, resourceDigest);
-
-        appSvc.update(app.getId(), appDesc);
+    /**
+     * Get the resource of an event.
+     *
+     * @param event The event.
+     * @return The resource, null if the event has none.
+     */
+    private static Resources getResource(final Event event) {
+        final var resources = event.getEventData().getResources();
+        return resources != null && resources.length > 0 ? resources[0] : null;
+    }
 
-        // Create and store template.
-        final var template = templateSvc.createContainerTemplate(resourceId);
-        final var artifact = representation.getArtifacts().get(0);
+    /**
+     * Create the container template of a resource and store it as artifact data. The data is
+     * only written if it differs from the stored data.
+     *
+     * @param resourceId The resource id.
+     * @param artifact   The template artifact.
+     * @throws TemplateException if the template could not be stored.
+     */
+    private void storeTemplate(final UUID resourceId, final Artifact artifact)
+            throws TemplateException {
+        final var data = templateSvc.getContainerTemplateData(resourceId);
+
+        final var checksum = new CRC32C();
+        checksum.update(data, 0, data.length);
+        if (artifact.getByteSize() == data.length
+                && artifact.getCheckSum() == checksum.getValue()) {
+            if (log.isDebugEnabled()) {
+                log.debug("Template is unchanged. [resource=({})]", resourceId);
+            }
+            return;
+        }
 
         try {
-            final var objectMapper = new ObjectMapper();
-            final var data =
-                    objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(template);
-
             // Set artifact data.
-            artifactSvc.setData(artifact.getId(),
-                    new ByteArrayInputStream(data.getBytes(StandardCharsets.UTF_8)));
-        } catch (JsonProcessingException e) {
-            if (log.isWarnEnabled()) {
-                log.warn("Failed to deserialize template. [exception=({})]", e.getMessage());
-            }
-            throw new TemplateException("Failed to store template.");
+            artifactSvc.setData(artifact.getId(), new ByteArrayInputStream(data));
         } catch (IOException exception) {
             if (log.isWarnEnabled()) {
                 log.warn("Failed to store template. [exception=({})]", exception.getMessage());
@@ -234,34 +329,16 @@ public class RegistryWebhookService {
     }
 
     /**
-     * Handle scanning completed events.
+     * Apply a scanning completed event.
      *
-     * @param event The event.
-     * @throws WebhookException if event processing failed.
+     * @param appDesc  The app desc.
+     * @param resource The resource of the event.
+     * @throws WebhookException if the event does not contain a scan overview.
      */
-    private void scanningCompletedEventHandler(final Event event) throws WebhookException {
-        // REPOSITORY
-        final var repoName = event.getEventData().getRepository().getName();
-        final var repoNamespace = event.getEventData().getRepository().getNamespace();
-        final var repoFullName = event.getEventData().getRepository().getRepoFullName();
-        final var repoType = event.getEventData().getRepository().getRepoType();
-
-        // RESOURCE
-        final var resources = event.getEventData().getResources();
-
-        String resourceDigest = null;
-        String resourceTag = null;
-        String resourceUrl = null;
-        ScanOverview resourceScanOverview = null;
-
-        if (resources != null && resources.length > 1) {
-            final var resource = resources[0];
-            resourceDigest = resource.getDigest();
-            resourceTag = resource.getTag();
-            resourceUrl = resource.getResourceUrl();
-            resourceScanOverview = resource.getScanOverview();
-        }
-
+    private static void applyScanningCompleted(final AppDesc appDesc, final Resources resource)
+            throws WebhookException {
+        final ScanOverview resourceScanOverview =
+                resource == null ? null : resource.getScanOverview();
         if (resourceScanOverview == null
                 || resourceScanOverview.getSummary() == null
                 || resourceScanOverview.getSummary().getSummary() == null
@@ -270,23 +347,6 @@ public class RegistryWebhookService {
                     + "valid SecurityScanEvent!");
         }
 
-        // ResourceId is == repoName
-        final var resourceId = UUID.fromString(repoName);
-
-        // Get app by id. Throws ResourceNotFoundException if no app could be found.
-        final var resource = resourceSvc.get(resourceId);
-        final var representation = resource.getRepresentations().get(0);
-        final var app = representation.getDataApps().get(0);
-
-        // Create new desc with event data.
-        final var appDesc = new AppDesc();
-        appDesc.setDocs(app.getDocs());
-        appDesc.setRemoteId(app.getRemoteId());
-        appDesc.setEnvVariables(app.getEnvVariables());
-        appDesc.setStorageConfig(app.getStorageConfig());
-        appDesc.setSupportedPolicies(app.getSupportedPolicies());
-
-
         final var summary = resourceScanOverview.getSummary();
         final var summarySummary = resourceScanOverview.getSummary().getSummary();
         final var scanner = resourceScanOverview.getScanner();
@@ -308,64 +368,24 @@ public class RegistryWebhookService {
         appDesc.setSecurityScannerName(scanner.getName());
         appDesc.setSecurityScannerVendor(scanner.getVendor());
         appDesc.setSecurityScannerVersion(scanner.getVersion());
-
-        RegistryWebhookUtils.updateRepositoryName(app, appDesc, repoName);
-        RegistryWebhookUtils.updateRepositoryNamespace(app, appDesc, repoNamespace);
-        RegistryWebhookUtils.updateRepositoryDigest(app, appDesc, resourceDigest);
-
-        appSvc.update(app.getId(), appDesc);
     }
 
     /**
-     * Handle scanning failed events.
+     * Apply a scanning failed event.
      *
-     * @param event The event.
-     * @throws WebhookException if event processing failed.
+     * @param appDesc  The app desc.
+     * @param resource The resource of the event.
+     * @throws WebhookException if the event does not contain a scan overview.
      */
-    private void scanningFailedEventHandler(final Event event) throws WebhookException {
-        // REPOSITORY
-        final var repoName = event.getEventData().getRepository().getName();
-        final var repoNamespace = event.getEventData().getRepository().getNamespace();
-        final var repoFullName = event.getEventData().getRepository().getRepoFullName();
-        final var repoType = event.getEventData().getRepository().getRepoType();
-
-        // RESOURCE
-        final var resources = event.getEventData().getResources();
-
-        String resourceDigest = null;
-        String resourceTag = null;
-        String resourceUrl = null;
-        ScanOverview resourceScanOverview = null;
-
-        if (resources != null && resources.length > 1) {
-            final var resource = resources[0];
-            resourceDigest = resource.getDigest();
-            resourceTag = resource.getTag();
-            resourceUrl = resource.getResourceUrl();
-            resourceScanOverview = resource.getScanOverview();
-        }
-
+    private static void applyScanningFailed(final AppDesc appDesc, final Resources resource)
+            throws WebhookException {
+        final ScanOverview resourceScanOverview =
+                resource == null ? null : resource.getScanOverview();
         if (resourceScanOverview == null || resourceScanOverview.getScanner() == null) {
             throw new WebhookException("The Event SCANNING or parts of it cannot be null. Not a "
                     + "valid SecurityScanEvent!");
         }
 
-        // ResourceId is == repoName
-        final var resourceId = UUID.fromString(repoName);
-
-        // Get app by id. Throws ResourceNotFoundException if no app could be found.
-        final var resource = resourceSvc.get(resourceId);
-        final var representation = resource.getRepresentations().get(0);
-        final var app = representation.getDataApps().get(0);
-
-        // Create new desc with event data.
-        final var appDesc = new AppDesc();
-        appDesc.setDocs(app.getDocs());
-        appDesc.setRemoteId(app.getRemoteId());
-        appDesc.setEnvVariables(app.getEnvVariables());
-        appDesc.setStorageConfig(app.getStorageConfig());
-        appDesc.setSupportedPolicies(app.getSupportedPolicies());
-
         final var scanner = resourceScanOverview.getScanner();
         appDesc.setSecurityScannerCompletePercent(resourceScanOverview.getCompletePercent());
 
@@ -375,12 +395,6 @@ public class RegistryWebhookService {
         appDesc.setSecurityScannerName(scanner.getName());
         appDesc.setSecurityScannerVendor(scanner.getVendor());
         appDesc.setSecurityScannerVersion(scanner.getVersion());
-
-        RegistryWebhookUtils.updateRepositoryName(app, appDesc, repoName);
-        RegistryWebhookUtils.updateRepositoryNamespace(app, appDesc, repoNamespace);
-        RegistryWebhookUtils.updateRepositoryDigest(app, appDesc, resourceDigest);
-
-        appSvc.update(app.getId(), appDesc);
     }
 
 }
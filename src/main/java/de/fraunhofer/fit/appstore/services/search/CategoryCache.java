@@ -0,0 +1,120 @@
+/*
+ * Copyright 2021 Fraunhofer Institute for Applied Information Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.fraunhofer.fit.appstore.services.search;
+
+import de.fraunhofer.fit.appstore.initializer.SearchIndexStatus;
+import de.fraunhofer.fit.appstore.repositories.SearchAppRepository;
+import io.dataspaceconnector.common.event.EntityChangeEvent;
+import io.dataspaceconnector.model.resource.Resource;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Caches the number of app resources per category. The cache is invalidated whenever a
+ * transaction changing a resource has been committed, which is when the resource is reindexed.
+ */
+@Component
+@RequiredArgsConstructor
+public class CategoryCache {
+
+    /**
+     * Repository for searching apps.
+     */
+    private final @NonNull SearchAppRepository searchAppRepository;
+
+    /**
+     * The state of the search index.
+     */
+    private final @NonNull SearchIndexStatus indexStatus;
+
+    /**
+     * Incremented on every committed change of a resource.
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    /**
+     * The cached categories and the generation they have been computed for.
+     */
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>();
+
+    /**
+     * Categories computed for a generation.
+     */
+    @Getter
+    @RequiredArgsConstructor
+    private static final class Snapshot {
+        /**
+         * The generation.
+         */
+        private final long generation;
+
+        /**
+         * The number of resources per category.
+         */
+        private final Map<String, Long> categories;
+    }
+
+    /**
+     * Get the number of app resources per category, ordered by descending count. The counts
+     * are computed by the search index once and served from the cache until a resource changes.
+     *
+     * @return The number of resources per category.
+     */
+    public Map<String, Long> getCategories() {
+        if (!indexStatus.isReady()) {
+            // Counted by the database until the index has been built.
+            return searchAppRepository.countCategories();
+        }
+
+        final var current = generation.get();
+        final var cached = snapshot.get();
+        if (cached != null && cached.getGeneration() == current) {
+            return cached.getCategories();
+        }
+
+        // A change committed while computing leaves the result outdated for the next call.
+        final var categories = Collections.unmodifiableMap(searchAppRepository.countCategories());
+        snapshot.set(new Snapshot(current, categories));
+        return categories;
+    }
+
+    /**
+     * Invalidate the cached categories.
+     */
+    public void invalidate() {
+        generation.incrementAndGet();
+    }
+
+    /**
+     * Invalidate the cached categories if a resource has been changed.
+     *
+     * @param event The change event.
+     */
+    @EventListener
+    public void onEntityChange(final EntityChangeEvent event) {
+        if (event.getEntity() instanceof Resource) {
+            invalidate();
+        }
+    }
+}
@@ -15,14 +15,14 @@
  */
 package de.fraunhofer.fit.appstore.services.search;
 
+import de.fraunhofer.fit.appstore.model.search.SearchCursor;
+import de.fraunhofer.fit.appstore.model.search.SearchResult;
 import de.fraunhofer.fit.appstore.repositories.SearchAppRepository;
-import io.dataspaceconnector.model.app.App;
-import io.dataspaceconnector.model.resource.Resource;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
-import java.util.List;
+import java.util.Map;
 
 /**
  * Service for searching apps.
@@ -37,73 +37,43 @@ public class SearchAppService {
     private final @NonNull SearchAppRepository searchAppRepository;
 
     /**
-     * Gets the total result count for a specific search text.
-     *
-     * @param searchText Text to search for.
-     * @return Total search count.
+     * Cache of the app resource categories.
      */
-    public long searchAppsResultCount(final String searchText) {
-        return searchAppRepository.searchResourceTotalCount(searchText);
-    }
+    private final @NonNull CategoryCache categoryCache;
 
     /**
-     * Gets the total number of pages for a specific search text and results per page.
+     * Search for app resources by a search text and an optional category. The first page
+     * contains the total number of results and the number of results per category.
      *
      * @param searchText     The text to search for.
+     * @param category       The category to filter by, may be null.
+     * @param cursor         The position of the page, null for the first page.
      * @param resultsPerPage The number of search results per page.
-     * @return The number of pages needed to display all the search results.
-     */
-    public int searchAppsPagesCount(final String searchText, final int resultsPerPage) {
-        final var appsTotalCount = searchAppRepository.searchResourceTotalCount(searchText);
-
-        return (int) Math.floorDiv(appsTotalCount, resultsPerPage) + 1;
-    }
-
-    /**
-     * Search for apps by a specific search text, the actual page number, and results per page.
-     *
-     * @param input          The text to search for.
-     * @param pageNo         The current page number.
-     * @param resultsPerPage The number of search results per page.
-     * @return A list of apps to match the search criteria.
-     */
-    public List<App> searchApps(final String input, final int pageNo, final int resultsPerPage) {
-        return searchAppRepository.searchApps(input, pageNo, resultsPerPage);
-    }
-
-    /**
-     * Search for apps by a description, the actual page number, and results per page.
-     *
-     * @param description    The description to search for.
-     * @param pageNo         The current page number.
-     * @param resultsPerPage The number of search results per page.
-     * @return A list of apps to match the search criteria.
+     * @return The search result.
      */
-    public List<Resource> searchAppsByDescription(final String description, final int pageNo,
-                                             final int resultsPerPage) {
-        return searchAppRepository.searchResourceByDescription(description, pageNo, resultsPerPage);
+    public SearchResult search(final String searchText, final String category,
+                               final SearchCursor cursor, final int resultsPerPage) {
+        return searchAppRepository.search(searchText, category, cursor, resultsPerPage);
     }
 
     /**
-     * Search for apps by category, the actual page number, and results per page.
+     * List the offered app resources sorted by title.
      *
-     * @param category       The category to search for.
-     * @param pageNo         The current page number.
-     * @param resultsPerPage The number of search results per page.
-     * @return A list of apps to match the search criteria.
+     * @param cursor         The position of the page, null for the first page.
+     * @param resultsPerPage The number of results per page.
+     * @return The search result.
      */
-    public List<Resource> searchResourcesByCategory(final String category, final int pageNo,
-                                                    final int resultsPerPage) {
-        return searchAppRepository.searchResourcesByCategory(category, pageNo, resultsPerPage);
+    public SearchResult list(final SearchCursor cursor, final int resultsPerPage) {
+        return searchAppRepository.list(cursor, resultsPerPage);
     }
 
     /**
-     * Search for app resource categories.
+     * Get the app resource categories with the number of resources per category.
      *
-     * @return A list of app resources to match the search criteria.
+     * @return The number of resources per category, ordered by descending count.
      */
-    public List<Resource> getAppCategories() {
-        return searchAppRepository.searchResourceCategories();
+    public Map<String, Long> getAppCategories() {
+        return categoryCache.getCategories();
     }
 
 }
@@ -15,6 +15,8 @@
  */
 package de.fraunhofer.fit.appstore.services.template;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import de.fraunhofer.fit.appstore.exceptions.TemplateException;
 import de.fraunhofer.fit.appstore.model.portainer.Template;
 import io.dataspaceconnector.model.app.App;
@@ -22,6 +24,7 @@ import io.dataspaceconnector.model.representation.Representation;
 //import io.dataspaceconnector.model.resource.Resource;
 import io.dataspaceconnector.model.resource.OfferedResource;
 import io.dataspaceconnector.service.resource.type.OfferedResourceService;
+import lombok.Getter;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
@@ -30,12 +33,20 @@ import org.springframework.stereotype.Service;
 
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.UUID;
 import java.util.regex.Pattern;
 
 /**
- * Provides container template handling.
+ * Provides container template handling. The serialized templates are cached by resource
+ * together with a digest of the values they are built from, so a template is only serialized
+ * again if one of these values changed.
  */
 @Log4j2
 @Service
@@ -53,6 +64,11 @@ public class ContainerTemplateService {
      */
     private final @NonNull OfferedResourceService resourceService;
 
+    /**
+     * The object mapper.
+     */
+    private final @NonNull ObjectMapper objectMapper;
+
     /**
      * The registry host.
      */
@@ -65,6 +81,40 @@ public class ContainerTemplateService {
     @Value("${registry.project}")
     private String registryProject;
 
+    /**
+     * The maximum number of cached templates.
+     */
+    @Value("${registry.template-cache.size:256}")
+    private int cacheSize;
+
+    /**
+     * The serialized templates by resource, in access order. Guarded by itself.
+     */
+    private final Map<UUID, TemplateData> cache = new LinkedHashMap<>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<UUID, TemplateData> eldest) {
+            return size() > cacheSize;
+        }
+    };
+
+    /**
+     * A serialized template and the digest of the values it has been built from.
+     */
+    @Getter
+    @RequiredArgsConstructor
+    private static final class TemplateData {
+        /**
+         * The digest of the template values.
+         */
+        private final String digest;
+
+        /**
+         * The compact JSON template.
+         */
+        private final byte[] data;
+    }
 
     /**
      * Create backend container template by resource id.
@@ -82,6 +132,90 @@ public class ContainerTemplateService {
         return createContainerTemplate(resource, representation, app);
     }
 
+    /**
+     * Get the compact JSON container template of a resource. The template is only built and
+     * serialized again if the values it depends on changed.
+     *
+     * @param resourceId The resource id.
+     * @return The serialized template.
+     * @throws TemplateException if the template could not be created.
+     */
+    public byte[] getContainerTemplateData(final UUID resourceId) throws TemplateException {
+        final var resource = resourceService.get(resourceId);
+        final var representation = resource.getRepresentations().get(0);
+        final var app = representation.getDataApps().get(0);
+
+        final var digest = digest(resource, representation, app);
+        synchronized (cache) {
+            final var cached = cache.get(resourceId);
+            if (cached != null && cached.getDigest().equals(digest)) {
+                return cached.getData().clone();
+            }
+        }
+
+        final byte[] data;
+        try {
+            data = objectMapper.writeValueAsBytes(
+                    createContainerTemplate(resource, representation, app));
+        } catch (JsonProcessingException e) {
+            if (log.isWarnEnabled()) {
+                log.warn("Failed to serialize template. [exception=({})]", e.getMessage());
+            }
+            throw new TemplateException("Failed to serialize template.");
+        }
+
+        if (cacheSize > 0) {
+            synchronized (cache) {
+                cache.put(resourceId, new TemplateData(digest, data));
+            }
+        }
+        return data.clone();
+    }
+
+    /**
+     * Compute the digest of all values a container template is built from.
+     *
+     * @param res The app resource.
+     * @param rep The representation.
+     * @param app The data app.
+     * @return The hex encoded SHA-256 digest.
+     */
+    private String digest(final OfferedResource res, final Representation rep, final App app) {
+        final var values = new StringBuilder();
+        append(values, res.getId());
+        append(values, registryHost);
+        append(values, registryProject);
+        append(values, app.getTitle());
+        append(values, rep.getTitle());
+        append(values, res.getTitle());
+        append(values, app.getDescription());
+        append(values, rep.getDescription());
+        append(values, res.getDescription());
+        append(values, res.getKeywords());
+        append(values, res.getLicense());
+        append(values, res.getSovereign());
+        append(values, app.getEnvVariables());
+        append(values, app.getStorageConfig());
+        for (final var endpoint : app.getEndpoints()) {
+            append(values, endpoint.getEndpointType());
+            append(values, endpoint.getEndpointPort());
+        }
+
+        try {
+            final var digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(
+                    values.toString().getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            // SHA-256 must be supported by every JVM.
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void append(final StringBuilder values, final Object value) {
+        // Separate values by a character that does not occur in them.
+        values.append(value).append('\u001f');
+    }
+
     /**
      * Create container template from resource, representation, and app.
      *
@@ -0,0 +1,213 @@
+/*
+ * Copyright 2021 Fraunhofer Institute for Applied Information Technology
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.fraunhofer.fit.appstore.services.template;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import de.fraunhofer.fit.harbor.client.model.UserCreationReq;
+import lombok.NonNull;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Writes stored container templates as artifact response payload. A stored template is prepared
+ * once: its registry user and empty values are removed and the closing brace is cut off. For
+ * every request, only the registry user is serialized and appended to the prepared template.
+ */
+@Component
+public class TemplatePayloadWriter {
+
+    /**
+     * The name of the registry user field.
+     */
+    private static final String REGISTRY_USER = "registryUser";
+
+    /**
+     * The maximum number of prepared templates.
+     */
+    private final int maxSize;
+
+    /**
+     * The object mapper, omitting null values.
+     */
+    private final ObjectMapper mapper;
+
+    /**
+     * Writer for registry users.
+     */
+    private final ObjectWriter userWriter;
+
+    /**
+     * The prepared templates by content digest, in access order. Guarded by itself.
+     */
+    private final Map<String, String> prepared;
+
+    /**
+     * Constructor for TemplatePayloadWriter.
+     *
+     * @param objectMapper The object mapper.
+     * @param size         The maximum number of prepared templates.
+     */
+    public TemplatePayloadWriter(final @NonNull ObjectMapper objectMapper,
+                                 @Value("${registry.template-cache.size:256}") final int size) {
+        this.maxSize = size;
+        this.mapper = objectMapper.copy().setSerializationInclusion(JsonInclude.Include.NON_NULL);
+        this.userWriter = mapper.writerFor(UserCreationReq.class);
+        this.prepared = new LinkedHashMap<>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<String, String> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * Write a stored template with the given registry user.
+     *
+     * @param template The stored JSON template.
+     * @param user     The registry user.
+     * @return The compact JSON template.
+     * @throws IOException if the stored template is not a JSON object.
+     */
+    public String write(final byte[] template, final UserCreationReq user) throws IOException {
+        final var prefix = getPrepared(template);
+        final var userJson = userWriter.writeValueAsString(user);
+
+        final var payload = new StringBuilder(prefix.length() + userJson.length()
+                + REGISTRY_USER.length() + 5);
+        payload.append(prefix);
+        if (prefix.length() > 1) {
+            payload.append(',');
+        }
+        payload.append('"').append(REGISTRY_USER).append("\":").append(userJson).append('}');
+        return payload.toString();
+    }
+
+    private String getPrepared(final byte[] template) throws IOException {
+        if (maxSize <= 0) {
+            return prepare(template);
+        }
+
+        final var key = digest(template);
+        synchronized (prepared) {
+            final var cached = prepared.get(key);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        final var value = prepare(template);
+        synchronized (prepared) {
+            prepared.put(key, value);
+        }
+        return value;
+    }
+
+    /**
+     * Copy a template without its registry user and null values at any depth, leaving the
+     * object open.
+     *
+     * @param template The stored JSON template.
+     * @return The template without the closing brace.
+     * @throws IOException if the template is not a JSON object.
+     */
+    private String prepare(final byte[] template) throws IOException {
+        final var factory = mapper.getFactory();
+        final var writer = new StringWriter(template.length);
+        try (var parser = factory.createParser(template);
+             var generator = factory.createGenerator(writer)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new JsonParseException(parser, "The template is not a JSON object.");
+            }
+
+            generator.writeStartObject();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                final var name = parser.getCurrentName();
+                final var token = parser.nextToken();
+                if (REGISTRY_USER.equals(name) || token == JsonToken.VALUE_NULL) {
+                    parser.skipChildren();
+                    continue;
+                }
+
+                generator.writeFieldName(name);
+                copyValue(parser, generator);
+            }
+            generator.writeEndObject();
+        }
+
+        final var json = writer.toString();
+        return json.substring(0, json.length() - 1);
+    }
+
+    /**
+     * Copy the current value, omitting null fields of nested objects like the object mapper
+     * does. Null array elements are kept.
+     *
+     * @param parser    The parser positioned at the value.
+     * @param generator The generator.
+     * @throws IOException if the value could not be copied.
+     */
+    private static void copyValue(final JsonParser parser, final JsonGenerator generator)
+            throws IOException {
+        final var token = parser.currentToken();
+        if (token == JsonToken.START_OBJECT) {
+            generator.writeStartObject();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                final var name = parser.getCurrentName();
+                if (parser.nextToken() == JsonToken.VALUE_NULL) {
+                    continue;
+                }
+
+                generator.writeFieldName(name);
+                copyValue(parser, generator);
+            }
+            generator.writeEndObject();
+        } else if (token == JsonToken.START_ARRAY) {
+            generator.writeStartArray();
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                copyValue(parser, generator);
+            }
+            generator.writeEndArray();
+        } else {
+            generator.copyCurrentEvent(parser);
+        }
+    }
+
+    private static String digest(final byte[] content) {
+        try {
+            final var digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            // SHA-256 must be supported by every JVM.
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright 2020-2022 Fraunhofer Institute for Software and Systems Engineering
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.dataspaceconnector.common.event;
+
+import io.dataspaceconnector.model.base.Entity;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Published after a transaction that inserted, updated, or deleted an entity, or one of its
+ * collections, has been committed.
+ */
+@Getter
+@RequiredArgsConstructor
+public class EntityChangeEvent {
+
+    /**
+     * The changed entity. It is detached from its session, so lazy relations can not be
+     * accessed.
+     */
+    private final @NonNull Entity entity;
+
+    /**
+     * Whether the entity has been deleted.
+     */
+    private final boolean deleted;
+}
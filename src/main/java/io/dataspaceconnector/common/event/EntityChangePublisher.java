@@ -0,0 +1,187 @@
+/*
+ * Copyright 2020-2022 Fraunhofer Institute for Software and Systems Engineering
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.dataspaceconnector.common.event;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import io.dataspaceconnector.model.base.Entity;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.AbstractCollectionEvent;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCollectionRecreateEvent;
+import org.hibernate.event.spi.PostCollectionRecreateEventListener;
+import org.hibernate.event.spi.PostCollectionRemoveEvent;
+import org.hibernate.event.spi.PostCollectionRemoveEventListener;
+import org.hibernate.event.spi.PostCollectionUpdateEvent;
+import org.hibernate.event.spi.PostCollectionUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+
+/**
+ * Listens to entity and collection changes of Hibernate and publishes an
+ * {@link EntityChangeEvent} for every changed entity once its transaction has been committed.
+ * Changes of rolled back transactions are not published. Hibernate Search updates the index
+ * at the same point, so listeners see the index reflecting the change. Bulk updates bypass
+ * Hibernate's events, their changes have to be published with {@link #publishChange(Entity)}.
+ */
+@Component
+@RequiredArgsConstructor
+@SuppressFBWarnings(value = "SE_BAD_FIELD",
+        justification = "Listeners are registered in-process and never serialized.")
+public class EntityChangePublisher implements PostInsertEventListener, PostUpdateEventListener,
+        PostDeleteEventListener, PostCollectionRecreateEventListener,
+        PostCollectionUpdateEventListener, PostCollectionRemoveEventListener {
+
+    /**
+     * Serial version uid.
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The entity manager factory, used for registering the listeners.
+     */
+    private final @NonNull EntityManagerFactory entityManagerFactory;
+
+    /**
+     * The publisher of the change events.
+     */
+    private final @NonNull ApplicationEventPublisher publisher;
+
+    /**
+     * Register this publisher for entity and collection changes.
+     */
+    @PostConstruct
+    public void registerListeners() {
+        final var registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry().getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_INSERT, this);
+        registry.appendListeners(EventType.POST_UPDATE, this);
+        registry.appendListeners(EventType.POST_DELETE, this);
+        registry.appendListeners(EventType.POST_COLLECTION_RECREATE, this);
+        registry.appendListeners(EventType.POST_COLLECTION_UPDATE, this);
+        registry.appendListeners(EventType.POST_COLLECTION_REMOVE, this);
+    }
+
+    /**
+     * Publish the change of an entity written by a bulk update. The event is published once the
+     * current transaction has been committed, or right away if no transaction is active.
+     *
+     * @param entity The changed entity.
+     */
+    public void publishChange(final Entity entity) {
+        final var event = new EntityChangeEvent(entity, false);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(
+                    new TransactionSynchronization() {
+                        @Override
+                        public void afterCommit() {
+                            publisher.publishEvent(event);
+                        }
+                    });
+        } else {
+            publisher.publishEvent(event);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onPostInsert(final PostInsertEvent event) {
+        onChange(event.getEntity(), event.getSession(), false);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onPostUpdate(final PostUpdateEvent event) {
+        onChange(event.getEntity(), event.getSession(), false);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onPostDelete(final PostDeleteEvent event) {
+        onChange(event.getEntity(), event.getSession(), true);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onPostRecreateCollection(final PostCollectionRecreateEvent event) {
+        onChange(event);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onPostUpdateCollection(final PostCollectionUpdateEvent event) {
+        onChange(event);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onPostRemoveCollection(final PostCollectionRemoveEvent event) {
+        onChange(event);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean requiresPostCommitHanding(final EntityPersister persister) {
+        return false;
+    }
+
+    private void onChange(final AbstractCollectionEvent event) {
+        onChange(event.getAffectedOwnerOrNull(), event.getSession(), false);
+    }
+
+    private void onChange(final Object entity, final EventSource session,
+                          final boolean deleted) {
+        if (!(entity instanceof Entity)) {
+            return;
+        }
+
+        final var event = new EntityChangeEvent((Entity) entity, deleted);
+        session.getActionQueue().registerProcess((success, s) -> {
+            if (success) {
+                publisher.publishEvent(event);
+            }
+        });
+    }
+}
@@ -0,0 +1,227 @@
+/*
+ * Copyright 2020-2022 Fraunhofer Institute for Software and Systems Engineering
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.dataspaceconnector.common.file;
+
+import lombok.extern.log4j.Log4j2;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Immutable data that can be read by several readers at the same time. Small data is kept on
+ * the heap, larger data in a temporary file. Every reader opens a stream of its own, the data is
+ * never copied per reader.
+ *
+ * <p>The payload is reference-counted: it is created with one reference, {@link #retain()} adds
+ * one and {@link #release()} removes one. Every opened stream holds a reference until it is
+ * closed. The temporary file is deleted once the last reference has been released.</p>
+ */
+@Log4j2
+public final class SharedPayload implements Closeable {
+
+    /**
+     * The maximum size of data kept on the heap.
+     */
+    private static final int MAX_HEAP_SIZE = Integer.MAX_VALUE - 16;
+
+    /**
+     * The data, if kept on the heap.
+     */
+    private final byte[] bytes;
+
+    /**
+     * The file holding the data, if not kept on the heap.
+     */
+    private final Path file;
+
+    /**
+     * The size of the data in bytes.
+     */
+    private final long size;
+
+    /**
+     * The number of references.
+     */
+    private final AtomicInteger references = new AtomicInteger(1);
+
+    private SharedPayload(final byte[] data, final Path path, final long byteSize) {
+        this.bytes = data;
+        this.file = path;
+        this.size = byteSize;
+    }
+
+    /**
+     * Create an empty payload.
+     *
+     * @return The payload.
+     */
+    public static SharedPayload empty() {
+        return of(new byte[0]);
+    }
+
+    /**
+     * Create a payload kept on the heap. The array must not be modified afterwards.
+     *
+     * @param data The data.
+     * @return The payload.
+     */
+    public static SharedPayload of(final byte[] data) {
+        return new SharedPayload(data, null, data.length);
+    }
+
+    /**
+     * Read a stream into a payload. Data up to the memory threshold is kept on the heap, larger
+     * data is written to a temporary file. The stream is not closed.
+     *
+     * @param data            The data.
+     * @param memoryThreshold The maximum number of bytes kept on the heap.
+     * @return The payload.
+     * @throws IOException if the data could not be read or written.
+     */
+    public static SharedPayload buffer(final InputStream data, final long memoryThreshold)
+            throws IOException {
+        final var limit = (int) Math.max(0, Math.min(memoryThreshold, MAX_HEAP_SIZE));
+        final var head = data.readNBytes(limit + 1);
+        if (head.length <= limit) {
+            return of(head);
+        }
+
+        final var path = Files.createTempFile("payload-", ".tmp");
+        try (var out = Files.newOutputStream(path)) {
+            out.write(head);
+            final var size = head.length + data.transferTo(out);
+            return new SharedPayload(null, path, size);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(path);
+            throw e;
+        }
+    }
+
+    /**
+     * Get the size of the data.
+     *
+     * @return The size in bytes.
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Check whether the data is kept in a temporary file.
+     *
+     * @return true if the data is file-backed.
+     */
+    public boolean isFileBacked() {
+        return file != null;
+    }
+
+    /**
+     * Add a reference.
+     *
+     * @return This payload.
+     * @throws IllegalStateException if the payload has been released already.
+     */
+    public SharedPayload retain() {
+        if (references.getAndUpdate(x -> x > 0 ? x + 1 : x) <= 0) {
+            throw new IllegalStateException("Payload has been released.");
+        }
+        return this;
+    }
+
+    /**
+     * Remove a reference. The data is discarded once no reference is left.
+     */
+    public void release() {
+        final var left = references.updateAndGet(x -> x > 0 ? x - 1 : x);
+        if (left == 0 && file != null) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                if (log.isWarnEnabled()) {
+                    log.warn("Failed to delete payload file. [path=({}), exception=({})]",
+                            file, e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Open a new stream on the data. The stream holds a reference to the payload until it is
+     * closed.
+     *
+     * @return The stream.
+     * @throws IOException if the data could not be opened.
+     * @throws IllegalStateException if the payload has been released already.
+     */
+    public InputStream open() throws IOException {
+        retain();
+        try {
+            final var stream = file == null
+                    ? new ByteArrayInputStream(bytes) : Files.newInputStream(file);
+            return new ReleasingInputStream(stream);
+        } catch (IOException | RuntimeException e) {
+            release();
+            throw e;
+        }
+    }
+
+    /**
+     * Remove the reference of the creator, same as {@link #release()}.
+     */
+    @Override
+    public void close() {
+        release();
+    }
+
+    /**
+     * A stream releasing its reference to the payload when closed.
+     */
+    private final class ReleasingInputStream extends FilterInputStream {
+
+        /**
+         * Whether the stream has been closed.
+         */
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private ReleasingInputStream(final InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public long transferTo(final OutputStream out) throws IOException {
+            return in.transferTo(out);
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed.compareAndSet(false, true)) {
+                try {
+                    super.close();
+                } finally {
+                    release();
+                }
+            }
+        }
+    }
+}
@@ -24,12 +24,12 @@ import ids.messaging.core.daps.ConnectorMissingCertExtensionException;
 import ids.messaging.core.daps.DapsConnectionException;
 import ids.messaging.core.daps.DapsEmptyResponseException;
 import ids.messaging.core.daps.DapsTokenProvider;
+import io.dataspaceconnector.common.exception.ResourceNotFoundException;
 import io.dataspaceconnector.common.ids.mapping.FromIdsObjectMapper;
+import io.dataspaceconnector.common.util.UUIDUtils;
 import io.dataspaceconnector.model.configuration.ConnectorStatus;
 import io.dataspaceconnector.model.configuration.DeployMode;
-import io.dataspaceconnector.model.resource.OfferedResource;
 import io.dataspaceconnector.service.resource.ids.builder.IdsCatalogBuilder;
-import io.dataspaceconnector.service.resource.ids.builder.IdsResourceBuilder;
 import io.dataspaceconnector.service.resource.type.CatalogService;
 import io.dataspaceconnector.service.resource.type.OfferedResourceService;
 import lombok.NonNull;
@@ -43,6 +43,7 @@ import java.net.URI;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.UUID;
 import java.util.stream.Collectors;
 
 /**
@@ -75,9 +76,9 @@ public class ConnectorService {
     private final @NonNull IdsCatalogBuilder catalogBuilder;
 
     /**
-     * Service for ids resources.
+     * Cache of ids resources.
      */
-    private final @NonNull IdsResourceBuilder<OfferedResource> resourceBuilder;
+    private final @NonNull IdsResourceCache resourceCache;
 
     /**
      * Service for offered resources.
@@ -274,17 +275,22 @@ public class ConnectorService {
     }
 
     /**
-     * Get offered resource by its id.
+     * Get offered resource by its id. The resource is looked up by the uuids contained in the
+     * id, its ids representation is served from the cache if the resource has not changed.
      *
      * @param resourceId The resource id.
      * @return The ids resource.
      */
     public Optional<Resource> getOfferedResourceById(final URI resourceId) {
-        final var resource = offeredResourceService.getAll(Pageable.unpaged())
-                .stream()
-                .filter(x -> resourceId.toString().contains(x.getId().toString()))
-                .findAny();
+        for (final var uuid : UUIDUtils.findUuids(resourceId.toString())) {
+            try {
+                final var resource = offeredResourceService.get(UUID.fromString(uuid));
+                return Optional.ofNullable(resourceCache.get(resource));
+            } catch (ResourceNotFoundException ignored) {
+                // Not the id of an offered resource, try the next one.
+            }
+        }
 
-        return resource.map(resourceBuilder::create);
+        return Optional.empty();
     }
 }
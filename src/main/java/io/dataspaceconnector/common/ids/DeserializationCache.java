@@ -0,0 +1,202 @@
+/*
+ * Copyright 2020-2022 Fraunhofer Institute for Software and Systems Engineering
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.dataspaceconnector.common.ids;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Keeps the most recently deserialized ids objects by the SHA-256 digest of their content, so
+ * stored values like rules or agreements are only parsed once. A cached object is returned for
+ * every type it is an instance of. Content that could not be deserialized to a type is
+ * remembered as well. Cached objects are shared and must not be modified.
+ */
+@Component
+public class DeserializationCache {
+
+    /**
+     * Deserializes content to an ids object.
+     *
+     * @param <T> The type of the ids object.
+     */
+    @FunctionalInterface
+    public interface Deserializer<T> {
+        /**
+         * Deserialize content.
+         *
+         * @param content The content.
+         * @param type    The expected type.
+         * @return The ids object.
+         * @throws IOException If the content could not be deserialized.
+         */
+        T deserialize(String content, Class<T> type) throws IOException;
+    }
+
+    /**
+     * The maximum number of cached contents.
+     */
+    private final int maxSize;
+
+    /**
+     * The cached entries by content digest, in access order. Guarded by itself.
+     */
+    private final Map<String, Entry> cache;
+
+    /**
+     * Counts objects served from the cache.
+     */
+    private final Counter hitCounter;
+
+    /**
+     * Counts contents that had to be deserialized.
+     */
+    private final Counter missCounter;
+
+    /**
+     * Constructor for DeserializationCache.
+     *
+     * @param size          The maximum number of cached contents.
+     * @param meterRegistry The meter registry.
+     */
+    public DeserializationCache(@Value("${ids.deserialization-cache.size:1024}") final int size,
+                                final @NonNull MeterRegistry meterRegistry) {
+        this.maxSize = size;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<String, Entry> eldest) {
+                return size() > maxSize;
+            }
+        };
+        this.hitCounter = meterRegistry.counter("ids.deserialization.cache.hits");
+        this.missCounter = meterRegistry.counter("ids.deserialization.cache.misses");
+        Gauge.builder("ids.deserialization.cache.size", cache, map -> {
+            synchronized (map) {
+                return map.size();
+            }
+        }).register(meterRegistry);
+    }
+
+    /**
+     * The result of deserializing a content.
+     */
+    @Getter
+    @RequiredArgsConstructor
+    private static final class Entry {
+        /**
+         * The deserialized object, null if none has been deserialized yet.
+         */
+        private final Object value;
+
+        /**
+         * The errors of types the content could not be deserialized to.
+         */
+        private final Map<Class<?>, IOException> errors;
+    }
+
+    /**
+     * Get the ids object of a content, deserializing it if it is not cached.
+     *
+     * @param content      The content.
+     * @param type         The expected type.
+     * @param deserializer Deserializes the content if it is not cached.
+     * @param <T>          The type of the ids object.
+     * @return The ids object.
+     * @throws IOException If the content could not be deserialized to the type.
+     */
+    public <T> T get(final String content, final Class<T> type,
+                     final Deserializer<T> deserializer) throws IOException {
+        if (content == null || maxSize <= 0) {
+            return deserializer.deserialize(content, type);
+        }
+
+        final var key = digest(content);
+        Entry entry;
+        synchronized (cache) {
+            entry = cache.get(key);
+        }
+
+        if (entry != null) {
+            if (type.isInstance(entry.getValue())) {
+                hitCounter.increment();
+                return type.cast(entry.getValue());
+            }
+
+            final var error = entry.getErrors().get(type);
+            if (error != null) {
+                hitCounter.increment();
+                throw error;
+            }
+        }
+
+        missCounter.increment();
+        try {
+            final var value = deserializer.deserialize(content, type);
+            update(key, value, null, type);
+            return value;
+        } catch (IOException e) {
+            update(key, null, e, type);
+            throw e;
+        }
+    }
+
+    private void update(final String key, final Object value, final IOException error,
+                        final Class<?> type) {
+        synchronized (cache) {
+            final var current = cache.get(key);
+            if (value != null) {
+                final var errors = current == null ? Map.<Class<?>, IOException>of()
+                        : current.getErrors();
+                cache.put(key, new Entry(value, errors));
+            } else if (error != null) {
+                final var errors = new HashMap<Class<?>, IOException>();
+                if (current != null) {
+                    errors.putAll(current.getErrors());
+                }
+                errors.put(type, error);
+                cache.put(key, new Entry(current == null ? null : current.getValue(),
+                        Map.copyOf(errors)));
+            }
+        }
+    }
+
+    private static String digest(final String content) {
+        try {
+            final var digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(
+                    content.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            // SHA-256 must be supported by every JVM.
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -46,6 +46,11 @@ public class DeserializationService {
      */
     private final @NonNull SerializerProvider serProvider;
 
+    /**
+     * Cache for stored ids objects.
+     */
+    private final @NonNull DeserializationCache cache;
+
     /**
      * Deserialize string to ids configuration model.
      *
@@ -163,7 +168,7 @@ public class DeserializationService {
     public <T extends Rule> T getRule(final String policy, final Class<T> tClass)
             throws IllegalArgumentException {
         try {
-            return serProvider.getSerializer().deserialize(policy, tClass);
+            return cache.get(policy, tClass, serProvider.getSerializer()::deserialize);
         } catch (IOException exception) {
             if (log.isWarnEnabled()) {
                 log.warn("Could not deserialize rule. [exception=({})]", exception.getMessage());
@@ -183,7 +188,7 @@ public class DeserializationService {
     public <T extends Rule> boolean isRuleType(final String policy, final Class<T> tClass) {
         var isType = false;
         try {
-            serProvider.getSerializer().deserialize(policy, tClass);
+            cache.get(policy, tClass, serProvider.getSerializer()::deserialize);
             isType = true;
         } catch (IOException expected) {
             // Intentionally empty
@@ -202,7 +207,8 @@ public class DeserializationService {
     public ContractAgreement getContractAgreement(final String contract)
             throws IllegalArgumentException {
         try {
-            return serProvider.getSerializer().deserialize(contract, ContractAgreement.class);
+            return cache.get(contract, ContractAgreement.class,
+                    serProvider.getSerializer()::deserialize);
         } catch (IOException e) {
             if (log.isWarnEnabled()) {
                 log.warn("Could not deserialize agreement. [exception=({})]", e.getMessage(), e);
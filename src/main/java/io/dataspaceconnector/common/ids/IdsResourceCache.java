@@ -0,0 +1,149 @@
+/*
+ * Copyright 2020-2022 Fraunhofer Institute for Software and Systems Engineering
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.dataspaceconnector.common.ids;
+
+import de.fraunhofer.iais.eis.Resource;
+import io.dataspaceconnector.common.event.EntityChangeEvent;
+import io.dataspaceconnector.model.app.App;
+import io.dataspaceconnector.model.artifact.Artifact;
+import io.dataspaceconnector.model.contract.Contract;
+import io.dataspaceconnector.model.endpoint.Endpoint;
+import io.dataspaceconnector.model.representation.Representation;
+import io.dataspaceconnector.model.resource.OfferedResource;
+import io.dataspaceconnector.model.rule.ContractRule;
+import io.dataspaceconnector.service.resource.ids.builder.IdsResourceBuilder;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.ZonedDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Keeps the most recently used ids resources built from offered resources. An entry is only
+ * used for the version of the offered resource it has been built from. Entries are dropped when
+ * the offered resource changes, and all entries are dropped when metadata included in ids
+ * resources, like representations or contracts, changes.
+ */
+@Component
+@RequiredArgsConstructor
+public class IdsResourceCache {
+
+    /**
+     * Service for ids resources.
+     */
+    private final @NonNull IdsResourceBuilder<OfferedResource> resourceBuilder;
+
+    /**
+     * The maximum number of cached resources.
+     */
+    @Value("${ids.resource-cache.size:256}")
+    private int maxSize;
+
+    /**
+     * The cached resources by offered resource id, in access order. Guarded by itself.
+     */
+    private final Map<UUID, CachedResource> cache = new LinkedHashMap<>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<UUID, CachedResource> eldest) {
+            return size() > maxSize;
+        }
+    };
+
+    /**
+     * Incremented on every change that drops cached resources. Guarded by the cache.
+     */
+    private long generation;
+
+    /**
+     * An ids resource and the version of the offered resource it has been built from.
+     */
+    @Getter
+    @RequiredArgsConstructor
+    private static final class CachedResource {
+        /**
+         * The modification date of the offered resource.
+         */
+        private final ZonedDateTime version;
+
+        /**
+         * The ids resource.
+         */
+        private final Resource resource;
+    }
+
+    /**
+     * Get the ids resource of an offered resource, building it if it is not cached.
+     *
+     * @param offeredResource The offered resource.
+     * @return The ids resource.
+     */
+    public Resource get(final OfferedResource offeredResource) {
+        final var id = offeredResource.getId();
+        final var version = offeredResource.getModificationDate();
+
+        CachedResource cached;
+        long current;
+        synchronized (cache) {
+            cached = cache.get(id);
+            current = generation;
+        }
+        if (cached != null && cached.getVersion().equals(version)) {
+            return cached.getResource();
+        }
+
+        final var resource = resourceBuilder.create(offeredResource);
+        if (resource != null && version != null) {
+            synchronized (cache) {
+                // A change committed while building may not be included in the resource.
+                if (generation == current) {
+                    cache.put(id, new CachedResource(version, resource));
+                }
+            }
+        }
+        return resource;
+    }
+
+    /**
+     * Drop cached resources affected by a committed change.
+     *
+     * @param event The change event.
+     */
+    @EventListener
+    public void onEntityChange(final EntityChangeEvent event) {
+        final var entity = event.getEntity();
+        if (entity instanceof OfferedResource) {
+            synchronized (cache) {
+                generation++;
+                cache.remove(entity.getId());
+            }
+        } else if (entity instanceof Representation || entity instanceof Artifact
+                || entity instanceof Contract || entity instanceof ContractRule
+                || entity instanceof App || entity instanceof Endpoint) {
+            synchronized (cache) {
+                generation++;
+                cache.clear();
+            }
+        }
+    }
+}
@@ -0,0 +1,322 @@
+/*
+ * Copyright 2020-2022 Fraunhofer Institute for Software and Systems Engineering
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.dataspaceconnector.common.ids;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import de.fraunhofer.iais.eis.Connector;
+import de.fraunhofer.iais.eis.ResourceCatalog;
+import ids.messaging.core.config.ConfigContainer;
+import io.dataspaceconnector.common.event.EntityChangeEvent;
+import io.dataspaceconnector.common.exception.ErrorMessage;
+import io.dataspaceconnector.common.exception.RdfBuilderException;
+import io.dataspaceconnector.common.exception.ResourceNotFoundException;
+import io.dataspaceconnector.common.ids.mapping.RdfConverter;
+import io.dataspaceconnector.model.app.App;
+import io.dataspaceconnector.model.artifact.Artifact;
+import io.dataspaceconnector.model.catalog.Catalog;
+import io.dataspaceconnector.model.contract.Contract;
+import io.dataspaceconnector.model.endpoint.Endpoint;
+import io.dataspaceconnector.model.representation.Representation;
+import io.dataspaceconnector.model.resource.OfferedResource;
+import io.dataspaceconnector.model.rule.ContractRule;
+import io.dataspaceconnector.service.resource.ids.builder.IdsCatalogBuilder;
+import io.dataspaceconnector.service.resource.type.CatalogService;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Caches the connector's self-description with all catalogs. Every catalog is kept as built
+ * ids object and as serialized JSON-LD. A change of a catalog or of one of its offered resources
+ * rebuilds only the affected catalogs, other changes within the offered metadata rebuild all of
+ * them. The self-description is assembled from the cached parts without modifying the connector
+ * of the configuration.
+ */
+@Log4j2
+@Service
+@RequiredArgsConstructor
+public class SelfDescriptionCache {
+
+    /**
+     * The JSON-LD property holding the catalogs of a connector.
+     */
+    private static final String CATALOG_PROPERTY = "ids:resourceCatalog";
+
+    /**
+     * The JSON-LD context property.
+     */
+    private static final String CONTEXT_PROPERTY = "@context";
+
+    /**
+     * The current connector configuration.
+     */
+    private final @NonNull ConfigContainer configContainer;
+
+    /**
+     * Service for persisted catalogs.
+     */
+    private final @NonNull CatalogService catalogService;
+
+    /**
+     * Service for ids catalogs.
+     */
+    private final @NonNull IdsCatalogBuilder catalogBuilder;
+
+    /**
+     * The transaction manager, catalogs are built within a transaction.
+     */
+    private final @NonNull PlatformTransactionManager transactionManager;
+
+    /**
+     * Parses and writes JSON-LD.
+     */
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    /**
+     * The ids of the catalogs changed since the last build.
+     */
+    private final Set<UUID> changedCatalogs = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Whether all catalogs have to be rebuilt.
+     */
+    private final AtomicBoolean changedAll = new AtomicBoolean(true);
+
+    /**
+     * The built catalogs by catalog id, in catalog order. Guarded by this.
+     */
+    private final Map<UUID, CachedCatalog> catalogs = new LinkedHashMap<>();
+
+    /**
+     * The ids of the catalogs offering a resource, by resource id.
+     */
+    private volatile Map<UUID, Set<UUID>> catalogsOfResource = Map.of();
+
+    /**
+     * The current self-description.
+     */
+    private volatile SelfDescription current;
+
+    /**
+     * A built catalog.
+     */
+    @Getter
+    @RequiredArgsConstructor
+    private static final class CachedCatalog {
+        /**
+         * The ids catalog.
+         */
+        private final ResourceCatalog catalog;
+
+        /**
+         * The serialized catalog, without JSON-LD context.
+         */
+        private final ObjectNode json;
+
+        /**
+         * The ids of the offered resources of the catalog.
+         */
+        private final Set<UUID> resources;
+    }
+
+    /**
+     * A version of the self-description.
+     */
+    @Getter
+    @RequiredArgsConstructor
+    public static final class SelfDescription {
+        /**
+         * The version, incremented with every rebuild.
+         */
+        private final long version;
+
+        /**
+         * The connector the self-description has been built for.
+         */
+        private final Connector connector;
+
+        /**
+         * The self-description as JSON-LD.
+         */
+        private final String rdf;
+
+        /**
+         * The entity tag of the self-description, derived from its content.
+         */
+        private final String etag;
+    }
+
+    /**
+     * Get the self-description with all catalogs. Parts changed since the last call are
+     * rebuilt, otherwise the cached self-description is returned.
+     *
+     * @return The self-description.
+     * @throws RdfBuilderException if the self-description could not be serialized.
+     */
+    public SelfDescription getSelfDescription() {
+        final var connector = configContainer.getConnector();
+        final var description = current;
+        if (description != null && !isOutdated(description, connector)) {
+            return description;
+        }
+
+        synchronized (this) {
+            final var latest = current;
+            if (latest != null && !isOutdated(latest, connector)) {
+                return latest;
+            }
+
+            try {
+                final var rebuilt = rebuild(latest, connector);
+                current = rebuilt;
+                return rebuilt;
+            } catch (RuntimeException e) {
+                // The cached catalogs may be incomplete, start over with the next call.
+                changedAll.set(true);
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Record a committed change of an entity that is part of the self-description.
+     *
+     * @param event The change event.
+     */
+    @EventListener
+    public void onEntityChange(final EntityChangeEvent event) {
+        final var entity = event.getEntity();
+        if (entity instanceof Catalog) {
+            changedCatalogs.add(entity.getId());
+        } else if (entity instanceof OfferedResource) {
+            // Resources in no catalog are not described, adding them changes the catalog.
+            changedCatalogs.addAll(catalogsOfResource.getOrDefault(entity.getId(), Set.of()));
+        } else if (entity instanceof Representation || entity instanceof Artifact
+                || entity instanceof Contract || entity instanceof ContractRule
+                || entity instanceof App || entity instanceof Endpoint) {
+            changedAll.set(true);
+        }
+    }
+
+    private boolean isOutdated(final SelfDescription description, final Connector connector) {
+        return changedAll.get() || !changedCatalogs.isEmpty()
+                || description.getConnector() != connector;
+    }
+
+    private SelfDescription rebuild(final SelfDescription previous, final Connector connector) {
+        // Clear the changes before building, so changes while building trigger another build.
+        final var rebuildAll = changedAll.getAndSet(false);
+        final var changed = new HashSet<>(changedCatalogs);
+        changedCatalogs.removeAll(changed);
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            if (rebuildAll) {
+                catalogs.clear();
+                catalogService.getAll(Pageable.unpaged())
+                        .forEach(catalog -> build(catalog.getId(), catalog));
+            } else {
+                for (final var catalogId : changed) {
+                    try {
+                        build(catalogId, catalogService.get(catalogId));
+                    } catch (ResourceNotFoundException e) {
+                        catalogs.remove(catalogId);
+                    }
+                }
+            }
+        });
+
+        final var resources = new HashMap<UUID, Set<UUID>>();
+        catalogs.forEach((catalogId, catalog) -> catalog.getResources().forEach(resourceId ->
+                resources.computeIfAbsent(resourceId, x -> new HashSet<>()).add(catalogId)));
+        catalogsOfResource = resources;
+
+        final var rdf = serialize(connector);
+        final var version = previous == null ? 1 : previous.getVersion() + 1;
+        if (log.isDebugEnabled()) {
+            log.debug("Rebuilt self-description. [version=({}), catalogs=({}), changed=({})]",
+                    version, catalogs.size(), rebuildAll ? "all" : changed.size());
+        }
+
+        return new SelfDescription(version, connector, rdf, hash(rdf));
+    }
+
+    private void build(final UUID catalogId, final Catalog catalog) {
+        final var idsCatalog = catalogBuilder.create(catalog, 0);
+        if (idsCatalog == null) {
+            catalogs.remove(catalogId);
+            return;
+        }
+
+        final var json = (ObjectNode) readTree(RdfConverter.toRdf(idsCatalog));
+        json.remove(CONTEXT_PROPERTY);
+
+        final var resources = new HashSet<UUID>();
+        catalog.getOfferedResources().forEach(resource -> resources.add(resource.getId()));
+        catalogs.put(catalogId, new CachedCatalog(idsCatalog, json, resources));
+    }
+
+    private String serialize(final Connector connector) {
+        final var json = (ObjectNode) readTree(connector.toRdf());
+        final var array = json.putArray(CATALOG_PROPERTY);
+        catalogs.values().forEach(catalog -> array.add(catalog.getJson()));
+
+        try {
+            return mapper.writeValueAsString(json);
+        } catch (JsonProcessingException e) {
+            throw new RdfBuilderException(ErrorMessage.RDF_FAILED);
+        }
+    }
+
+    private JsonNode readTree(final String rdf) {
+        try {
+            return mapper.readTree(rdf);
+        } catch (JsonProcessingException e) {
+            throw new RdfBuilderException(ErrorMessage.RDF_FAILED);
+        }
+    }
+
+    private static String hash(final String rdf) {
+        try {
+            final var digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(rdf.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            // SHA-256 must be supported by every JVM.
+            throw new IllegalStateException(e);
+        }
+    }
+}
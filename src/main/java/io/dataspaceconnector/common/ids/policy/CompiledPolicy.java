@@ -0,0 +1,82 @@
+/*
+ * Copyright 2020-2022 Fraunhofer Institute for Software and Systems Engineering
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.dataspaceconnector.common.ids.policy;
+
+import de.fraunhofer.iais.eis.ContractAgreement;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.net.URI;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The compiled rules of a contract agreement, grouped by their target. Instances are immutable
+ * and belong to one version of the agreement.
+ */
+@Getter
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+public final class CompiledPolicy {
+
+    /**
+     * The modification date of the agreement the policy has been compiled from.
+     */
+    private final ZonedDateTime version;
+
+    /**
+     * The compiled rules by target, in the order of {@link ContractUtils#getRulesForTargetId}.
+     */
+    @Getter(AccessLevel.NONE)
+    private final Map<URI, List<CompiledRule>> rulesByTarget;
+
+    /**
+     * Compile the rules of a contract agreement.
+     *
+     * @param agreement The ids contract agreement.
+     * @param version   The modification date of the agreement.
+     * @return The compiled policy.
+     * @throws IllegalArgumentException If the agreement is null.
+     */
+    public static CompiledPolicy compile(final ContractAgreement agreement,
+                                         final ZonedDateTime version) {
+        final var rules = new HashMap<URI, List<CompiledRule>>();
+        for (final var rule : ContractUtils.extractRulesFromContract(agreement)) {
+            final var target = rule.getTarget();
+            if (target != null) {
+                rules.computeIfAbsent(target, x -> new ArrayList<>())
+                        .add(CompiledRule.compile(rule));
+            }
+        }
+
+        rules.replaceAll((target, list) -> Collections.unmodifiableList(list));
+        return new CompiledPolicy(version, Collections.unmodifiableMap(rules));
+    }
+
+    /**
+     * Get the compiled rules for a target.
+     *
+     * @param target The requested element.
+     * @return The compiled rules, an empty list if there are none.
+     */
+    public List<CompiledRule> getRules(final URI target) {
+        return rulesByTarget.getOrDefault(target, List.of());
+    }
+}
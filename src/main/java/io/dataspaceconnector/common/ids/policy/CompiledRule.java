@@ -0,0 +1,153 @@
+/*
+ * Copyright 2020-2022 Fraunhofer Institute for Software and Systems Engineering
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.dataspaceconnector.common.ids.policy;
+
+import de.fraunhofer.iais.eis.Rule;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.net.URI;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+
+/**
+ * An ids rule together with its recognized policy pattern and the constraint values this pattern
+ * is enforced with. The values are read once, so validating the rule does not read the ids
+ * rule again. A value that could not be read is kept as error and reported on validation, like it
+ * would have been when reading the rule at that point.
+ */
+@Getter
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+public final class CompiledRule {
+
+    /**
+     * The ids rule.
+     */
+    private final Rule rule;
+
+    /**
+     * The recognized policy pattern.
+     */
+    @Getter(AccessLevel.NONE)
+    private final PolicyPattern pattern;
+
+    /**
+     * The start of the allowed time interval.
+     */
+    private final ZonedDateTime intervalStart;
+
+    /**
+     * The end of the allowed time interval.
+     */
+    private final ZonedDateTime intervalEnd;
+
+    /**
+     * The allowed usage duration.
+     */
+    private final Duration duration;
+
+    /**
+     * The maximum number of accesses.
+     */
+    private final Integer maxAccess;
+
+    /**
+     * The allowed consumer connector.
+     */
+    private final URI allowedConsumer;
+
+    /**
+     * The allowed security profile.
+     */
+    private final String securityProfile;
+
+    /**
+     * The error that occurred while reading the rule.
+     */
+    private final RuntimeException error;
+
+    /**
+     * Compile an ids rule, recognizing its policy pattern.
+     *
+     * @param rule The ids rule.
+     * @return The compiled rule.
+     */
+    public static CompiledRule compile(final Rule rule) {
+        final PolicyPattern pattern;
+        try {
+            pattern = RuleUtils.getPatternByRule(rule);
+        } catch (RuntimeException e) {
+            return new CompiledRule(rule, null, null, null, null, null, null, null, e);
+        }
+
+        return compile(rule, pattern);
+    }
+
+    /**
+     * Compile an ids rule with a known policy pattern. Only the values used by this pattern are
+     * read.
+     *
+     * @param rule    The ids rule.
+     * @param pattern The policy pattern of the rule.
+     * @return The compiled rule.
+     */
+    public static CompiledRule compile(final Rule rule, final PolicyPattern pattern) {
+        ZonedDateTime intervalStart = null;
+        ZonedDateTime intervalEnd = null;
+        Duration duration = null;
+        Integer maxAccess = null;
+        URI allowedConsumer = null;
+        String securityProfile = null;
+        RuntimeException error = null;
+
+        try {
+            if (pattern == PolicyPattern.USAGE_DURING_INTERVAL
+                    || pattern == PolicyPattern.USAGE_UNTIL_DELETION) {
+                final var interval = RuleUtils.getTimeInterval(rule);
+                intervalStart = interval.getStart();
+                intervalEnd = interval.getEnd();
+            } else if (pattern == PolicyPattern.DURATION_USAGE) {
+                duration = RuleUtils.getDuration(rule);
+            } else if (pattern == PolicyPattern.N_TIMES_USAGE) {
+                maxAccess = RuleUtils.getMaxAccess(rule);
+            } else if (pattern == PolicyPattern.CONNECTOR_RESTRICTED_USAGE) {
+                allowedConsumer = URI.create(RuleUtils.getEndpoint(rule));
+            } else if (pattern == PolicyPattern.SECURITY_PROFILE_RESTRICTED_USAGE) {
+                securityProfile = RuleUtils.getSecurityProfile(rule);
+            }
+        } catch (RuntimeException e) {
+            error = e;
+        }
+
+        return new CompiledRule(rule, pattern, intervalStart, intervalEnd, duration, maxAccess,
+                allowedConsumer, securityProfile, error);
+    }
+
+    /**
+     * Get the recognized policy pattern.
+     *
+     * @return The policy pattern, null if none has been recognized.
+     * @throws RuntimeException The error of the pattern recognition, if it failed.
+     */
+    public PolicyPattern getPattern() {
+        if (pattern == null && error != null) {
+            throw error;
+        }
+
+        return pattern;
+    }
+}
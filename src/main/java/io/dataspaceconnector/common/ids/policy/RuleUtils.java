@@ -161,6 +161,26 @@ public final class RuleUtils {
         return expiration != null && isExpired(expiration);
     }
 
+    /**
+     * Gets the date at which the data of the rule's target has to be deleted, as defined by the
+     * first delete post duty of a permission.
+     *
+     * @param rule The ids rule.
+     * @return The deletion date or null, if the rule does not require a deletion.
+     * @throws DateTimeParseException If the date cannot be parsed.
+     */
+    public static ZonedDateTime getDeletionDate(final Rule rule) throws DateTimeParseException {
+        if (rule instanceof Permission permission && permission.getPostDuty() != null) {
+            for (final var duty : permission.getPostDuty()) {
+                if (duty.getAction().contains(Action.DELETE)) {
+                    return getDate(duty);
+                }
+            }
+        }
+
+        return null;
+    }
+
     /**
      * Checks whether a given date has already passed.
      *
@@ -35,7 +35,7 @@ public class HttpResponse implements Response {
     private final int code;
 
     /**
-     * The data.
+     * The data. May be streamed from an open connection, so it has to be closed.
      */
     private final @NonNull InputStream data;
 
@@ -28,9 +28,11 @@ import okhttp3.HttpUrl;
 import okhttp3.MediaType;
 import okhttp3.Request;
 import okhttp3.RequestBody;
+import okio.BufferedSink;
 import org.springframework.stereotype.Service;
 
 import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
@@ -130,29 +132,26 @@ public class HttpService implements DataRetrievalService {
 
         final var targetUrl = urlBuilder.build();
 
-        final var body = RequestBody.create(data.readAllBytes(),
-                MediaType.get("application/octet-stream"));
-
-        final var requestBuilder = new Request.Builder().url(targetUrl).post(body);
+        final var requestBuilder = new Request.Builder().url(targetUrl)
+                .post(new StreamingRequestBody(data));
 
         if (args.getHeaders() != null && !args.getHeaders().isEmpty()) {
             args.getHeaders().forEach(requestBuilder::header);
         }
 
-        final var response = httpSvc.send(requestBuilder.build());
-
-        final var output = new HttpResponse(response.code(), getBody(response));
-        response.close();
-
-        return output;
+        // The response of a post request is small, it is read completely.
+        try (var response = httpSvc.send(requestBuilder.build())) {
+            return new HttpResponse(response.code(), readBody(response));
+        }
     }
 
     /**
-     * Perform a get request.
+     * Perform a get request. The response body is streamed: the connection is kept open until
+     * the data of the response has been read and closed.
      *
      * @param target The recipient of the request.
      * @param args   The request arguments.
-     * @return The response.
+     * @return The response. Its data must be closed.
      * @throws IOException              if the request failed.
      * @throws IllegalArgumentException if any of the parameters is null.
      */
@@ -186,20 +185,25 @@ public class HttpService implements DataRetrievalService {
             response = httpSvc.getWithHeaders(targetUri, headerCopy);
         }
 
-        final var output = new HttpResponse(response.code(), getBody(response));
-        response.close();
+        return new HttpResponse(response.code(), streamBody(response));
+    }
+
+    private InputStream readBody(final okhttp3.Response response) throws IOException {
+        final var body = response.body();
+        if (body != null) {
+            return new ByteArrayInputStream(body.bytes());
+        }
 
-        return output;
+        return InputStream.nullInputStream();
     }
 
-    private InputStream getBody(final okhttp3.Response response) throws IOException {
+    private InputStream streamBody(final okhttp3.Response response) {
         final var body = response.body();
         if (body != null) {
-            final var tmp = body.bytes();
-            body.close();
-            return new ByteArrayInputStream(tmp);
+            return new ResponseInputStream(response, body.byteStream());
         }
 
+        response.close();
         return InputStream.nullInputStream();
     }
 
@@ -307,4 +311,58 @@ public class HttpService implements DataRetrievalService {
         }
         return args;
     }
+
+    /**
+     * Request body streamed from an input stream. The stream is read once while the request is
+     * written, it is not closed.
+     */
+    @RequiredArgsConstructor
+    private static final class StreamingRequestBody extends RequestBody {
+
+        /**
+         * The data.
+         */
+        private final @NonNull InputStream data;
+
+        @Override
+        public MediaType contentType() {
+            return MediaType.get("application/octet-stream");
+        }
+
+        @Override
+        public boolean isOneShot() {
+            return true;
+        }
+
+        @Override
+        public void writeTo(final BufferedSink sink) throws IOException {
+            data.transferTo(sink.outputStream());
+        }
+    }
+
+    /**
+     * Stream on the body of a response. Closing the stream closes the response and releases
+     * the connection.
+     */
+    private static final class ResponseInputStream extends FilterInputStream {
+
+        /**
+         * The response.
+         */
+        private final okhttp3.Response response;
+
+        private ResponseInputStream(final okhttp3.Response source, final InputStream body) {
+            super(body);
+            this.response = source;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                super.close();
+            } finally {
+                response.close();
+            }
+        }
+    }
 }
@@ -130,6 +130,11 @@ public final class ParameterUtils {
      */
     public static final String QUERY_INPUT_PARAM = "queryInput";
 
+    /**
+     * Name of the parameter containing the endpoints of the routes data is sent to.
+     */
+    public static final String ROUTE_ENDPOINTS_PARAM = "routeEndpoints";
+
     /**
      * Name of the parameter for the subscription description.
      */
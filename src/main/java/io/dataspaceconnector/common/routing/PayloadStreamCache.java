@@ -0,0 +1,149 @@
+/*
+ * Copyright 2020-2022 Fraunhofer Institute for Software and Systems Engineering
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.dataspaceconnector.common.routing;
+
+import io.dataspaceconnector.common.file.SharedPayload;
+import lombok.NonNull;
+import org.apache.camel.Exchange;
+import org.apache.camel.StreamCache;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Exposes a {@link SharedPayload} as a Camel message body. The body can be read several times
+ * and copies read the data independently, so one payload can be sent to several routes in
+ * parallel. The data is opened lazily and closed once it has been read completely.
+ */
+public class PayloadStreamCache extends InputStream implements StreamCache {
+
+    /**
+     * The data.
+     */
+    private final @NonNull SharedPayload payload;
+
+    /**
+     * The current stream on the data, null if not opened yet or read completely.
+     */
+    private InputStream stream;
+
+    /**
+     * Whether the data has been read completely since the last reset.
+     */
+    private boolean consumed;
+
+    /**
+     * Constructor for PayloadStreamCache.
+     *
+     * @param data The data. The caller has to hold a reference while the body is in use.
+     */
+    public PayloadStreamCache(final @NonNull SharedPayload data) {
+        this.payload = data;
+    }
+
+    @Override
+    public int read() throws IOException {
+        final var in = current();
+        if (in == null) {
+            return -1;
+        }
+
+        final var value = in.read();
+        if (value == -1) {
+            finish();
+        }
+        return value;
+    }
+
+    @Override
+    public int read(final byte[] b, final int off, final int len) throws IOException {
+        final var in = current();
+        if (in == null) {
+            return -1;
+        }
+
+        final var count = in.read(b, off, len);
+        if (count == -1) {
+            finish();
+        }
+        return count;
+    }
+
+    @Override
+    public int available() throws IOException {
+        final var in = current();
+        return in == null ? 0 : in.available();
+    }
+
+    @Override
+    public void reset() {
+        try {
+            closeStream();
+        } catch (IOException ignored) {
+            // Nothing to do, the stream is discarded.
+        }
+        consumed = false;
+    }
+
+    @Override
+    public void writeTo(final OutputStream os) throws IOException {
+        try (var in = payload.open()) {
+            in.transferTo(os);
+        }
+    }
+
+    @Override
+    public StreamCache copy(final Exchange exchange) {
+        return new PayloadStreamCache(payload);
+    }
+
+    @Override
+    public boolean inMemory() {
+        return !payload.isFileBacked();
+    }
+
+    @Override
+    public long length() {
+        return payload.size();
+    }
+
+    @Override
+    public void close() throws IOException {
+        closeStream();
+        consumed = true;
+    }
+
+    private InputStream current() throws IOException {
+        if (stream == null && !consumed) {
+            stream = payload.open();
+        }
+        return stream;
+    }
+
+    private void finish() throws IOException {
+        closeStream();
+        consumed = true;
+    }
+
+    private void closeStream() throws IOException {
+        if (stream != null) {
+            final var in = stream;
+            stream = null;
+            in.close();
+        }
+    }
+}
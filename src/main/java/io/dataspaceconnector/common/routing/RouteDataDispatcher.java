@@ -16,6 +16,7 @@
 package io.dataspaceconnector.common.routing;
 
 import io.dataspaceconnector.common.exception.DataDispatchException;
+import io.dataspaceconnector.common.file.SharedPayload;
 import io.dataspaceconnector.common.net.QueryInput;
 import io.dataspaceconnector.common.util.UUIDUtils;
 import lombok.NonNull;
@@ -25,14 +26,21 @@ import org.apache.camel.CamelContext;
 import org.apache.camel.Exchange;
 import org.apache.camel.ProducerTemplate;
 import org.apache.camel.builder.ExchangeBuilder;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
-import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.Collectors;
 
 /**
- * Dispatches data via Camel routes.
+ * Dispatches data via Camel routes. The data is passed to the routes as a stream-cached body,
+ * which is binary-safe and never converted to a string. Data sent to several routes is buffered
+ * once, on the heap or in a temporary file depending on its size, and read by every route
+ * independently.
  */
 @Component
 @RequiredArgsConstructor
@@ -49,6 +57,13 @@ public class RouteDataDispatcher {
      */
     private final @NonNull CamelContext context;
 
+    /**
+     * The maximum size of dispatched data kept on the heap, larger data is buffered in a
+     * temporary file.
+     */
+    @Value("${camel.dispatch.memory-threshold:1MB}")
+    private DataSize memoryThreshold;
+
     /**
      * Dispatches data via the specified route. The route will be triggered once with the data
      * as the initial input.
@@ -76,16 +91,72 @@ public class RouteDataDispatcher {
      */
     public void send(final URI routeId, final byte[] bytes, final QueryInput queryInput)
             throws IOException, DataDispatchException {
-        final var data = new String(bytes, StandardCharsets.UTF_8);
-        final var routeUuid = UUIDUtils.uuidFromUri(routeId);
-        final var camelDirect = "direct:" + routeUuid;
+        try (var payload = SharedPayload.of(bytes)) {
+            send(List.of(routeId), payload, queryInput);
+        }
+    }
+
+    /**
+     * Dispatches data via all specified routes. The data is buffered once and sent to the routes
+     * in parallel. The buffered data is returned, so that it can be used after dispatching
+     * without reading the source again. The caller has to release it.
+     *
+     * @param routeIds the route IDs.
+     * @param data the data. The stream is closed.
+     * @param queryInput the query input for the backend.
+     * @return the buffered data.
+     * @throws IOException if the data cannot be read.
+     * @throws DataDispatchException if an error occurs during route execution.
+     */
+    public SharedPayload send(final List<URI> routeIds, final InputStream data,
+                              final QueryInput queryInput)
+            throws IOException, DataDispatchException {
+        final SharedPayload payload;
+        try (data) {
+            payload = SharedPayload.buffer(data, memoryThreshold.toBytes());
+        }
 
         try {
-            final var result = template
-                    .send(camelDirect, ExchangeBuilder.anExchange(context)
-                            .withProperty(ParameterUtils.QUERY_INPUT_PARAM, queryInput)
-                            .withBody(data)
-                            .build());
+            send(routeIds, payload, queryInput);
+            return payload;
+        } catch (RuntimeException e) {
+            payload.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Dispatches buffered data via all specified routes. A single route is triggered directly,
+     * several routes are triggered in parallel via a multicast.
+     *
+     * @param routeIds the route IDs.
+     * @param payload the data. The caller keeps its reference.
+     * @param queryInput the query input for the backend.
+     * @throws DataDispatchException if an error occurs during route execution.
+     */
+    public void send(final List<URI> routeIds, final SharedPayload payload,
+                     final QueryInput queryInput) throws DataDispatchException {
+        if (routeIds.isEmpty()) {
+            return;
+        }
+
+        final var endpoints = routeIds.stream()
+                .map(routeId -> "direct:" + UUIDUtils.uuidFromUri(routeId))
+                .collect(Collectors.toList());
+        final var builder = ExchangeBuilder.anExchange(context)
+                .withProperty(ParameterUtils.QUERY_INPUT_PARAM, queryInput)
+                .withBody(new PayloadStreamCache(payload));
+
+        final String target;
+        if (endpoints.size() == 1) {
+            target = endpoints.get(0);
+        } else {
+            target = RouteDataMulticast.ENDPOINT;
+            builder.withProperty(ParameterUtils.ROUTE_ENDPOINTS_PARAM, endpoints);
+        }
+
+        try {
+            final var result = template.send(target, builder.build());
 
             if (result.getException() != null) {
                 throw result.getException();
@@ -100,5 +171,4 @@ public class RouteDataDispatcher {
             throw new DataDispatchException("Failed to dispatch data." + e.getMessage());
         }
     }
-
 }
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2020-2022 Fraunhofer Institute for Software and Systems Engineering
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.dataspaceconnector.common.routing;
+
+import org.apache.camel.Exchange;
+import org.apache.camel.StreamCache;
+import org.apache.camel.builder.RouteBuilder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Defines the route used for sending data to several routes at once. The data is sent to all
+ * routes listed in the exchange property {@link ParameterUtils#ROUTE_ENDPOINTS_PARAM} in
+ * parallel. Every route reads its own copy of the stream-cached body.
+ */
+@Component
+public class RouteDataMulticast extends RouteBuilder {
+
+    /**
+     * The endpoint of the route.
+     */
+    public static final String ENDPOINT = "direct:routeDataMulticast";
+
+    /**
+     * Configures the multicast route. Processing stops at the first failing route, errors
+     * handled by one of the routes are passed on to the caller.
+     */
+    @Override
+    public void configure() {
+        from(ENDPOINT)
+                .routeId("routeDataMulticast")
+                .recipientList(exchangeProperty(ParameterUtils.ROUTE_ENDPOINTS_PARAM))
+                .parallelProcessing()
+                .stopOnException()
+                .onPrepare(RouteDataMulticast::copyBody)
+                .aggregationStrategy(RouteDataMulticast::aggregate);
+    }
+
+    private static void copyBody(final Exchange exchange) throws Exception {
+        final var body = exchange.getIn().getBody();
+        if (body instanceof StreamCache cache) {
+            exchange.getIn().setBody(cache.copy(exchange));
+        }
+    }
+
+    private static Exchange aggregate(final Exchange oldExchange, final Exchange newExchange) {
+        if (oldExchange == null) {
+            return newExchange;
+        }
+
+        if (newExchange.getException() != null) {
+            oldExchange.setException(newExchange.getException());
+        } else if (newExchange.getProperty(Exchange.EXCEPTION_CAUGHT) != null) {
+            oldExchange.setProperty(Exchange.EXCEPTION_CAUGHT,
+                    newExchange.getProperty(Exchange.EXCEPTION_CAUGHT));
+        }
+        return oldExchange;
+    }
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright 2020-2022 Fraunhofer Institute for Software and Systems Engineering
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.dataspaceconnector.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * This class handles the settings for downloading metadata and data from other connectors.
+ */
+@Getter
+@Setter
+@Configuration
+public class DownloadConfig {
+
+    /**
+     * The number of threads downloading metadata and data.
+     */
+    @Value("${download.threads:16}")
+    private int threads;
+
+    /**
+     * The maximum number of downloads running against one provider at the same time.
+     */
+    @Value("${download.provider-concurrency:4}")
+    private int providerConcurrency;
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2020-2022 Fraunhofer Institute for Software and Systems Engineering
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.dataspaceconnector.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * This class handles the settings for dispatching notifications to subscribers.
+ */
+@Getter
+@Setter
+@Configuration
+public class NotificationConfig {
+
+    /**
+     * The number of threads sending notifications.
+     */
+    @Value("${notification.dispatcher.threads:8}")
+    private int threads;
+
+    /**
+     * The maximum number of notifications waiting for delivery.
+     */
+    @Value("${notification.dispatcher.queue-capacity:1000}")
+    private int queueCapacity;
+
+    /**
+     * The time a notification is held back, so following updates of the same target replace it.
+     */
+    @Value("${notification.dispatcher.coalesce-window:PT0.25S}")
+    private Duration coalesceWindow;
+
+    /**
+     * The maximum number of delivery attempts per notification.
+     */
+    @Value("${notification.dispatcher.max-attempts:5}")
+    private int maxAttempts;
+
+    /**
+     * The delay before the first retry. The delay is doubled for every further retry.
+     */
+    @Value("${notification.dispatcher.initial-backoff:PT1S}")
+    private Duration initialBackoff;
+
+    /**
+     * The maximum delay between two retries.
+     */
+    @Value("${notification.dispatcher.max-backoff:PT1M}")
+    private Duration maxBackoff;
+
+    /**
+     * The maximum number of undeliverable notifications kept in the dead-letter store.
+     */
+    @Value("${notification.dispatcher.dead-letter-capacity:1000}")
+    private int deadLetterCapacity;
+
+    /**
+     * The maximum size of pushed data kept on the heap. Larger data is buffered in a temporary
+     * file, which is shared by all recipients.
+     */
+    @Value("${notification.payload.memory-threshold:1MB}")
+    private DataSize payloadMemoryThreshold;
+}
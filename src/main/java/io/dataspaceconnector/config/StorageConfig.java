@@ -0,0 +1,98 @@
+/*
+ * Copyright 2020-2022 Fraunhofer Institute for Software and Systems Engineering
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.dataspaceconnector.config;
+
+import io.dataspaceconnector.repository.DataRepository;
+import io.dataspaceconnector.service.storage.DatabaseDataStore;
+import io.dataspaceconnector.service.storage.FileSystemDataStore;
+import io.dataspaceconnector.service.storage.LocalDataStore;
+import lombok.Getter;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * This class selects the storage backend for locally kept artifact data.
+ */
+@Log4j2
+@Configuration
+public class StorageConfig {
+
+    /**
+     * The directory of stored data, relative to the working directory. Used if the configured
+     * directory can not be created.
+     */
+    private static final Path FALLBACK_DIRECTORY = Path.of("data", "blobs");
+
+    /**
+     * The storage type, either database or filesystem.
+     */
+    @Value("${storage.data.type:filesystem}")
+    private String storageType;
+
+    /**
+     * The root directory of the filesystem storage.
+     */
+    @Value("${storage.data.filesystem.path:/data/blobs}")
+    private String storagePath;
+
+    /**
+     * The maximum size of artifact data uploaded at once.
+     */
+    @Getter
+    @Value("${storage.data.max-size:2GB}")
+    private DataSize maxSize;
+
+    /**
+     * Create the local data store bean.
+     *
+     * @param dataRepository The data repository.
+     * @return The local data store.
+     */
+    @Bean
+    public LocalDataStore localDataStore(final DataRepository dataRepository) {
+        if ("filesystem".equalsIgnoreCase(storageType)) {
+            final var root = resolveRoot(Path.of(storagePath));
+            if (log.isInfoEnabled()) {
+                log.info("Storing artifact data on the filesystem. [path=({})]", root);
+            }
+            return new FileSystemDataStore(dataRepository, root);
+        }
+
+        return new DatabaseDataStore(dataRepository);
+    }
+
+    private static Path resolveRoot(final Path configured) {
+        try {
+            Files.createDirectories(configured);
+            return configured;
+        } catch (IOException e) {
+            final var fallback = FALLBACK_DIRECTORY.toAbsolutePath();
+            if (log.isWarnEnabled()) {
+                log.warn("Cannot create data storage directory, using fallback. "
+                        + "[path=({}), fallback=({}), exception=({})]", configured, fallback,
+                        e.getMessage());
+            }
+            return fallback;
+        }
+    }
+}
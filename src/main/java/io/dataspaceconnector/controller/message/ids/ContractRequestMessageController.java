@@ -62,7 +62,9 @@ import org.springframework.web.bind.annotation.RestController;
 
 import javax.persistence.PersistenceException;
 import java.net.URI;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.UUID;
 
@@ -75,6 +77,11 @@ import java.util.UUID;
 @RequestMapping("/api/ids")
 @Tag(name = MessageName.MESSAGES, description = MessageDescription.MESSAGES)
 public class ContractRequestMessageController {
+    /**
+     * The response header listing the artifacts whose data could not be downloaded.
+     */
+    private static final String FAILED_DOWNLOADS_HEADER = "X-Failed-Downloads";
+
     /**
      * Service for updating database entities.
      */
@@ -128,7 +135,9 @@ public class ContractRequestMessageController {
      * @param artifacts List of requested artifacts by IDs.
      * @param download  download data directly after successful contract and description request.
      * @param ruleList  List of rules that should be used within a contract request.
-     * @return The response entity.
+     * @return The response entity. Artifacts whose data could not be downloaded are listed in
+     * the X-Failed-Downloads header with the reason. If no data could be downloaded at all, the
+     * response is a bad gateway error listing the reasons per artifact.
      */
     @PostMapping("/contract")
     @Operation(summary = "Send an IDS ContractRequestMessage to start the contract negotiation.")
@@ -196,11 +205,16 @@ public class ContractRequestMessageController {
                 downloadMetadata(recipient, resources, artifacts, download, agreementId);
 
                 // Download data, if requested.
-                if (download) {
-                    artifactDataDownloader.download(recipient, artifacts, agreementId);
+                final var failedDownloads = download
+                        ? artifactDataDownloader.download(recipient, artifacts, agreementId)
+                        : Map.<URI, Exception>of();
+
+                final var response = respondWithCreatedAgreement(agreementId);
+                if (failedDownloads.isEmpty()) {
+                    return response;
                 }
 
-                return respondWithCreatedAgreement(agreementId);
+                return respondWithFailedDownloads(response, artifacts, failedDownloads);
             } catch (InvalidInputException exception) {
                 // If the input rules are malformed.
                 return ResponseUtils.respondInvalidInput(exception);
@@ -233,6 +247,44 @@ public class ContractRequestMessageController {
         updateService.linkArtifactToAgreement(artifacts, agreementId);
     }
 
+    private ResponseEntity<Object> respondWithFailedDownloads(
+            final ResponseEntity<Object> response, final List<URI> artifacts,
+            final Map<URI, Exception> failedDownloads) {
+        final var reasons = new LinkedHashMap<String, String>();
+        failedDownloads.forEach((artifact, error) -> reasons.put(artifact.toString(),
+                getFailureReason(error)));
+
+        final var headers = new HttpHeaders();
+        headers.addAll(response.getHeaders());
+        reasons.forEach((artifact, reason) -> headers.add(FAILED_DOWNLOADS_HEADER,
+                artifact + "; reason=\"" + reason + "\""));
+
+        if (artifacts.stream().allMatch(failedDownloads::containsKey)) {
+            // The agreement exists, but no data has been received at all.
+            headers.setContentType(MediaType.APPLICATION_JSON);
+            return new JsonResponse("Failed to download artifact data.", reasons)
+                    .create(headers, HttpStatus.BAD_GATEWAY);
+        }
+
+        return new ResponseEntity<>(response.getBody(), headers, response.getStatusCode());
+    }
+
+    private static String getFailureReason(final Exception error) {
+        final var message = Objects.requireNonNullElseGet(error.getMessage(),
+                () -> error.getClass().getSimpleName());
+
+        // Keep the reason a valid quoted header value.
+        final var reason = new StringBuilder(message.length());
+        for (final var character : message.toCharArray()) {
+            if (character < ' ' || character > '~' || character == '"' || character == '\\') {
+                reason.append(' ');
+            } else {
+                reason.append(character);
+            }
+        }
+        return reason.toString().trim();
+    }
+
     private ResponseEntity<Object> respondWithCreatedAgreement(final UUID agreementId) {
         final var entity = agreementAsm.toModel(agreementService.get(agreementId));
 
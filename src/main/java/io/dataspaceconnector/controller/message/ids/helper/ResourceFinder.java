@@ -15,6 +15,7 @@
  */
 package io.dataspaceconnector.controller.message.ids.helper;
 
+import de.fraunhofer.iais.eis.Resource;
 import io.dataspaceconnector.common.exception.ResourceNotFoundException;
 import io.dataspaceconnector.common.ids.ConnectorService;
 import io.dataspaceconnector.common.routing.ParameterUtils;
@@ -42,7 +43,7 @@ class ResourceFinder extends IdsHelperProcessor {
 
     /**
      * Finds the resource with the ID from the exchange properties and sets it as the exchange's
-     * body.
+     * body. If the body already contains the resource, it is used as is.
      *
      * @param exchange the exchange.
      * @throws ResourceNotFoundException if no resource with the given ID exists.
@@ -50,6 +51,12 @@ class ResourceFinder extends IdsHelperProcessor {
     @Override
     protected void processInternal(final Exchange exchange) throws ResourceNotFoundException {
         final var resourceId = exchange.getProperty(ParameterUtils.RESOURCE_ID_PARAM, URI.class);
+        final var body = exchange.getIn().getBody();
+        if (body instanceof Resource prebuilt && prebuilt.getId().equals(resourceId)) {
+            // The resource has been built by the sender already.
+            return;
+        }
+
         final var resource = connectorService.getOfferedResourceById(resourceId);
 
         if (resource.isEmpty()) {
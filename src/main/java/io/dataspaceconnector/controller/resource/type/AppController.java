@@ -34,6 +34,7 @@ import io.dataspaceconnector.model.app.App;
 import io.dataspaceconnector.model.app.AppDesc;
 import io.dataspaceconnector.model.app.AppImpl;
 import io.dataspaceconnector.service.AppRouteResolver;
+import io.dataspaceconnector.service.appstore.deployment.AppDeploymentService;
 import io.dataspaceconnector.service.appstore.portainer.PortainerService;
 import io.dataspaceconnector.service.resource.type.AppEndpointService;
 import io.dataspaceconnector.service.resource.type.AppService;
@@ -45,9 +46,6 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import okhttp3.Response;
-import org.apache.commons.io.IOUtils;
-import org.json.JSONObject;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -57,9 +55,9 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
 import java.util.UUID;
 
 /**
@@ -87,15 +85,9 @@ public class AppController extends BaseResourceController<App, AppDesc, AppView,
     private final @NonNull AppRouteResolver appRouteResolver;
 
     /**
-     * 443 is the default port for https.
+     * Service for deploying apps.
      */
-    private static final int DEFAULT_HTTPS_PORT = 443;
-
-    /**
-     * The network of the connector to join apps in.
-     */
-    @Value("${portainer.application.connector.network:local}")
-    private String connectorNetwork;
+    private final @NonNull AppDeploymentService deploymentSvc;
 //
 //    @Hidden
 //    @ApiResponse(responseCode = ResponseCode.METHOD_NOT_ALLOWED,
@@ -144,6 +136,8 @@ public class AppController extends BaseResourceController<App, AppDesc, AppView,
     @Operation(summary = "Actions on apps", description = "Can be used for managing apps.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = ResponseCode.OK, description = ResponseDescription.OK),
+            @ApiResponse(responseCode = ResponseCode.ACCEPTED,
+                    description = ResponseDescription.ACCEPTED),
             @ApiResponse(responseCode = ResponseCode.BAD_REQUEST,
                     description = ResponseDescription.BAD_REQUEST),
             @ApiResponse(responseCode = ResponseCode.INTERNAL_SERVER_ERROR,
@@ -183,7 +177,7 @@ public class AppController extends BaseResourceController<App, AppDesc, AppView,
     }
 
     private void initPortainerSvc() throws PortainerNotConfigured, IOException {
-        portainerSvc.resetToken();
+        // Token and endpoint id are cached by the service.
         portainerSvc.createEndpointId();
     }
 
@@ -243,18 +237,15 @@ public class AppController extends BaseResourceController<App, AppDesc, AppView,
     private ResponseEntity<Object> startApp(final App app,
                                             final String containerId)
             throws IOException, AppNotDeployedException {
-        String deployedContainerId;
-
         if (containerId == null || containerId.equals("")) {
-            deployedContainerId = deployApp(app);
-        } else {
-            deployedContainerId = containerId;
-            if (isAppRunning(deployedContainerId)) {
-                return new JsonResponse("App is already running.").create(HttpStatus.BAD_REQUEST);
-            }
+            return deployApp(app);
         }
 
-        return readResponse(portainerSvc.startContainer(deployedContainerId),
+        if (isAppRunning(containerId)) {
+            return new JsonResponse("App is already running.").create(HttpStatus.BAD_REQUEST);
+        }
+
+        return readResponse(portainerSvc.startContainer(containerId),
                 "Successfully started the app.");
     }
 
@@ -262,82 +253,44 @@ public class AppController extends BaseResourceController<App, AppDesc, AppView,
         return portainerSvc.validateContainerRunning(containerID);
     }
 
-    private String deployApp(final App app) throws IOException, AppNotDeployedException {
+    private ResponseEntity<Object> deployApp(final App app)
+            throws IOException, AppNotDeployedException {
         if (!(app instanceof AppImpl)) {
             //needs to be checked because of cast to AppImpl
             throw new AppNotDeployedException();
         }
-        final var data = getService().getDataFromInternalDB((AppImpl) app);
-        final var template = IOUtils.toString(data, StandardCharsets.UTF_8);
-
-        // 1. Create Registry with given information from AppStore template.
-        final var registryId = portainerSvc.createRegistry(template);
-
-        // 2. Pull Image with given information from AppStore template.
-        portainerSvc.pullImage(template);
-
-        // 3. Create volumes with given information from AppStore template.
-        final var volumeMap = portainerSvc.createVolumes(template, app.getId().toString());
-
-        // 4. Create Container with given information from AppStore template and new volume.
-        final var containerId = portainerSvc.createContainer(template, volumeMap,
-                app.getEndpoints());
-
-        // 5. Get container description from portainer.
-        final var containerDesc = portainerSvc.getDescriptionByContainerId(containerId);
-        persistContainerData(app, containerId, containerDesc);
 
-        // 6. Get "bride" network-id in Portainer and join app in network
-        final var networkIdBridge = portainerSvc.getNetworkId("bridge");
-        portainerSvc.joinNetwork(containerId, networkIdBridge);
+        // The app is deployed and started in the background, the deployment can be polled.
+        final var deployment = deploymentSvc.submit((AppImpl) app);
+        final var location = ServletUriComponentsBuilder.fromCurrentContextPath()
+                .path(BasePath.APPS + "/{id}/deployments/{jobId}")
+                .buildAndExpand(app.getId(), deployment.getId())
+                .toUri();
 
-        // 7. Get setting for connector network and join app in network
-        final var networkIdConnector = portainerSvc.getNetworkId(connectorNetwork);
-        portainerSvc.joinNetwork(containerId, networkIdConnector);
-
-        // 8. Delete registry (credentials should be one-time-usage)
-        portainerSvc.deleteRegistry(registryId);
-
-        return containerId;
+        return ResponseEntity.accepted().location(location).body(deployment);
     }
 
     /**
-     * Persists the portainer container data, e.g. Container-ID, Container-Name and
-     * Endpoint-AccessURLs.
+     * Get the state of an app deployment.
      *
-     * @param app           The app currently being deployed.
-     * @param containerId   The portainer container id.
-     * @param containerDesc The portainer container description.
-     * @throws IOException If connection to Portainer threw exception.
+     * @param appId The id of the app.
+     * @param jobId The id of the deployment.
+     * @return The deployment.
      */
-    private void persistContainerData(final App app, final String containerId,
-                                      final Response containerDesc) throws IOException {
-        final var responseBody = containerDesc.body();
-        if (responseBody != null) {
-            final var name = new JSONObject(responseBody.string()).getString("Name");
-
-            // Note: Portainer places a leading "/" in front of container-name, needs to be removed
-            final var containerName = name.substring(name.indexOf("/") + 1);
-
-            // Persist container id and name.
-            getService().setContainerName(app.getId(), containerName);
-            getService().setContainerIdForApp(app.getId(), containerId);
-
-            // Generate endpoint accessURLs depending on deployment information.
-            for (final var endpoint : app.getEndpoints()) {
-                final var port = endpoint.getEndpointPort();
-
-                // Uses IDS endpoint description info and not template (/api/apps/{id}/endpoints).
-                final var protocol = port == DEFAULT_HTTPS_PORT ? "https://" : "http://";
-
-                // Uses IDS endpoint description info and not template (/api/apps/{id}/endpoints).
-                final var suffix =
-                        endpoint.getPath() != null ? endpoint.getPath() : "";
-
-                final var location = protocol + containerName + ":" + port + suffix;
-                appEndpointSvc.setLocation(endpoint, location);
-            }
-        }
+    @GetMapping(value = "/{id}/deployments/{jobId}", produces = ContentType.JSON)
+    @Operation(summary = "Get app deployment",
+            description = "Get the progress of an app deployment.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = ResponseCode.OK, description = ResponseDescription.OK),
+            @ApiResponse(responseCode = ResponseCode.NOT_FOUND,
+                    description = ResponseDescription.NOT_FOUND)})
+    @ResponseBody
+    public final ResponseEntity<Object> deployment(final @PathVariable("id") UUID appId,
+                                                   final @PathVariable("jobId") UUID jobId) {
+        return deploymentSvc.getDeployment(appId, jobId)
+                .<ResponseEntity<Object>>map(ResponseEntity::ok)
+                .orElseGet(() -> new JsonResponse("Deployment not found.")
+                        .create(HttpStatus.NOT_FOUND));
     }
 
     private ResponseEntity<Object> readResponse(final Response response, final Object body) {
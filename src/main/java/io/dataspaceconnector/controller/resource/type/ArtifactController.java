@@ -21,7 +21,9 @@ import io.dataspaceconnector.common.net.QueryInput;
 import io.dataspaceconnector.common.net.ContentType;
 import io.dataspaceconnector.common.routing.dataretrieval.RetrievalInformation;
 import io.dataspaceconnector.common.util.ValidationUtils;
+import io.dataspaceconnector.common.exception.PayloadTooLargeException;
 import io.dataspaceconnector.config.BasePath;
+import io.dataspaceconnector.config.StorageConfig;
 import io.dataspaceconnector.controller.resource.base.BaseResourceNotificationController;
 import io.dataspaceconnector.controller.resource.base.tag.ResourceDescription;
 import io.dataspaceconnector.controller.resource.base.tag.ResourceName;
@@ -36,8 +38,11 @@ import io.dataspaceconnector.model.route.Route;
 import io.dataspaceconnector.service.ArtifactRetriever;
 import io.dataspaceconnector.service.message.SubscriberNotificationService;
 import io.dataspaceconnector.service.resource.type.ArtifactService;
+import io.dataspaceconnector.service.storage.BoundedInputStream;
 import io.dataspaceconnector.service.usagecontrol.DataAccessVerifier;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.NonNull;
@@ -61,7 +66,6 @@ import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBo
 
 import javax.servlet.http.HttpServletRequest;
 import javax.validation.Valid;
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
@@ -105,6 +109,11 @@ public class ArtifactController extends BaseResourceNotificationController<Artif
      */
     private final @NonNull RouteViewAssembler routeAssembler;
 
+    /**
+     * The storage settings, holding the maximum upload size.
+     */
+    private final @NonNull StorageConfig storageConfig;
+
     /**
      * Returns data from the local database or a remote data source. In case of a remote data
      * source, all headers and query parameters included in this request will be used for the
@@ -196,14 +205,10 @@ public class ArtifactController extends BaseResourceNotificationController<Artif
     private ResponseEntity<StreamingResponseBody> returnData(
             final UUID artifactId, final InputStream data) {
         final StreamingResponseBody body = outputStream -> {
-            final int blockSize = 1024;
-            int numBytesToWrite;
-            var buffer = new byte[blockSize];
-            while ((numBytesToWrite = data.read(buffer, 0, buffer.length)) != -1) {
-                outputStream.write(buffer, 0, numBytesToWrite);
+            // File backed data is transferred by the file channel without copying it to heap.
+            try (data) {
+                data.transferTo(outputStream);
             }
-
-            data.close();
         };
 
         final var outputHeader = new HttpHeaders();
@@ -243,17 +248,32 @@ public class ArtifactController extends BaseResourceNotificationController<Artif
     /**
      * Replace the data of an artifact.
      *
-     * @param artifactId  The artifact whose data should be replaced.
-     * @param inputStream The new data.
+     * @param artifactId The artifact whose data should be replaced.
+     * @param request    The current http request, its body holds the new data.
      * @return Http Status ok.
-     * @throws IOException if the data could not be stored.
+     * @throws IOException               if the data could not be stored.
+     * @throws PayloadTooLargeException if the data exceeds the maximum size.
      */
     @PutMapping(value = "{id}/data", consumes = ContentType.OCTET_STREAM)
+    @io.swagger.v3.oas.annotations.parameters.RequestBody(description = "The new data.",
+            required = true, content = @Content(mediaType = ContentType.OCTET_STREAM,
+            schema = @Schema(type = "string", format = "binary")))
     @ApiResponse(responseCode = ResponseCode.OK, description = ResponseDescription.OK)
+    @ApiResponse(responseCode = ResponseCode.PAYLOAD_TOO_LARGE,
+            description = ResponseDescription.PAYLOAD_TOO_LARGE)
     public ResponseEntity<Void> putData(
             @Valid @PathVariable(name = "id") final UUID artifactId,
-            @RequestBody final byte[] inputStream) throws IOException {
-        artifactSvc.setData(artifactId, new ByteArrayInputStream(inputStream));
+            final HttpServletRequest request) throws IOException {
+        final var maxSize = storageConfig.getMaxSize().toBytes();
+        if (request.getContentLengthLong() > maxSize) {
+            throw new PayloadTooLargeException("Data exceeds the maximum size. [maxSize=("
+                    + maxSize + ")]");
+        }
+
+        // Stream the request body into the store instead of buffering it. The size is checked
+        // while reading as well, the content length is not always known.
+        artifactSvc.setData(artifactId,
+                new BoundedInputStream(request.getInputStream(), maxSize));
 
         // Notify subscribers on update event.
         subscriberNotificationSvc.notifyOnUpdate(getService().get(artifactId));
@@ -35,6 +35,11 @@ public class ResponseCode {
      */
     public static final String CREATED = "201";
 
+    /**
+     * Response code is ACCEPTED.
+     */
+    public static final String ACCEPTED = "202";
+
     /**
      * Response code is NO_CONTENT.
      */
@@ -70,6 +75,11 @@ public class ResponseCode {
      */
     public static final String CONFLICT = "409";
 
+    /**
+     * Response code is PAYLOAD_TOO_LARGE.
+     */
+    public static final String PAYLOAD_TOO_LARGE = "413";
+
     /**
      * Response code is UNSUPPORTED_MEDIA_TYPE.
      */
@@ -34,6 +34,11 @@ public class ResponseDescription {
      */
     public static final String CREATED = "Created";
 
+    /**
+     * Response code is ACCEPTED.
+     */
+    public static final String ACCEPTED = "Accepted";
+
     /**
      * Response code is NO_CONTENT.
      */
@@ -74,6 +79,11 @@ public class ResponseDescription {
      */
     public static final String CONFLICT = "Conflict";
 
+    /**
+     * Response code is PAYLOAD_TOO_LARGE.
+     */
+    public static final String PAYLOAD_TOO_LARGE = "Payload too large";
+
     /**
      * Response code is NOT_FOUND.
      */
@@ -18,6 +18,7 @@ package io.dataspaceconnector.model.app;
 import io.dataspaceconnector.common.ids.policy.PolicyPattern;
 import io.dataspaceconnector.model.appstore.AppStore;
 import io.dataspaceconnector.model.base.RemoteObject;
+import io.dataspaceconnector.model.config.SearchConstants;
 import io.dataspaceconnector.model.endpoint.AppEndpointImpl;
 import io.dataspaceconnector.model.endpoint.Endpoint;
 import io.dataspaceconnector.model.named.NamedEntity;
@@ -30,7 +31,10 @@ import lombok.RequiredArgsConstructor;
 import lombok.Setter;
 import org.hibernate.annotations.SQLDelete;
 import org.hibernate.annotations.Where;
+import org.hibernate.search.engine.backend.types.Aggregable;
+import org.hibernate.search.mapper.pojo.mapping.definition.annotation.FullTextField;
 import org.hibernate.search.mapper.pojo.mapping.definition.annotation.Indexed;
+import org.hibernate.search.mapper.pojo.mapping.definition.annotation.KeywordField;
 import org.springframework.data.annotation.Version;
 
 import javax.persistence.*;
@@ -116,6 +120,8 @@ public class App extends NamedEntity implements RemoteObject {
      * The keywords of the resource.
      */
     @ElementCollection
+    @FullTextField(name = SearchConstants.KEYWORDS, analyzer = SearchConstants.TEXT_ANALYZER)
+    @KeywordField(name = SearchConstants.KEYWORDS_FACET, aggregable = Aggregable.YES)
     private List<String> keywords;
 
     /**
@@ -0,0 +1,146 @@
+/*
+ * Copyright 2020-2022 Fraunhofer Institute for Software and Systems Engineering
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.dataspaceconnector.model.app;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import javax.persistence.CollectionTable;
+import javax.persistence.Column;
+import javax.persistence.ElementCollection;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.FetchType;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import java.time.ZonedDateTime;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * State of an app deployment. The state is persisted, so deployments interrupted by a restart
+ * can be cleaned up and resumed.
+ */
+@Entity
+@Table(name = "app_deployment")
+@Getter
+@Setter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class AppDeployment {
+
+    /**
+     * The id of the deployment.
+     */
+    @Id
+    @Column(name = "id", unique = true, nullable = false)
+    @SuppressWarnings("PMD.ShortVariable")
+    private UUID id;
+
+    /**
+     * The id of the deployed app.
+     */
+    @Column(name = "app_id", nullable = false)
+    private UUID appId;
+
+    /**
+     * The state of the deployment.
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false)
+    private DeploymentStatus status;
+
+    /**
+     * The deployment step started last.
+     */
+    private String step;
+
+    /**
+     * The number of completed deployment steps.
+     */
+    private int completedSteps;
+
+    /**
+     * The total number of deployment steps.
+     */
+    private int totalSteps;
+
+    /**
+     * The id of the registry created in Portainer, as long as it exists.
+     */
+    private Integer registryId;
+
+    /**
+     * The id of the created container.
+     */
+    private String containerId;
+
+    /**
+     * The names of the volumes created in Portainer, as long as they exist.
+     */
+    @ElementCollection(fetch = FetchType.EAGER)
+    @CollectionTable(name = "app_deployment_volume")
+    @Column(name = "volume_name")
+    private Set<String> volumes = new HashSet<>();
+
+    /**
+     * The error message, if the deployment failed.
+     */
+    @Column(length = 2048)
+    private String message;
+
+    /**
+     * The date the deployment has been created.
+     */
+    @CreationTimestamp
+    @Column(name = "created_date", nullable = false, updatable = false)
+    private ZonedDateTime creationDate;
+
+    /**
+     * The date the deployment has been modified last.
+     */
+    @UpdateTimestamp
+    @Column(name = "modified_date", nullable = false)
+    private ZonedDateTime modificationDate;
+
+    /**
+     * Constructor for AppDeployment.
+     *
+     * @param deploymentId The id of the deployment.
+     * @param app          The id of the deployed app.
+     * @param steps        The total number of deployment steps.
+     */
+    public AppDeployment(final UUID deploymentId, final UUID app, final int steps) {
+        this.id = deploymentId;
+        this.appId = app;
+        this.totalSteps = steps;
+        this.status = DeploymentStatus.PENDING;
+    }
+
+    /**
+     * Check whether the deployment has finished, successfully or not.
+     *
+     * @return true if the deployment has finished.
+     */
+    public boolean isFinished() {
+        return status == DeploymentStatus.SUCCEEDED || status == DeploymentStatus.FAILED;
+    }
+}
@@ -74,8 +74,10 @@ public abstract class Artifact extends NamedEntity implements RemoteObject {
     private URI remoteAddress;
 
     /**
-     * The counter of how often the underlying data has been accessed.
+     * The counter of how often the underlying data has been accessed. It is only changed by
+     * atomic updates of the artifact repository, so saving an artifact never overwrites it.
      */
+    @Column(updatable = false)
     private long numAccessed;
 
     /**
@@ -105,14 +107,6 @@ public abstract class Artifact extends NamedEntity implements RemoteObject {
     @ManyToMany(mappedBy = "artifacts")
     private List<Agreement> agreements;
 
-    /**
-     * Increment the data access counter.
-     */
-    public void incrementAccessCounter() {
-        assert numAccessed >= 0;
-        numAccessed += 1;
-    }
-
     /**
      * List of subscriptions listening to updates for this artifact.
      */
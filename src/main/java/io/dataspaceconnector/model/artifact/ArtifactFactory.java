@@ -186,6 +186,24 @@ public final class ArtifactFactory extends AbstractNamedFactory<Artifact, Artifa
         return false;
     }
 
+    /**
+     * Update the byte size and checksum of an artifact from precomputed values. This will not
+     * update the actual data.
+     *
+     * @param artifact The artifact which byte and checksum needs to be updated.
+     * @param byteSize The size of the data.
+     * @param checkSum The CRC32C checksum of the data.
+     * @return true if the artifact has been modified.
+     */
+    public boolean updateByteSize(final Artifact artifact, final long byteSize,
+                                  final long checkSum) {
+        if (artifact.getCheckSum() != checkSum || artifact.getByteSize() != byteSize) {
+            setByteSizeAndCheckSum(artifact, byteSize, checkSum);
+            return true;
+        }
+        return false;
+    }
+
     private void setByteSizeAndCheckSum(
             final Artifact artifact,
             final long byteSize,
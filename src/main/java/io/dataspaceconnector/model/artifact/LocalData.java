@@ -22,6 +22,7 @@ import lombok.Setter;
 import org.hibernate.annotations.SQLDelete;
 import org.hibernate.annotations.Where;
 
+import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.Lob;
 
@@ -47,6 +48,12 @@ public class LocalData extends Data {
     @Lob
     private byte[] value;
 
+    /**
+     * The key of the data in an external blob store. If set, the value is not used.
+     */
+    @Column(name = "blob_key")
+    private String blobKey;
+
     /**
      * Get the data.
      *
@@ -55,4 +62,13 @@ public class LocalData extends Data {
     public byte[] getValue() {
         return value == null ? null : value.clone();
     }
+
+    /**
+     * Get the key of the data in an external blob store.
+     *
+     * @return The blob key, null if the data is stored in the database.
+     */
+    public String getBlobKey() {
+        return blobKey;
+    }
 }
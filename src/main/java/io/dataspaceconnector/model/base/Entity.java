@@ -15,6 +15,7 @@
  */
 package io.dataspaceconnector.model.base;
 
+import io.dataspaceconnector.model.config.SearchConstants;
 import io.dataspaceconnector.model.util.UriConverter;
 import lombok.AccessLevel;
 import lombok.Data;
@@ -22,6 +23,8 @@ import lombok.EqualsAndHashCode;
 import lombok.Setter;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
+import org.hibernate.search.engine.backend.types.Sortable;
+import org.hibernate.search.mapper.pojo.mapping.definition.annotation.GenericField;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
 
@@ -61,6 +64,7 @@ public class Entity implements Serializable {
     @Setter(AccessLevel.PACKAGE)
     @Column(name = "id", unique = true, nullable = false)
     @EqualsAndHashCode.Exclude
+    @GenericField(name = SearchConstants.ID_SORT, sortable = Sortable.YES)
     @SuppressWarnings("PMD.ShortVariable")
     private UUID id;
 
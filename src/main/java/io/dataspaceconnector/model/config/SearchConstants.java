@@ -0,0 +1,83 @@
+/*
+ * Copyright 2020-2022 Fraunhofer Institute for Software and Systems Engineering
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.dataspaceconnector.model.config;
+
+/**
+ * This class contains static constants for the full-text search index.
+ */
+public final class SearchConstants {
+
+    /**
+     * Analyzer for full-text fields: lower-cased, ascii-folded and stemmed words.
+     */
+    public static final String TEXT_ANALYZER = "text";
+
+    /**
+     * Analyzer for indexing prefixes of words, used for search-as-you-type.
+     */
+    public static final String PREFIX_ANALYZER = "prefix";
+
+    /**
+     * Analyzer for queries on prefix fields: lower-cased and ascii-folded words.
+     */
+    public static final String PREFIX_QUERY_ANALYZER = "prefix_query";
+
+    /**
+     * Normalizer for keyword fields used for sorting.
+     */
+    public static final String SORT_NORMALIZER = "sort";
+
+    /**
+     * The id as a sortable field, used as tie-breaker of sorted hits.
+     */
+    public static final String ID_SORT = "id_sort";
+
+    /**
+     * The analyzed title field.
+     */
+    public static final String TITLE = "title";
+
+    /**
+     * The prefixes of the words of the title.
+     */
+    public static final String TITLE_PREFIX = "title_prefix";
+
+    /**
+     * The title as a sortable keyword.
+     */
+    public static final String TITLE_SORT = "title_sort";
+
+    /**
+     * The analyzed description field.
+     */
+    public static final String DESCRIPTION = "description";
+
+    /**
+     * The analyzed keywords field.
+     */
+    public static final String KEYWORDS = "keywords";
+
+    /**
+     * The keywords as aggregable keywords, used for the category facet.
+     */
+    public static final String KEYWORDS_FACET = "keywords_facet";
+
+    /**
+     * Private constructor.
+     */
+    private SearchConstants() { }
+
+}
@@ -16,10 +16,14 @@
 package io.dataspaceconnector.model.named;
 
 import io.dataspaceconnector.model.base.Entity;
+import io.dataspaceconnector.model.config.SearchConstants;
 import lombok.AccessLevel;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.search.engine.backend.types.Sortable;
+import org.hibernate.search.mapper.pojo.mapping.definition.annotation.FullTextField;
+import org.hibernate.search.mapper.pojo.mapping.definition.annotation.KeywordField;
 
 import javax.persistence.Column;
 import javax.persistence.MappedSuperclass;
@@ -41,10 +45,17 @@ public class NamedEntity extends Entity {
     /**
      * The title of the entity.
      */
+    @FullTextField(name = SearchConstants.TITLE, analyzer = SearchConstants.TEXT_ANALYZER)
+    @FullTextField(name = SearchConstants.TITLE_PREFIX,
+            analyzer = SearchConstants.PREFIX_ANALYZER,
+            searchAnalyzer = SearchConstants.PREFIX_QUERY_ANALYZER)
+    @KeywordField(name = SearchConstants.TITLE_SORT,
+            normalizer = SearchConstants.SORT_NORMALIZER, sortable = Sortable.YES)
     private String title;
     /**
      * The description of the entity.
      */
     @Column(length = DESCRIPTION_COLUMN_LENGTH)
+    @FullTextField(name = SearchConstants.DESCRIPTION, analyzer = SearchConstants.TEXT_ANALYZER)
     private String description;
 }
@@ -18,6 +18,7 @@ package io.dataspaceconnector.model.resource;
 import io.dataspaceconnector.common.exception.NotImplemented;
 import io.dataspaceconnector.model.broker.Broker;
 import io.dataspaceconnector.model.catalog.Catalog;
+import io.dataspaceconnector.model.config.SearchConstants;
 import io.dataspaceconnector.model.contract.Contract;
 import io.dataspaceconnector.model.named.NamedEntity;
 import io.dataspaceconnector.model.representation.Representation;
@@ -30,7 +31,10 @@ import lombok.RequiredArgsConstructor;
 import lombok.Setter;
 import org.hibernate.annotations.SQLDelete;
 import org.hibernate.annotations.Where;
+import org.hibernate.search.engine.backend.types.Aggregable;
+import org.hibernate.search.mapper.pojo.mapping.definition.annotation.FullTextField;
 import org.hibernate.search.mapper.pojo.mapping.definition.annotation.Indexed;
+import org.hibernate.search.mapper.pojo.mapping.definition.annotation.KeywordField;
 import org.springframework.data.annotation.Version;
 
 import javax.persistence.Column;
@@ -71,6 +75,8 @@ public class Resource extends NamedEntity {
      * The keywords of the resource.
      */
     @ElementCollection
+    @FullTextField(name = SearchConstants.KEYWORDS, analyzer = SearchConstants.TEXT_ANALYZER)
+    @KeywordField(name = SearchConstants.KEYWORDS_FACET, aggregable = Aggregable.YES)
     private List<String> keywords;
 
     /**
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2020-2022 Fraunhofer Institute for Software and Systems Engineering
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.dataspaceconnector.repository;
+
+import io.dataspaceconnector.model.app.AppDeployment;
+import io.dataspaceconnector.model.app.DeploymentStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.ZonedDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * The repository containing all objects of type
+ * {@link io.dataspaceconnector.model.app.AppDeployment}.
+ */
+@Repository
+public interface AppDeploymentRepository extends JpaRepository<AppDeployment, UUID> {
+
+    /**
+     * Find the deployments in one of the given states.
+     *
+     * @param states The states.
+     * @return The deployments.
+     */
+    List<AppDeployment> findAllByStatusIn(Collection<DeploymentStatus> states);
+
+    /**
+     * Find a deployment of an app in one of the given states.
+     *
+     * @param appId  The id of the app.
+     * @param states The states.
+     * @return The deployment, if one exists.
+     */
+    Optional<AppDeployment> findFirstByAppIdAndStatusIn(UUID appId,
+                                                        Collection<DeploymentStatus> states);
+
+    /**
+     * Delete deployments in one of the given states, which have not been modified since the
+     * given date. The deployments are removed one by one, so their volumes are removed too.
+     *
+     * @param states    The states.
+     * @param threshold The modification date threshold.
+     */
+    @Transactional
+    void deleteByStatusInAndModificationDateBefore(Collection<DeploymentStatus> states,
+                                                   ZonedDateTime threshold);
+}
@@ -92,6 +92,64 @@ public interface ArtifactRepository extends RemoteEntityRepository<Artifact> {
             + "AND a.deleted = false")
     void setArtifactData(UUID artifactId, long checkSum, long size);
 
+    /**
+     * Get the access counter of an artifact.
+     *
+     * @param artifactId The artifact.
+     * @return The access counter, null if the artifact does not exist.
+     */
+    @Query("SELECT a.numAccessed "
+            + "FROM Artifact a "
+            + "WHERE a.id = :artifactId "
+            + "AND a.deleted = false")
+    Long getAccessCounter(UUID artifactId);
+
+    /**
+     * Increment the access counter of an artifact.
+     *
+     * @param artifactId The artifact.
+     * @return The number of updated artifacts.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE Artifact a "
+            + "SET a.numAccessed = a.numAccessed + 1 "
+            + "WHERE a.id = :artifactId "
+            + "AND a.deleted = false")
+    int incrementAccessCounter(UUID artifactId);
+
+    /**
+     * Increment the access counter of an artifact if it is below a limit. Checking and
+     * incrementing the counter is a single statement, so concurrent accesses cannot exceed the
+     * limit.
+     *
+     * @param artifactId The artifact.
+     * @param limit      The maximum number of accesses.
+     * @return The number of updated artifacts, 0 if the limit has been reached.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE Artifact a "
+            + "SET a.numAccessed = a.numAccessed + 1 "
+            + "WHERE a.id = :artifactId "
+            + "AND a.numAccessed < :limit "
+            + "AND a.deleted = false")
+    int incrementAccessCounter(UUID artifactId, long limit);
+
+    /**
+     * Decrement the access counter of an artifact, releasing an access that has not been served.
+     *
+     * @param artifactId The artifact.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE Artifact a "
+            + "SET a.numAccessed = a.numAccessed - 1 "
+            + "WHERE a.id = :artifactId "
+            + "AND a.numAccessed > 0 "
+            + "AND a.deleted = false")
+    void decrementAccessCounter(UUID artifactId);
+
     /**
      * Finds all artifacts with a specific bootstrap ID.
      *
@@ -36,10 +36,34 @@ public interface DataRepository extends JpaRepository<Data, Long> {
     @Transactional
     @Modifying
     @Query("UPDATE LocalData a "
-            + "SET a.value = :data "
+            + "SET a.value = :data, a.blobKey = NULL "
             + "WHERE a.id = :entityId")
     void setLocalData(Long entityId, byte[] data);
 
+    /**
+     * Reference data kept in an external blob store from an entity.
+     *
+     * @param entityId The entity id.
+     * @param blobKey  The key of the data in the blob store.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE LocalData a "
+            + "SET a.value = NULL, a.blobKey = :blobKey "
+            + "WHERE a.id = :entityId")
+    void setLocalDataBlobKey(Long entityId, String blobKey);
+
+    /**
+     * Count the local data entities other than the given one that reference a blob.
+     *
+     * @param blobKey  The key of the data in the blob store.
+     * @param entityId The entity id to exclude.
+     * @return The number of other references.
+     */
+    @Query("SELECT COUNT(a) FROM LocalData a "
+            + "WHERE a.blobKey = :blobKey AND a.id <> :entityId")
+    long countOtherBlobReferences(String blobKey, Long entityId);
+
     /**
      * Removes a RemoteData object from the database.
      *
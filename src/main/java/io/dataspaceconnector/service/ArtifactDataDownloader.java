@@ -30,6 +30,7 @@ import javax.persistence.PersistenceException;
 import java.io.IOException;
 import java.net.URI;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 /**
@@ -56,35 +57,49 @@ public class ArtifactDataDownloader {
     private final @NonNull EntityPersistenceService persistenceSvc;
 
     /**
-     * Download artifact data.
+     * Runs the downloads in parallel.
+     */
+    private final @NonNull DownloadExecutor downloadExecutor;
+
+    /**
+     * Download artifact data. The artifacts are requested in parallel and the data of every
+     * artifact is persisted as soon as it has been received. A failing artifact does not stop
+     * the download of the other ones.
      *
      * @param recipient   The provider connector.
      * @param artifacts   The artifact whose data should be downloaded.
      * @param agreementId The agreement allowing the transfer.
-     * @throws UnexpectedResponseException if the response type is not as expected.
-     * @throws MessageResponseException    if the response is invalid.
-     * @throws MessageException            if message handling failed.
+     * @return The errors of the artifacts that could not be downloaded or stored.
      */
-    public void download(final URI recipient, final List<URI> artifacts, final UUID agreementId)
-            throws UnexpectedResponseException, MessageResponseException, MessageException {
-        // Iterate over list of resource ids to send artifact request messages for each.
-        for (final var artifact : artifacts) {
+    public Map<URI, Exception> download(final URI recipient, final List<URI> artifacts,
+                                        final UUID agreementId) {
+        final var transferContract = agreementService.get(agreementId).getRemoteId();
+
+        final var errors = downloadExecutor.execute(recipient, artifacts, artifact -> {
             // Send and validate artifact request/response message.
             final var response = artifactReqSvc.sendMessage(recipient, artifact,
-                    agreementService.get(agreementId).getRemoteId());
+                    transferContract);
 
             // Read and process the response message.
             try {
                 persistenceSvc.saveData(response, artifact);
             } catch (IOException | ResourceNotFoundException | MessageResponseException
                     | IllegalArgumentException e) {
-                // Note: Ignore that the data saving failed. Another try can take place later.
+                // Note: Another try can take place later.
                 if (log.isWarnEnabled()) {
                     log.warn("Could not save data for artifact. [artifact=({}), "
                             + "exception=({})]", artifact, e.getMessage(), e);
                 }
+                throw e;
             }
+        });
+
+        if (!errors.isEmpty() && log.isWarnEnabled()) {
+            log.warn("Could not download all artifacts. [failed=({}), total=({})]",
+                    errors.size(), artifacts.size());
         }
+
+        return errors;
     }
 
     /**
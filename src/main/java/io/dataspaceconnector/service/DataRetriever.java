@@ -26,12 +26,12 @@ import io.dataspaceconnector.common.routing.dataretrieval.DataRetrievalService;
 import io.dataspaceconnector.model.artifact.ArtifactImpl;
 import io.dataspaceconnector.model.artifact.LocalData;
 import io.dataspaceconnector.model.artifact.RemoteData;
+import io.dataspaceconnector.service.storage.LocalDataStore;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
 import org.springframework.stereotype.Component;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
@@ -60,6 +60,11 @@ public class DataRetriever {
      */
     private final @NonNull ApiReferenceHelper apiReferenceHelper;
 
+    /**
+     * Stores the content of local data.
+     */
+    private final @NonNull LocalDataStore dataStore;
+
     /**
      * Retrieves the data for an artifact using the specified query input.
      *
@@ -105,17 +110,10 @@ public class DataRetriever {
      *
      * @param data The data container.
      * @return The stored data.
+     * @throws IOException if the data cannot be opened.
      */
-    private InputStream getData(final LocalData data) {
-        return toInputStream(data.getValue());
-    }
-
-    private InputStream toInputStream(final byte[] data) {
-        if (data == null) {
-            return ByteArrayInputStream.nullInputStream();
-        } else {
-            return new ByteArrayInputStream(data);
-        }
+    private InputStream getData(final LocalData data) throws IOException {
+        return dataStore.read(data);
     }
 
     /**
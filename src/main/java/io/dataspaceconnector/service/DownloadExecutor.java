@@ -0,0 +1,223 @@
+/*
+ * Copyright 2020-2022 Fraunhofer Institute for Software and Systems Engineering
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.dataspaceconnector.service;
+
+import io.dataspaceconnector.common.exception.ErrorMessage;
+import io.dataspaceconnector.common.exception.MessageException;
+import io.dataspaceconnector.common.exception.UnexpectedResponseException;
+import io.dataspaceconnector.config.DownloadConfig;
+import lombok.NonNull;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the downloads of several resources or artifacts in parallel. The number of downloads
+ * running against one provider at the same time is bounded. Every download persists its result
+ * itself, so results are stored as soon as they arrive.
+ */
+@Log4j2
+@Component
+public class DownloadExecutor {
+
+    /**
+     * Downloads and persists a single item.
+     */
+    @FunctionalInterface
+    public interface Download {
+        /**
+         * Download and persist an item.
+         *
+         * @param item The id of the item.
+         * @throws Exception if the item could not be downloaded or persisted.
+         */
+        void run(URI item) throws Exception;
+    }
+
+    /**
+     * The settings for downloads.
+     */
+    private final @NonNull DownloadConfig config;
+
+    /**
+     * Permits for running downloads, per provider. An entry is removed when no download of its
+     * provider is running anymore.
+     */
+    private final Map<String, ProviderPermits> providerPermits = new ConcurrentHashMap<>();
+
+    /**
+     * Executor running the downloads.
+     */
+    private final ExecutorService executor;
+
+    /**
+     * Constructor for DownloadExecutor.
+     *
+     * @param downloadConfig The settings for downloads.
+     */
+    public DownloadExecutor(final @NonNull DownloadConfig downloadConfig) {
+        this.config = downloadConfig;
+
+        final var threadCount = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(
+                Math.max(1, downloadConfig.getThreads()), runnable -> {
+                    final var thread = new Thread(runnable,
+                            "download-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * Download items from a provider and wait until all downloads have finished. Failing
+     * downloads do not stop the other ones.
+     *
+     * @param provider The provider connector.
+     * @param items    The ids of the items.
+     * @param download Downloads and persists a single item.
+     * @return The errors of the failed downloads by item, in the order of the items.
+     */
+    public Map<URI, Exception> execute(final URI provider, final List<URI> items,
+                                       final Download download) {
+        final var key = provider.getAuthority() != null
+                ? provider.getAuthority() : provider.toString();
+        final var permits = acquirePermits(key);
+        final var errors = new ConcurrentHashMap<URI, Exception>();
+        final var futures = new ArrayList<CompletableFuture<Void>>(items.size());
+
+        try {
+            for (final var item : items) {
+                // Acquired by the caller, so no download thread waits for a permit.
+                permits.acquire();
+                try {
+                    futures.add(CompletableFuture.runAsync(
+                            () -> run(item, download, errors, permits), executor));
+                } catch (RejectedExecutionException e) {
+                    permits.release();
+                    throw e;
+                }
+            }
+
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            for (var i = 0; i < items.size(); i++) {
+                if (i >= futures.size() || !futures.get(i).isDone()) {
+                    errors.putIfAbsent(items.get(i), e);
+                }
+            }
+        } finally {
+            releasePermits(key);
+        }
+
+        final var result = new LinkedHashMap<URI, Exception>();
+        for (final var item : items) {
+            final var error = errors.get(item);
+            if (error != null) {
+                result.put(item, error);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Stop running downloads on shutdown.
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Throw the error of a failed download.
+     *
+     * @param error The error.
+     * @throws UnexpectedResponseException if the response type was not as expected.
+     * @throws MessageException            if the download failed otherwise.
+     */
+    public static void rethrow(final Exception error) throws UnexpectedResponseException {
+        if (error instanceof UnexpectedResponseException e) {
+            throw e;
+        } else if (error instanceof RuntimeException e) {
+            // Includes message, message response and persistence exceptions.
+            throw e;
+        } else {
+            throw new MessageException(ErrorMessage.MESSAGE_HANDLING_FAILED, error);
+        }
+    }
+
+    private Semaphore acquirePermits(final String key) {
+        return providerPermits.compute(key, (x, current) -> {
+            final var result = current != null ? current
+                    : new ProviderPermits(Math.max(1, config.getProviderConcurrency()));
+            result.users++;
+            return result;
+        }).permits;
+    }
+
+    private void releasePermits(final String key) {
+        providerPermits.computeIfPresent(key, (x, current) -> --current.users == 0
+                ? null : current);
+    }
+
+    private static void run(final URI item, final Download download,
+                            final Map<URI, Exception> errors, final Semaphore permits) {
+        try {
+            download.run(item);
+        } catch (Exception e) {
+            if (log.isDebugEnabled()) {
+                log.debug("Download failed. [item=({}), exception=({})]", item,
+                        e.getMessage());
+            }
+            errors.put(item, e);
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * The permits of a provider and the number of executions using them. Only changed while
+     * computing the entry of the provider.
+     */
+    private static final class ProviderPermits {
+        /**
+         * Permits for running downloads.
+         */
+        private final Semaphore permits;
+
+        /**
+         * The number of running executions for the provider.
+         */
+        private int users;
+
+        private ProviderPermits(final int count) {
+            this.permits = new Semaphore(count);
+        }
+    }
+}
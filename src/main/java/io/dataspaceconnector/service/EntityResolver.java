@@ -269,16 +269,24 @@ public class EntityResolver {
      * @return The respective contract agreement.
      */
     public List<ContractAgreement> getContractAgreementsByTarget(final URI target) {
-        final var uuid = EndpointUtils.getUUIDFromPath(target);
-        final var artifact = artifactService.get(uuid);
-
-        final var agreements = artifact.getAgreements();
         final var agreementList = new ArrayList<ContractAgreement>();
-        for (final var agreement : agreements) {
+        for (final var agreement : getAgreementsByTarget(target)) {
             final var value = agreement.getValue();
             final var idsAgreement = deserializationService.getContractAgreement(value);
             agreementList.add(idsAgreement);
         }
         return agreementList;
     }
+
+    /**
+     * Get the stored agreements for requested element.
+     *
+     * @param target The requested element.
+     * @return The agreements of the element.
+     */
+    public List<Agreement> getAgreementsByTarget(final URI target) {
+        final var uuid = EndpointUtils.getUUIDFromPath(target);
+        final var artifact = artifactService.get(uuid);
+        return artifact.getAgreements();
+    }
 }
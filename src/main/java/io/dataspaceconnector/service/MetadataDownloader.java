@@ -27,7 +27,6 @@ import org.springframework.stereotype.Component;
 import javax.persistence.PersistenceException;
 import java.net.URI;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -48,7 +47,14 @@ public class MetadataDownloader {
     private final @NonNull EntityPersistenceService persistenceSvc;
 
     /**
-     * Download metadata from another connector.
+     * Runs the downloads in parallel.
+     */
+    private final @NonNull DownloadExecutor downloadExecutor;
+
+    /**
+     * Download metadata from another connector. The resources are requested in parallel and
+     * every resource is persisted as soon as it has been received. If a resource could not be
+     * downloaded, the error of the first such resource is thrown after all downloads finished.
      *
      * @param recipient The recipient connector.
      * @param resources The resources.
@@ -63,10 +69,13 @@ public class MetadataDownloader {
                          final List<URI> artifacts, final boolean download)
             throws UnexpectedResponseException, PersistenceException, MessageResponseException,
             MessageException {
-        Map<String, String> response;
-        for (final var resource : resources) {
-            response = descReqSvc.sendMessage(recipient, resource);
+        final var errors = downloadExecutor.execute(recipient, resources, resource -> {
+            final var response = descReqSvc.sendMessage(recipient, resource);
             persistenceSvc.saveMetadata(response, artifacts, download, recipient);
+        });
+
+        if (!errors.isEmpty()) {
+            DownloadExecutor.rethrow(errors.values().iterator().next());
         }
     }
 
@@ -0,0 +1,752 @@
+/*
+ * Copyright 2020-2022 Fraunhofer Institute for Software and Systems Engineering
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.dataspaceconnector.service.appstore.deployment;
+
+import io.dataspaceconnector.common.exception.PortainerNotConfigured;
+import io.dataspaceconnector.model.app.AppDeployment;
+import io.dataspaceconnector.model.app.AppImpl;
+import io.dataspaceconnector.model.app.DeploymentStatus;
+import io.dataspaceconnector.model.endpoint.AppEndpointImpl;
+import io.dataspaceconnector.repository.AppDeploymentRepository;
+import io.dataspaceconnector.service.appstore.portainer.PortainerConfig;
+import io.dataspaceconnector.service.appstore.portainer.PortainerService;
+import io.dataspaceconnector.service.resource.type.AppEndpointService;
+import io.dataspaceconnector.service.resource.type.AppService;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import okhttp3.Response;
+import org.apache.commons.io.IOUtils;
+import org.json.JSONObject;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.HttpURLConnection;
+import java.nio.charset.StandardCharsets;
+import java.time.ZonedDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Deploys apps via Portainer in the background. The deployment steps form a graph: the image
+ * pull, the volume creation and the network lookups run in parallel, the container is created
+ * as soon as image and volumes are available. The state of every deployment is persisted, so
+ * deployments interrupted by a restart are cleaned up and started again. The number of steps
+ * running against one Portainer endpoint at the same time is bounded. Portainer resolves pull
+ * credentials by registry url, so deployments from the same registry create, use and delete
+ * their Portainer registry one after another.
+ */
+@Log4j2
+@Service
+public class AppDeploymentService {
+
+    /**
+     * 443 is the default port for https.
+     */
+    private static final int DEFAULT_HTTPS_PORT = 443;
+
+    /**
+     * Number of hours finished deployments are kept for polling.
+     */
+    private static final long RETENTION_HOURS = 24;
+
+    /**
+     * The number of steps of a deployment.
+     */
+    private static final int TOTAL_STEPS = 11;
+
+    /**
+     * States of deployments that have not finished yet.
+     */
+    private static final Set<DeploymentStatus> ACTIVE_STATES
+            = Set.of(DeploymentStatus.PENDING, DeploymentStatus.RUNNING);
+
+    /**
+     * States of finished deployments.
+     */
+    private static final Set<DeploymentStatus> FINISHED_STATES
+            = Set.of(DeploymentStatus.SUCCEEDED, DeploymentStatus.FAILED);
+
+    /**
+     * Portainer request service.
+     */
+    private final @NonNull PortainerService portainerSvc;
+
+    /**
+     * Service for managing apps.
+     */
+    private final @NonNull AppService appSvc;
+
+    /**
+     * Service for managing AppEndpoints.
+     */
+    private final @NonNull AppEndpointService appEndpointSvc;
+
+    /**
+     * Repository for the deployment states.
+     */
+    private final @NonNull AppDeploymentRepository deploymentRepo;
+
+    /**
+     * The Portainer configuration.
+     */
+    private final @NonNull PortainerConfig portainerConfig;
+
+    /**
+     * The platform transaction manager.
+     */
+    private final @NonNull PlatformTransactionManager transactionManager;
+
+    /**
+     * Steps waiting for a permit, per Portainer endpoint.
+     */
+    private final Map<String, EndpointQueue> endpointQueues = new ConcurrentHashMap<>();
+
+    /**
+     * Grants the use of a registry url to one deployment at a time.
+     */
+    private final RegistryLeases registryLeases = new RegistryLeases();
+
+    /**
+     * Executor running the deployment steps.
+     */
+    private final ExecutorService executor;
+
+    /**
+     * The network of the connector to join apps in.
+     */
+    @Value("${portainer.application.connector.network:local}")
+    private String connectorNetwork;
+
+    /**
+     * Constructor for AppDeploymentService.
+     *
+     * @param portainerService     The portainer service.
+     * @param appService           The app service.
+     * @param appEndpointService   The app endpoint service.
+     * @param deploymentRepository The deployment repository.
+     * @param config               The portainer configuration.
+     * @param txManager            The platform transaction manager.
+     */
+    public AppDeploymentService(final @NonNull PortainerService portainerService,
+                                final @NonNull AppService appService,
+                                final @NonNull AppEndpointService appEndpointService,
+                                final @NonNull AppDeploymentRepository deploymentRepository,
+                                final @NonNull PortainerConfig config,
+                                final @NonNull PlatformTransactionManager txManager) {
+        this.portainerSvc = portainerService;
+        this.appSvc = appService;
+        this.appEndpointSvc = appEndpointService;
+        this.deploymentRepo = deploymentRepository;
+        this.portainerConfig = config;
+        this.transactionManager = txManager;
+
+        final var threadCount = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(
+                Math.max(1, config.getDeploymentThreads()), runnable -> {
+                    final var thread = new Thread(runnable,
+                            "app-deployment-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * Deploy and start the given app in the background. If the app is being deployed already,
+     * the running deployment is returned instead.
+     *
+     * @param app The app to deploy.
+     * @return The deployment.
+     * @throws IOException if the app template could not be read.
+     */
+    public synchronized AppDeployment submit(final AppImpl app) throws IOException {
+        deploymentRepo.deleteByStatusInAndModificationDateBefore(FINISHED_STATES,
+                ZonedDateTime.now().minusHours(RETENTION_HOURS));
+
+        final var running = deploymentRepo.findFirstByAppIdAndStatusIn(app.getId(),
+                ACTIVE_STATES);
+        if (running.isPresent()) {
+            return running.get();
+        }
+
+        // Template and endpoints are read here, lazy relations can not be loaded afterwards.
+        final var template = readTemplate(app);
+        final var endpoints = new ArrayList<>(app.getEndpoints());
+
+        final var deployment = deploymentRepo.save(
+                new AppDeployment(UUID.randomUUID(), app.getId(), TOTAL_STEPS));
+        start(deployment, template, endpoints, false);
+
+        if (log.isInfoEnabled()) {
+            log.info("Submitted app deployment. [appId=({}), deploymentId=({})]",
+                    app.getId(), deployment.getId());
+        }
+
+        return deployment;
+    }
+
+    /**
+     * Get a deployment of an app.
+     *
+     * @param appId        The id of the app.
+     * @param deploymentId The id of the deployment.
+     * @return The deployment, if it is known.
+     */
+    public Optional<AppDeployment> getDeployment(final UUID appId, final UUID deploymentId) {
+        return deploymentRepo.findById(deploymentId).filter(x -> x.getAppId().equals(appId));
+    }
+
+    /**
+     * Resume deployments that have been interrupted by a restart. Resources created by the
+     * interrupted run are removed before the deployment is started again.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeInterruptedDeployments() {
+        final var transaction = new TransactionTemplate(transactionManager);
+        for (final var deployment : deploymentRepo.findAllByStatusIn(ACTIVE_STATES)) {
+            try {
+                // Lazy relations of the app are loaded within the transaction.
+                final var source = Objects.requireNonNull(transaction.execute(
+                        x -> loadSource(deployment.getAppId())));
+                start(deployment, source.getTemplate(), source.getEndpoints(), true);
+
+                if (log.isInfoEnabled()) {
+                    log.info("Resuming interrupted app deployment. [appId=({}), "
+                            + "deploymentId=({})]", deployment.getAppId(), deployment.getId());
+                }
+            } catch (RuntimeException e) {
+                deployment.setStatus(DeploymentStatus.FAILED);
+                deployment.setMessage(e.getMessage());
+                deploymentRepo.save(deployment);
+
+                if (log.isWarnEnabled()) {
+                    log.warn("Failed to resume app deployment. [deploymentId=({}), "
+                            + "exception=({})]", deployment.getId(), e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Stop running deployments on shutdown. Their state is kept, so they are resumed on the
+     * next start.
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private String readTemplate(final AppImpl app) throws IOException {
+        return IOUtils.toString(appSvc.getDataFromInternalDB(app), StandardCharsets.UTF_8);
+    }
+
+    private DeploymentSource loadSource(final UUID appId) {
+        final var app = (AppImpl) appSvc.get(appId);
+        try {
+            return new DeploymentSource(readTemplate(app), new ArrayList<>(app.getEndpoints()));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void start(final AppDeployment deployment, final String template,
+                       final List<AppEndpointImpl> endpoints, final boolean resumed) {
+        CompletableFuture
+                .runAsync(() -> prepare(deployment, resumed), executor)
+                .thenCompose(x -> deploy(deployment, template, endpoints))
+                .whenComplete((containerId, error) -> finish(deployment, containerId, error));
+    }
+
+    private void prepare(final AppDeployment deployment, final boolean resumed) {
+        if (resumed) {
+            // Nothing is known about Portainer after a restart.
+            try {
+                portainerSvc.createEndpointId();
+            } catch (IOException | PortainerNotConfigured e) {
+                throw new CompletionException(e);
+            }
+            cleanUp(deployment);
+        }
+
+        update(deployment, x -> {
+            x.setStatus(DeploymentStatus.RUNNING);
+            x.setCompletedSteps(0);
+            x.setMessage(null);
+        });
+    }
+
+    private CompletableFuture<String> deploy(final AppDeployment deployment,
+                                             final String template,
+                                             final List<AppEndpointImpl> endpoints) {
+        final var appId = deployment.getAppId();
+
+        // The registry credentials are needed for pulling the image only.
+        final var registryUrl = new JSONObject(template).getString("registry");
+        final var registry = registryLeases.acquire(deployment.getId(), registryUrl)
+                .thenCompose(x -> step(deployment, "create registry", () -> {
+                    final var registryId = portainerSvc.createRegistry(template);
+                    update(deployment, y -> y.setRegistryId(registryId));
+                    return registryId;
+                }));
+        final var image = registry.thenCompose(registryId ->
+                step(deployment, "pull image", () -> {
+                    portainerSvc.pullImage(template).close();
+                    return registryId;
+                }));
+        final var registryDeleted = image.thenCompose(registryId ->
+                step(deployment, "delete registry", () -> {
+                    portainerSvc.deleteRegistry(registryId);
+                    update(deployment, x -> x.setRegistryId(null));
+                    registryLeases.release(deployment.getId());
+                    return registryId;
+                }));
+
+        final var volumes = step(deployment, "create volumes",
+                () -> portainerSvc.createVolumes(template, appId.toString(),
+                        name -> update(deployment, x -> x.getVolumes().add(name))));
+        final var bridgeNetwork = step(deployment, "resolve bridge network",
+                () -> portainerSvc.getNetworkId("bridge"));
+        final var connectorNetworkId = step(deployment, "resolve connector network",
+                () -> portainerSvc.getNetworkId(connectorNetwork));
+
+        final var container = image.thenCombine(volumes, (registryId, volumeMap) -> volumeMap)
+                .thenCompose(volumeMap -> step(deployment, "create container", () -> {
+                    final var containerId = portainerSvc.createContainer(template, volumeMap,
+                            endpoints);
+                    update(deployment, x -> x.setContainerId(containerId));
+                    return containerId;
+                }));
+
+        final var described = container.thenCompose(containerId ->
+                step(deployment, "describe container", () -> {
+                    try (var containerDesc = portainerSvc
+                            .getDescriptionByContainerId(containerId)) {
+                        persistContainerData(appId, endpoints, containerId, containerDesc);
+                    }
+                    return containerId;
+                }));
+        final var joinedBridge = container.thenCombine(bridgeNetwork, List::of)
+                .thenCompose(ids -> step(deployment, "join bridge network",
+                        () -> joinNetwork(ids.get(0), ids.get(1))));
+        final var joinedConnector = container.thenCombine(connectorNetworkId, List::of)
+                .thenCompose(ids -> step(deployment, "join connector network",
+                        () -> joinNetwork(ids.get(0), ids.get(1))));
+
+        return CompletableFuture
+                .allOf(registryDeleted, described, joinedBridge, joinedConnector)
+                .thenCompose(x -> step(deployment, "start container",
+                        () -> startContainer(container.join())));
+    }
+
+    private String joinNetwork(final String containerId, final String networkId)
+            throws IOException {
+        try (var response = portainerSvc.joinNetwork(containerId, networkId)) {
+            if (!response.isSuccessful()) {
+                throw new IOException("Failed to join network. [code=(" + response.code()
+                        + ")]");
+            }
+        }
+        return containerId;
+    }
+
+    private String startContainer(final String containerId) throws IOException {
+        try (var response = portainerSvc.startContainer(containerId)) {
+            // 304 is returned if the container is running already.
+            if (!response.isSuccessful()
+                    && response.code() != HttpURLConnection.HTTP_NOT_MODIFIED) {
+                throw new IOException("Failed to start container. [code=(" + response.code()
+                        + ")]");
+            }
+        }
+        return containerId;
+    }
+
+    private void finish(final AppDeployment deployment, final String containerId,
+                        final Throwable error) {
+        if (error == null) {
+            update(deployment, x -> {
+                x.setStatus(DeploymentStatus.SUCCEEDED);
+                x.setContainerId(containerId);
+                x.setStep(null);
+            });
+
+            if (log.isInfoEnabled()) {
+                log.info("Deployed app. [appId=({}), deploymentId=({}), containerId=({})]",
+                        deployment.getAppId(), deployment.getId(), containerId);
+            }
+            return;
+        }
+
+        final var cause = error instanceof CompletionException && error.getCause() != null
+                ? error.getCause() : error;
+        if (log.isWarnEnabled()) {
+            log.warn("Failed to deploy app. [appId=({}), deploymentId=({}), step=({}), "
+                    + "exception=({})]", deployment.getAppId(), deployment.getId(),
+                    deployment.getStep(), cause.getMessage());
+        }
+
+        cleanUp(deployment);
+        // Released after the clean-up, which may still delete the registry.
+        registryLeases.release(deployment.getId());
+        update(deployment, x -> {
+            x.setStatus(DeploymentStatus.FAILED);
+            x.setMessage(cause.getMessage());
+        });
+    }
+
+    /**
+     * Remove the resources created by a failed or interrupted deployment.
+     *
+     * @param deployment The deployment.
+     */
+    private void cleanUp(final AppDeployment deployment) {
+        if (deployment.getStep() == null) {
+            // No step has been started.
+            return;
+        }
+
+        try {
+            final var containerId = deployment.getContainerId();
+            if (containerId != null) {
+                portainerSvc.deleteContainer(containerId).close();
+                appSvc.deleteContainerIdFromApp(deployment.getAppId());
+            }
+
+            // Only the own volumes, others may belong to deployments running in parallel.
+            for (final var volume : Set.copyOf(deployment.getVolumes())) {
+                deleteVolume(deployment, volume);
+            }
+
+            final var registryId = deployment.getRegistryId();
+            if (registryId != null) {
+                portainerSvc.deleteRegistry(registryId);
+            }
+        } catch (IOException | RuntimeException e) {
+            if (log.isWarnEnabled()) {
+                log.warn("Failed to clean up app deployment. [deploymentId=({}), "
+                        + "exception=({})]", deployment.getId(), e.getMessage());
+            }
+        } finally {
+            update(deployment, x -> {
+                x.setRegistryId(null);
+                x.setContainerId(null);
+            });
+        }
+    }
+
+    private void deleteVolume(final AppDeployment deployment, final String volume)
+            throws IOException {
+        try (var response = portainerSvc.deleteVolume(volume)) {
+            // 404 is returned if the volume has been deleted already.
+            if (!response.isSuccessful()
+                    && response.code() != HttpURLConnection.HTTP_NOT_FOUND) {
+                if (log.isWarnEnabled()) {
+                    log.warn("Failed to delete volume. [deploymentId=({}), volume=({}), "
+                            + "code=({})]", deployment.getId(), volume, response.code());
+                }
+                return;
+            }
+        }
+        update(deployment, x -> x.getVolumes().remove(volume));
+    }
+
+    /**
+     * Run a deployment step as soon as a permit for the Portainer endpoint is available. Steps
+     * are chained from other steps, so waiting for a permit must not block a pool thread.
+     *
+     * @param deployment The deployment.
+     * @param name       The name of the step.
+     * @param action     The step.
+     * @param <T>        The result type of the step.
+     * @return The result of the step.
+     */
+    private <T> CompletableFuture<T> step(final AppDeployment deployment, final String name,
+                                          final DeploymentStep<T> action) {
+        final var result = new CompletableFuture<T>();
+        final var queue = endpointQueues.computeIfAbsent(getEndpointKey(),
+                x -> new EndpointQueue(new Semaphore(Math.max(1,
+                        portainerConfig.getDeploymentEndpointConcurrency()))));
+        queue.submit(() -> {
+            try {
+                update(deployment, x -> x.setStep(name));
+                final var value = action.run();
+                update(deployment, x -> x.setCompletedSteps(x.getCompletedSteps() + 1));
+                result.complete(value);
+            } catch (IOException | RuntimeException e) {
+                result.completeExceptionally(e);
+            }
+        }, executor);
+        return result;
+    }
+
+    private String getEndpointKey() {
+        return portainerConfig.getScheme() + "://" + portainerConfig.getHost() + ":"
+                + portainerConfig.getPort();
+    }
+
+    /**
+     * Change the deployment and persist the change. Steps running in parallel update the same
+     * deployment, so changes are serialized.
+     *
+     * @param deployment The deployment.
+     * @param change     The change.
+     */
+    private void update(final AppDeployment deployment, final Consumer<AppDeployment> change) {
+        synchronized (deployment) {
+            change.accept(deployment);
+            deploymentRepo.save(deployment);
+        }
+    }
+
+    /**
+     * Persists the portainer container data, e.g. Container-ID, Container-Name and
+     * Endpoint-AccessURLs.
+     *
+     * @param appId         The id of the app currently being deployed.
+     * @param endpoints     The endpoints of the app.
+     * @param containerId   The portainer container id.
+     * @param containerDesc The portainer container description.
+     * @throws IOException If connection to Portainer threw exception.
+     */
+    private void persistContainerData(final UUID appId, final List<AppEndpointImpl> endpoints,
+                                      final String containerId, final Response containerDesc)
+            throws IOException {
+        final var responseBody = containerDesc.body();
+        if (responseBody != null) {
+            final var name = new JSONObject(responseBody.string()).getString("Name");
+
+            // Note: Portainer places a leading "/" in front of container-name, needs to be removed
+            final var containerName = name.substring(name.indexOf("/") + 1);
+
+            // Persist container id and name.
+            appSvc.setContainerName(appId, containerName);
+            appSvc.setContainerIdForApp(appId, containerId);
+
+            // Generate endpoint accessURLs depending on deployment information.
+            for (final var endpoint : endpoints) {
+                final var port = endpoint.getEndpointPort();
+
+                // Uses IDS endpoint description info and not template (/api/apps/{id}/endpoints).
+                final var protocol = port == DEFAULT_HTTPS_PORT ? "https://" : "http://";
+
+                // Uses IDS endpoint description info and not template (/api/apps/{id}/endpoints).
+                final var suffix =
+                        endpoint.getPath() != null ? endpoint.getPath() : "";
+
+                final var location = protocol + containerName + ":" + port + suffix;
+                appEndpointSvc.setLocation(endpoint, location);
+            }
+        }
+    }
+
+    /**
+     * The inputs of a deployment, read from the app.
+     */
+    @Getter
+    @RequiredArgsConstructor
+    private static final class DeploymentSource {
+
+        /**
+         * The app template.
+         */
+        private final String template;
+
+        /**
+         * The endpoints of the app.
+         */
+        private final List<AppEndpointImpl> endpoints;
+    }
+
+    /**
+     * Steps waiting to run against one Portainer endpoint. A step is handed to the executor
+     * only once it holds a permit, so no pool thread waits for one.
+     */
+    @RequiredArgsConstructor
+    private static final class EndpointQueue {
+
+        /**
+         * Permits for running steps.
+         */
+        private final Semaphore permits;
+
+        /**
+         * Steps waiting for a permit.
+         */
+        private final Queue<Runnable> waiting = new ConcurrentLinkedQueue<>();
+
+        /**
+         * Run a step as soon as a permit is available.
+         *
+         * @param task     The step.
+         * @param executor The executor running the step.
+         */
+        void submit(final Runnable task, final Executor executor) {
+            waiting.add(task);
+            drain(executor);
+        }
+
+        private void drain(final Executor executor) {
+            // A step added after the check finds the permit released by the finished step.
+            while (!waiting.isEmpty() && permits.tryAcquire()) {
+                final var task = waiting.poll();
+                if (task == null) {
+                    permits.release();
+                    continue;
+                }
+
+                try {
+                    executor.execute(() -> {
+                        try {
+                            task.run();
+                        } finally {
+                            permits.release();
+                            drain(executor);
+                        }
+                    });
+                } catch (RejectedExecutionException e) {
+                    // The executor has been shut down.
+                    permits.release();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Leases of registry urls. A lease is granted to one deployment at a time, the others wait
+     * in order of their requests without blocking a thread.
+     */
+    private static final class RegistryLeases {
+
+        /**
+         * The deployments holding or waiting for a lease, by registry url. The head of a queue
+         * holds the lease.
+         */
+        private final Map<String, Deque<Lease>> queues = new HashMap<>();
+
+        /**
+         * Request the lease of a registry url.
+         *
+         * @param deploymentId The deployment.
+         * @param url          The registry url.
+         * @return Completes once the lease has been granted.
+         */
+        private CompletableFuture<Void> acquire(final UUID deploymentId, final String url) {
+            final var lease = new Lease(deploymentId, new CompletableFuture<>());
+            synchronized (this) {
+                final var queue = queues.computeIfAbsent(url, x -> new ArrayDeque<>());
+                queue.addLast(lease);
+                if (queue.size() > 1) {
+                    return lease.getGranted();
+                }
+            }
+            lease.getGranted().complete(null);
+            return lease.getGranted();
+        }
+
+        /**
+         * Release the lease of a deployment, if it holds one, and grant it to the next one.
+         *
+         * @param deploymentId The deployment.
+         */
+        private void release(final UUID deploymentId) {
+            Lease next = null;
+            synchronized (this) {
+                final var iterator = queues.values().iterator();
+                while (iterator.hasNext()) {
+                    final var queue = iterator.next();
+                    final var head = queue.peekFirst();
+                    if (head != null && head.getDeploymentId().equals(deploymentId)) {
+                        queue.pollFirst();
+                        next = queue.peekFirst();
+                        if (next == null) {
+                            iterator.remove();
+                        }
+                        break;
+                    }
+                }
+            }
+
+            // Completed outside the lock, the next deployment continues in this thread.
+            if (next != null) {
+                next.getGranted().complete(null);
+            }
+        }
+    }
+
+    /**
+     * A deployment holding or waiting for the lease of a registry url.
+     */
+    @Getter
+    @RequiredArgsConstructor
+    private static final class Lease {
+
+        /**
+         * The deployment.
+         */
+        private final UUID deploymentId;
+
+        /**
+         * Completes once the lease has been granted.
+         */
+        private final CompletableFuture<Void> granted;
+    }
+
+    /**
+     * A deployment step calling Portainer.
+     *
+     * @param <T> The result type of the step.
+     */
+    @FunctionalInterface
+    private interface DeploymentStep<T> {
+
+        /**
+         * Run the step.
+         *
+         * @return The result of the step.
+         * @throws IOException if the step failed.
+         */
+        T run() throws IOException;
+    }
+}
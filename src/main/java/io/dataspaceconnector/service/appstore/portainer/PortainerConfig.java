@@ -19,6 +19,8 @@ import lombok.Data;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
 
+import java.time.Duration;
+
 /**
  * Configuration class for Portainer.
  */
@@ -56,5 +58,22 @@ public class PortainerConfig {
     @Value("${portainer.application.password}")
     private String password;
 
+    /**
+     * The number of threads running deployment steps.
+     */
+    @Value("${portainer.application.deployment.threads:8}")
+    private int deploymentThreads;
+
+    /**
+     * The maximum number of deployment steps running against one Portainer endpoint at once.
+     */
+    @Value("${portainer.application.deployment.endpoint-concurrency:4}")
+    private int deploymentEndpointConcurrency;
+
+    /**
+     * The time network and registry lookups are reused.
+     */
+    @Value("${portainer.application.lookup-cache-ttl:PT30S}")
+    private Duration lookupCacheTtl;
 
 }
@@ -20,6 +20,7 @@ import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import io.dataspaceconnector.common.exception.PortainerNotConfigured;
 import io.dataspaceconnector.model.endpoint.AppEndpointImpl;
 import io.dataspaceconnector.service.resource.type.AppEndpointService;
+import lombok.Getter;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
@@ -29,19 +30,26 @@ import okhttp3.Request;
 import okhttp3.RequestBody;
 import okhttp3.Response;
 import org.json.JSONArray;
+import org.json.JSONException;
 import org.json.JSONObject;
 import org.springframework.stereotype.Service;
+import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.Reader;
+import java.net.HttpURLConnection;
 import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.Base64;
-import java.util.Calendar;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
 
 /**
  * Service class for app store registries. It allows communicating with Portainer's API to manage
@@ -66,16 +74,6 @@ public class PortainerService {
      */
     private final @NonNull AppEndpointService appEndpointService;
 
-    /**
-     * Start index for sub string method.
-     */
-    private static final int START_INDEX = 8;
-
-    /**
-     * Last index for sub string method.
-     */
-    private static final int LAST_INDEX = 3;
-
     /**
      * Registry Type for requests.
      */
@@ -97,20 +95,40 @@ public class PortainerService {
      */
     private static final int TOKEN_VALID_HOURS = 7;
 
+    /**
+     * Number of hours after which a Portainer access token expires.
+     */
+    private static final int TOKEN_EXPIRY_HOURS = 8;
+
     /**
      * The endpoint id in portainer.
      */
-    private String endpointId;
+    private volatile String endpointId;
 
     /**
      * The portainer access token for sending admin-requests (valid 8 hours).
      */
-    private String accessToken;
+    private volatile AccessToken accessToken;
+
+    /**
+     * Lock ensuring that only one caller requests a new access token at a time.
+     */
+    private final ReentrantLock tokenLock = new ReentrantLock();
+
+    /**
+     * Lock ensuring that the endpoint id is requested only once.
+     */
+    private final Object endpointLock = new Object();
 
     /**
-     * Expiration date of the access token.
+     * Recently resolved network ids by network name.
      */
-    private final Calendar accessTokenValid = Calendar.getInstance();
+    private final Map<String, CachedValue<String>> networkIds = new ConcurrentHashMap<>();
+
+    /**
+     * Recently resolved registry ids by registry url. Missing registries are cached as well.
+     */
+    private final Map<String, CachedValue<Integer>> registryIds = new ConcurrentHashMap<>();
 
     /**
      * Authenticate at portainer.
@@ -118,22 +136,7 @@ public class PortainerService {
      * @return If successful, a jwt token is returned for authentication.
      */
     public String authenticate() {
-        final var builder = getRequestBuilder();
-        final var urlBuilder = new HttpUrl.Builder()
-                .scheme(portainerConfig.getScheme())
-                .host(portainerConfig.getHost())
-                .port(portainerConfig.getPort())
-                .addPathSegment("api/auth");
-
-        final var url = urlBuilder.build();
-        builder.url(url);
-        final var requestBody = createRequestBodyForAuthentication(
-                portainerConfig.getUsername(),
-                portainerConfig.getPassword());
-        builder.post(RequestBody.create(requestBody,
-                MediaType.parse(API_MEDIA_TYPE)));
-
-        final var request = builder.build();
+        final var request = buildAuthenticationRequest();
         try {
             final var response = httpService.send(request);
             return checkResponseNotNull(response);
@@ -168,7 +171,7 @@ public class PortainerService {
         builder.post(RequestBody.create(new byte[0], null));
 
         final var request = builder.build();
-        return httpService.send(request);
+        return send(request);
     }
 
     /**
@@ -194,7 +197,7 @@ public class PortainerService {
         builder.post(RequestBody.create(new byte[0], null));
 
         final var request = builder.build();
-        return httpService.send(request);
+        return send(request);
     }
 
     /**
@@ -220,7 +223,7 @@ public class PortainerService {
         builder.delete();
 
         final var request = builder.build();
-        return httpService.send(request);
+        return send(request);
     }
 
     /**
@@ -246,7 +249,7 @@ public class PortainerService {
         builder.get();
 
         final var request = builder.build();
-        final var response = httpService.send(request);
+        final var response = send(request);
         final var containers = new JSONArray(checkResponseNotNull(response));
 
         for (final var container : containers) {
@@ -277,7 +280,7 @@ public class PortainerService {
         builder.post(RequestBody.create(new byte[0], null));
 
         final var request = builder.build();
-        httpService.send(request);
+        send(request);
     }
 
     /**
@@ -303,16 +306,28 @@ public class PortainerService {
         builder.get();
 
         final var request = builder.build();
-        return httpService.send(request);
+        return send(request);
     }
 
     /**
-     * Get endpoint id.
+     * Get endpoint id. The id is requested once and reused afterwards.
      *
      * @throws IOException            if an error occurs while requesting the id of the endpoint.
      * @throws PortainerNotConfigured if portainer is not configured.
      */
     public void createEndpointId() throws PortainerNotConfigured, IOException {
+        if (endpointId != null) {
+            return;
+        }
+
+        synchronized (endpointLock) {
+            if (endpointId == null) {
+                requestEndpointId();
+            }
+        }
+    }
+
+    private void requestEndpointId() throws PortainerNotConfigured, IOException {
         final var builder = getRequestBuilder();
         final var urlBuilder = new HttpUrl.Builder()
                 .scheme(portainerConfig.getScheme())
@@ -327,27 +342,38 @@ public class PortainerService {
         builder.get();
 
         final var request = builder.build();
-        final var response = httpService.send(request);
+        final var response = send(request);
         final var jsonArray = new JSONArray(checkResponseNotNull(response));
 
+        String id = null;
         for (var tmpObj : jsonArray) {
             if (((JSONObject) tmpObj).getNumber("Type").equals(1)) {
-                endpointId = ((JSONObject) tmpObj).get("Id").toString();
+                id = ((JSONObject) tmpObj).get("Id").toString();
             }
         }
-        if (endpointId == null) {
+        if (id == null) {
             throw new PortainerNotConfigured();
         }
+        endpointId = id;
     }
 
     /**
-     * Gets the Portainer network ID of by its name.
+     * Gets the Portainer network ID of by its name. Resolved ids are reused for a short time.
      *
      * @param networkName The name of the portainer network.
      * @return ID of the network in Portainer.
      * @throws IOException Exception while connecting to Portainer.
      */
     public String getNetworkId(final String networkName) throws IOException {
+        final var cached = lookup(networkIds, networkName);
+        if (cached != null) {
+            return cached.getValue();
+        }
+
+        return remember(networkIds, networkName, requestNetworkId(networkName));
+    }
+
+    private String requestNetworkId(final String networkName) throws IOException {
         final var builder = getRequestBuilder();
 
         final var urlBuilder = new HttpUrl.Builder()
@@ -361,7 +387,7 @@ public class PortainerService {
         builder.get();
 
         final var request = builder.build();
-        final var response = httpService.send(request);
+        final var response = send(request);
         final var networks = new JSONArray(checkResponseNotNull(response));
 
         for (final var network : networks) {
@@ -375,7 +401,9 @@ public class PortainerService {
     }
 
     /**
-     * Create registry via portainer request.
+     * Create registry via portainer request. Registries with the same url are not deleted, they
+     * may be in use by another deployment. Callers have to make sure that only one registry per
+     * url exists while an image is pulled.
      *
      * @param appStoreTemplate The template provided by the AppStore describing 1 App.
      * @return The Id of the created registry.
@@ -385,14 +413,6 @@ public class PortainerService {
         final var templateObject = toJsonObject(appStoreTemplate);
         final var registryURL = templateObject.getString("registry");
 
-        // Check if registry existing (should not be the case but safety check)
-        final var registryId = registryExists(registryURL);
-
-        if (registryId != null) {
-            // Registry-Credentials from AppStore Template are one time usage only, cant be reused
-            deleteRegistry(registryId);
-        }
-
         // Needed registry info from AppStore template for request body:
         // Authentication true/false, Name, Password, Type, URL, Username
         final var requestBody = new JSONObject();
@@ -423,11 +443,11 @@ public class PortainerService {
                 MediaType.parse(API_MEDIA_TYPE)));
 
         final var request = builder.build();
-        final var response = httpService.send(request);
+        final var response = send(request);
         final var createdRegistryId = new JSONObject(checkResponseNotNull(response))
                 .get("Id").toString();
 
-        return Integer.parseInt(createdRegistryId);
+        return remember(registryIds, registryURL, Integer.parseInt(createdRegistryId));
     }
 
     /**
@@ -449,17 +469,36 @@ public class PortainerService {
         builder.url(url);
         builder.delete(RequestBody.create(new byte[0], null));
         final var request = builder.build();
-        httpService.send(request);
+
+        // Evicted up front, so the id is not handed out while it is being deleted.
+        registryIds.values().removeIf(x -> registryId.equals(x.getValue()));
+        try (var response = send(request)) {
+            if (log.isDebugEnabled()) {
+                log.debug("Deleted registry. [registryId=({}), code=({})]", registryId,
+                        response.code());
+            }
+        } finally {
+            registryIds.values().removeIf(x -> registryId.equals(x.getValue()));
+        }
     }
 
     /**
-     * Return id if registry exists.
+     * Return id if registry exists. Results are reused for a short time.
      *
      * @param registryURL The new registry url.
      * @return ID of registry if existing.
      * @throws IOException If an error occurs while connection to portainer.
      */
     public Integer registryExists(final String registryURL) throws IOException {
+        final var cached = lookup(registryIds, registryURL);
+        if (cached != null) {
+            return cached.getValue();
+        }
+
+        return remember(registryIds, registryURL, requestRegistryId(registryURL));
+    }
+
+    private Integer requestRegistryId(final String registryURL) throws IOException {
         final var response = getRegistries();
         final var registries = new JSONArray(
                 checkResponseNotNull(response));
@@ -505,7 +544,7 @@ public class PortainerService {
                 MediaType.parse(API_MEDIA_TYPE))
         );
         final var request = builder.build();
-        return httpService.send(request);
+        return send(request);
     }
 
     /**
@@ -528,7 +567,7 @@ public class PortainerService {
         builder.get();
 
         final var request = builder.build();
-        return httpService.send(request);
+        return send(request);
     }
 
     /**
@@ -552,7 +591,7 @@ public class PortainerService {
         builder.delete();
 
         final var request = builder.build();
-        return httpService.send(request);
+        return send(request);
     }
 
     /**
@@ -576,7 +615,8 @@ public class PortainerService {
         builder.delete();
 
         final var request = builder.build();
-        return httpService.send(request);
+        networkIds.values().removeIf(x -> networkId.equals(x.getValue()));
+        return send(request);
     }
 
     /**
@@ -600,15 +640,17 @@ public class PortainerService {
         builder.delete();
 
         final var request = builder.build();
-        return httpService.send(request);
+        return send(request);
     }
 
     /**
-     * Pull image from registry.
+     * Pull image from registry. Portainer streams the progress of the pull as a sequence of
+     * json objects and closes the stream when the pull has finished, so the response is
+     * consumed until its end instead of polling the image list.
      *
      * @param appStoreTemplate The template provided by the AppStore decribing 1 App.
-     * @return Response of portainer.
-     * @throws IOException If an error occurs while connection to portainer.
+     * @return Response of portainer. Its body has been consumed already.
+     * @throws IOException If an error occurs while connection to portainer or the pull failed.
      */
     public Response pullImage(final String appStoreTemplate) throws IOException {
         final var templateObject = toJsonObject(appStoreTemplate);
@@ -654,61 +696,91 @@ public class PortainerService {
                                 .toString(), MediaType.parse(API_MEDIA_TYPE)));
 
         final var request = builder.build();
-        final var response = httpService.send(request);
+        final var response = send(request);
 
-        final var tag = imagePostBody + imageTag;
-        waitForImagePull(tag);
+        final var reference = registryUrl + "/" + image;
+        awaitImagePull(response, reference);
 
         return response;
     }
 
     /**
-     * Wait until the image with given tag was downloaded.
+     * Consume the pull progress stream until Portainer closes it and validate that the image
+     * is available afterwards.
      *
-     * @param tag portainer image tag.
-     * @throws IOException If an error occurs while connecting to portainer.
+     * @param response  The response of the pull request.
+     * @param reference The full image reference, including registry and tag.
+     * @throws IOException If the pull failed or the image is not available after the pull.
      */
-    @SuppressFBWarnings("DE_MIGHT_IGNORE")
-    private void waitForImagePull(final String tag) throws IOException {
-        //Check if image is successfully pulled in Portainer,
-        //otherwise wait until process is finished.
-        final var maxWaitTimeSec = 60;
-        var waitedTimeSec = 0;
-        while (true) {
-            if (log.isDebugEnabled()) {
-                log.debug("Validating image fully pulled (check {}/max {})",
-                        waitedTimeSec + 1,
-                        maxWaitTimeSec);
+    private void awaitImagePull(final Response response, final String reference)
+            throws IOException {
+        try (response) {
+            if (!response.isSuccessful()) {
+                throw new IOException("Failed to pull image. [code=(" + response.code() + ")]");
             }
-            if (checkIfImageExists(tag) || waitedTimeSec == maxWaitTimeSec) {
-                break;
-            } else {
-                try {
-                    waitedTimeSec++;
-                    TimeUnit.SECONDS.sleep(1);
-                } catch (Exception e) {
-                    break;
+
+            final var body = response.body();
+            if (body != null) {
+                readPullProgress(body.charStream(), reference);
+            }
+        }
+
+        if (!imageExists(reference)) {
+            throw new IOException("Image not available after pull. [image=(" + reference + ")]");
+        }
+    }
+
+    /**
+     * Read the pull progress messages. Every line holds one json object, a failed pull is
+     * reported by an error entry instead of a http status code.
+     *
+     * @param progress  The progress stream.
+     * @param reference The full image reference, including registry and tag.
+     * @throws IOException If the stream could not be read or reports an error.
+     */
+    private void readPullProgress(final Reader progress, final String reference)
+            throws IOException {
+        try (var reader = new BufferedReader(progress)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+
+                final var event = new JSONObject(line);
+                if (event.has("error")) {
+                    throw new IOException("Failed to pull image. [image=(" + reference
+                            + "), error=(" + event.optString("error") + ")]");
+                }
+
+                if (log.isDebugEnabled()) {
+                    log.debug("Pulling image. [image=({}), status=({}), progress=({})]",
+                            reference, event.optString("status"),
+                            event.optString("progress"));
                 }
             }
+        } catch (JSONException e) {
+            throw new IOException("Invalid pull progress message.", e);
         }
     }
 
     /**
-     * Check if image with tag already exists in portainer.
+     * Check if the image with the given reference exists in portainer. Only the single image
+     * is inspected, the list of all images is not requested.
      *
-     * @param tag portainer image tag.
+     * @param reference The image reference, e.g. registry/name:tag.
      * @return true if image exists in portainer.
      * @throws IOException If an error occurs while connecting to portainer.
      */
-    private boolean checkIfImageExists(final String tag) throws IOException {
+    public boolean imageExists(final String reference) throws IOException {
         final var builder = getRequestBuilder();
 
         final var urlBuilder = new HttpUrl.Builder()
                 .scheme(portainerConfig.getScheme())
                 .host(portainerConfig.getHost())
                 .port(portainerConfig.getPort())
-                .addPathSegments(API_ENDPOINT + endpointId + "/docker/images/json")
-                .addQueryParameter("all", "1");
+                .addPathSegments(API_ENDPOINT + endpointId + "/docker/images/" + reference
+                        + "/json");
 
         final var url = urlBuilder.build();
 
@@ -717,9 +789,9 @@ public class PortainerService {
         builder.get();
 
         final var request = builder.build();
-        final var response = httpService.send(request);
-        final var responseString = checkResponseNotNull(response);
-        return responseString.contains(tag);
+        try (var response = send(request)) {
+            return response.isSuccessful();
+        }
     }
 
     /**
@@ -727,10 +799,12 @@ public class PortainerService {
      *
      * @param appStoreTemplate The template provided by the AppStore describing 1 App.
      * @param appID            UUID of the app volume is created for
+     * @param onCreated        Receives the name of every volume as soon as it is created.
      * @return Map of portainer responses for every volume to create.
      * @throws IOException If an error occurs while connecting to portainer.
      */
-    public Map<String, String> createVolumes(final String appStoreTemplate, final String appID)
+    public Map<String, String> createVolumes(final String appStoreTemplate, final String appID,
+                                             final Consumer<String> onCreated)
             throws IOException {
         final Map<String, String> volumeNames = new HashMap<>();
         final var templateObject = toJsonObject(appStoreTemplate);
@@ -774,10 +848,11 @@ public class PortainerService {
                     ));
 
             final var request = builder.build();
-            final var response = httpService.send(request);
-            volumeNames.put(templateName, new JSONObject(checkResponseNotNull(response))
-                    .getString("Name")
-            );
+            final var response = send(request);
+            final var volumeName = new JSONObject(checkResponseNotNull(response))
+                    .getString("Name");
+            onCreated.accept(volumeName);
+            volumeNames.put(templateName, volumeName);
         }
         return volumeNames;
     }
@@ -855,7 +930,7 @@ public class PortainerService {
 
         final var request = builder.build();
 
-        final var createContainerResponse = httpService.send(request);
+        final var createContainerResponse = send(request);
 
         final var body = checkResponseNotNull(createContainerResponse);
         final var portainerObj = new JSONObject(body).getJSONObject("Portainer");
@@ -893,7 +968,7 @@ public class PortainerService {
                 MediaType.parse(API_MEDIA_TYPE)));
 
         final var request = builder.build();
-        httpService.send(request);
+        send(request);
     }
 
     /**
@@ -928,7 +1003,7 @@ public class PortainerService {
         );
 
         final var request = builder.build();
-        var response = httpService.send(request);
+        var response = send(request);
         var jsonResp = new JSONObject(checkResponseNotNull(response));
         return jsonResp.getString("Id");
     }
@@ -967,7 +1042,7 @@ public class PortainerService {
         );
 
         final var request = builder.build();
-        return httpService.send(request);
+        return send(request);
     }
 
     /**
@@ -1011,11 +1086,15 @@ public class PortainerService {
     }
 
     /**
-     * Resets the Portainer access token.
+     * Resets the Portainer access token. A new token is requested with the next request.
      */
     public void resetToken() {
-        accessToken = null;
-        getJwtToken();
+        tokenLock.lock();
+        try {
+            accessToken = null;
+        } finally {
+            tokenLock.unlock();
+        }
     }
 
     /**
@@ -1038,7 +1117,7 @@ public class PortainerService {
         builder.url(url);
         builder.get();
         final var request = builder.build();
-        return httpService.send(request);
+        return send(request);
     }
 
     /**
@@ -1051,21 +1130,169 @@ public class PortainerService {
     }
 
     /**
-     * Get the JWT auth token for portainer requests.
+     * Get the JWT auth token for portainer requests. The token is requested once and shared by
+     * all callers. It is renewed one hour before it expires: while the current token is still
+     * valid, only one caller renews it and the others keep using the current token.
      *
      * @return auth jwt token for portainer.
+     * @throws IOException if no valid token is available and a new one could not be requested.
      */
-    private String getJwtToken() {
-        if (accessToken == null || accessTokenValid.before(Calendar.getInstance().getTime())) {
-            final var response = authenticate();
-            accessToken = response.substring(START_INDEX, response.length() - LAST_INDEX);
+    private String getJwtToken() throws IOException {
+        final var current = accessToken;
+        final var now = Instant.now();
+        if (current != null && now.isBefore(current.getRefreshAt())) {
+            return current.getValue();
+        }
+
+        if (current != null && now.isBefore(current.getExpiresAt())) {
+            if (tokenLock.tryLock()) {
+                try {
+                    if (accessToken == current) {
+                        accessToken = requestToken();
+                    }
+                } catch (IOException e) {
+                    if (log.isWarnEnabled()) {
+                        log.warn("Failed to renew portainer token. [exception=({})]",
+                                e.getMessage());
+                    }
+                } finally {
+                    tokenLock.unlock();
+                }
+            }
+            final var token = accessToken;
+            return token != null ? token.getValue() : current.getValue();
+        }
+
+        tokenLock.lock();
+        try {
+            // Another caller may have requested a token while waiting for the lock.
+            var token = accessToken;
+            if (token == null || token == current) {
+                token = requestToken();
+                accessToken = token;
+            }
+            return token.getValue();
+        } finally {
+            tokenLock.unlock();
+        }
+    }
+
+    /**
+     * Request a new access token from portainer.
+     *
+     * @return The access token.
+     * @throws IOException if the authentication failed.
+     */
+    private AccessToken requestToken() throws IOException {
+        final var request = buildAuthenticationRequest();
+        try (var response = httpService.send(request)) {
+            if (!response.isSuccessful()) {
+                throw new IOException("Failed to authenticate at portainer. [code=("
+                        + response.code() + ")]");
+            }
+
+            final var jwt = new JSONObject(checkResponseNotNull(response)).getString("jwt");
+            final var now = Instant.now();
 
             // Portainer token has an 8 hour validity, request new token after 7 hours.
-            accessTokenValid.setTime(Calendar.getInstance().getTime());
-            accessTokenValid.add(Calendar.HOUR_OF_DAY, TOKEN_VALID_HOURS);
+            return new AccessToken(jwt, now.plus(TOKEN_VALID_HOURS, ChronoUnit.HOURS),
+                    now.plus(TOKEN_EXPIRY_HOURS, ChronoUnit.HOURS));
+        } catch (JSONException e) {
+            throw new IOException("Invalid authentication response.", e);
+        }
+    }
+
+    /**
+     * Build the authentication request.
+     *
+     * @return The request.
+     */
+    private Request buildAuthenticationRequest() {
+        final var builder = getRequestBuilder();
+        final var urlBuilder = new HttpUrl.Builder()
+                .scheme(portainerConfig.getScheme())
+                .host(portainerConfig.getHost())
+                .port(portainerConfig.getPort())
+                .addPathSegment("api/auth");
+
+        final var url = urlBuilder.build();
+        builder.url(url);
+        final var requestBody = createRequestBodyForAuthentication(
+                portainerConfig.getUsername(),
+                portainerConfig.getPassword());
+        builder.post(RequestBody.create(requestBody,
+                MediaType.parse(API_MEDIA_TYPE)));
+
+        return builder.build();
+    }
+
+    /**
+     * Send a request to portainer. If portainer rejects the access token, the token is
+     * discarded and the request is sent once more with a new token.
+     *
+     * @param request The request.
+     * @return The response.
+     * @throws IOException if the request could not be sent.
+     */
+    private Response send(final Request request) throws IOException {
+        final var response = httpService.send(request);
+        final var authorization = request.header("Authorization");
+        if (response.code() != HttpURLConnection.HTTP_UNAUTHORIZED || authorization == null) {
+            return response;
+        }
+
+        response.close();
+        tokenLock.lock();
+        try {
+            final var current = accessToken;
+            if (current != null && authorization.equals("Bearer " + current.getValue())) {
+                accessToken = null;
+            }
+        } finally {
+            tokenLock.unlock();
         }
 
-        return accessToken;
+        if (log.isDebugEnabled()) {
+            log.debug("Portainer rejected the access token, retrying with a new token.");
+        }
+
+        return httpService.send(request.newBuilder()
+                .header("Authorization", "Bearer " + getJwtToken())
+                .build());
+    }
+
+    /**
+     * Get a cached value, if it has not expired yet.
+     *
+     * @param cache The cache.
+     * @param key   The key.
+     * @param <T>   The type of the value.
+     * @return The cached value or null.
+     */
+    private static <T> CachedValue<T> lookup(final Map<String, CachedValue<T>> cache,
+                                             final String key) {
+        final var cached = cache.get(key);
+        if (cached == null || Instant.now().isAfter(cached.getExpiresAt())) {
+            return null;
+        }
+
+        return cached;
+    }
+
+    /**
+     * Cache a value for the configured time.
+     *
+     * @param cache The cache.
+     * @param key   The key.
+     * @param value The value, may be null.
+     * @param <T>   The type of the value.
+     * @return The value.
+     */
+    private <T> T remember(final Map<String, CachedValue<T>> cache, final String key,
+                           final T value) {
+        cache.put(key, new CachedValue<>(value,
+                Instant.now().plus(portainerConfig.getLookupCacheTtl())));
+        return value;
     }
 
     /**
@@ -1108,4 +1335,46 @@ public class PortainerService {
         return Objects.requireNonNull(body.string());
     }
 
+    /**
+     * A portainer access token.
+     */
+    @Getter
+    @RequiredArgsConstructor
+    private static final class AccessToken {
+
+        /**
+         * The jwt.
+         */
+        private final String value;
+
+        /**
+         * The time after which the token should be renewed.
+         */
+        private final Instant refreshAt;
+
+        /**
+         * The time the token expires.
+         */
+        private final Instant expiresAt;
+    }
+
+    /**
+     * A cached lookup result.
+     *
+     * @param <T> The type of the value.
+     */
+    @Getter
+    @RequiredArgsConstructor
+    private static final class CachedValue<T> {
+
+        /**
+         * The value, may be null.
+         */
+        private final T value;
+
+        /**
+         * The time the value expires.
+         */
+        private final Instant expiresAt;
+    }
 }
@@ -19,6 +19,9 @@ import de.fraunhofer.iais.eis.Resource;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import io.dataspaceconnector.common.exception.DataDispatchException;
 import io.dataspaceconnector.common.exception.ErrorMessage;
+import io.dataspaceconnector.common.exception.NotificationException;
+import io.dataspaceconnector.common.file.SharedPayload;
+import io.dataspaceconnector.common.net.HttpResponse;
 import io.dataspaceconnector.common.net.HttpService;
 import io.dataspaceconnector.common.net.QueryInput;
 import io.dataspaceconnector.common.net.SelfLinkHelper;
@@ -26,6 +29,7 @@ import io.dataspaceconnector.common.routing.ParameterUtils;
 import io.dataspaceconnector.common.routing.RouteDataDispatcher;
 import io.dataspaceconnector.common.net.ApiReferenceHelper;
 import io.dataspaceconnector.config.ConnectorConfig;
+import io.dataspaceconnector.config.NotificationConfig;
 import io.dataspaceconnector.model.artifact.Artifact;
 import io.dataspaceconnector.model.base.Entity;
 import io.dataspaceconnector.model.representation.Representation;
@@ -34,11 +38,14 @@ import io.dataspaceconnector.model.resource.RequestedResource;
 import io.dataspaceconnector.model.subscription.Subscription;
 import io.dataspaceconnector.service.ArtifactRetriever;
 import io.dataspaceconnector.service.message.handler.dto.Response;
+import io.dataspaceconnector.service.message.notification.NotificationDelivery;
+import io.dataspaceconnector.service.message.notification.NotificationDispatcher;
 import io.dataspaceconnector.service.message.util.Event;
 import io.dataspaceconnector.service.resource.ids.builder.IdsResourceBuilder;
 import io.dataspaceconnector.service.resource.type.ArtifactService;
 import io.dataspaceconnector.service.resource.type.SubscriptionService;
 import io.dataspaceconnector.service.usagecontrol.DataAccessVerifier;
+import lombok.Getter;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
@@ -46,14 +53,22 @@ import org.apache.camel.CamelContext;
 import org.apache.camel.ProducerTemplate;
 import org.apache.camel.builder.ExchangeBuilder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.HttpURLConnection;
 import java.net.URI;
-import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
 import java.util.stream.Collectors;
 
 /**
@@ -129,12 +144,31 @@ public class SubscriberNotificationService {
      */
     private final @NonNull ApiReferenceHelper apiReferenceHelper;
 
+    /**
+     * Dispatches notifications in the background.
+     */
+    private final @NonNull NotificationDispatcher dispatcher;
+
+    /**
+     * The notification settings.
+     */
+    private final @NonNull NotificationConfig notificationConfig;
+
+    /**
+     * The platform transaction manager.
+     */
+    private final @NonNull PlatformTransactionManager transactionManager;
+
     /**
      * Notify subscribers on database update event.
      *
      * @param entity The updated entity.
      */
     public void notifyOnUpdate(final Entity entity) {
+        notifyOnUpdate(entity, new UpdateContext());
+    }
+
+    private void notifyOnUpdate(final Entity entity, final UpdateContext context) {
         final var uri = selfLinkHelper.getSelfLink(entity);
         final var subscriptions = subscriptionSvc.getByTarget(uri);
 
@@ -143,20 +177,21 @@ public class SubscriberNotificationService {
             final var representations =
                     ((io.dataspaceconnector.model.resource.Resource) entity).getRepresentations();
             for (final var rep : representations) {
-                notifyOnUpdate(rep);
+                notifyOnUpdate(rep, context);
             }
         } else if (entity instanceof Representation representation) {
             final var artifacts = representation.getArtifacts();
             for (final var artifact : artifacts) {
-                notifyOnUpdate(artifact);
+                notifyOnUpdate(artifact, context);
             }
         }
 
-        notifyAll(subscriptions, uri, entity);
+        notifyAll(subscriptions, uri, entity, context);
     }
 
     /**
      * Notifies all backend systems and ids participants that subscribed for updates to an entity.
+     * The notifications are queued and sent in the background.
      *
      * @param subscriptions List of subscriptions for a certain target.
      * @param target        The target of the subscriptions.
@@ -164,8 +199,13 @@ public class SubscriberNotificationService {
      */
     public void notifyAll(final List<Subscription> subscriptions, final URI target,
                           final Entity entity) {
+        notifyAll(subscriptions, target, entity, new UpdateContext());
+    }
+
+    private void notifyAll(final List<Subscription> subscriptions, final URI target,
+                           final Entity entity, final UpdateContext context) {
         notifySubscribers(subscriptions, target, entity);
-        notifyIdsSubscribers(subscriptions, entity);
+        notifyIdsSubscribers(subscriptions, entity, context);
     }
 
     private void notifySubscribers(final List<Subscription> subscriptions, final URI target,
@@ -187,85 +227,108 @@ public class SubscriberNotificationService {
         final var notification = new HashMap<String, String>();
         notification.put("ids-target", target.toString());
         notification.put("ids-event", Event.UPDATED.toString());
-        if (!recipients.isEmpty()) {
-            sendNotification(recipients, notification, null);
+        for (final var recipient : recipients) {
+            dispatch(recipient, "update:" + target, () -> sendNotification(recipient,
+                    notification, SharedPayload.empty()));
         }
 
-        // Only send data if entity is of type artifact.
+        // Only send data if entity is of type artifact. The data is retrieved once, when it is
+        // needed for the first time, and shared by all recipients.
         if (!recipientsWithData.isEmpty()) {
             if (entity instanceof Artifact) {
-                sendNotification(recipientsWithData, notification, retrieveDataByArtifact(entity));
+                final var payload = new ArtifactPayload(entity.getId());
+                for (final var recipient : recipientsWithData) {
+                    payload.retain();
+                    dispatch(new Delivery(recipient, "data:" + target,
+                            () -> sendNotification(recipient, notification, payload.acquire()),
+                            payload::release));
+                }
             } else {
-                sendNotification(recipientsWithData, notification, InputStream.nullInputStream());
+                for (final var recipient : recipientsWithData) {
+                    dispatch(recipient, "data:" + target, () -> sendNotification(recipient,
+                            notification, SharedPayload.empty()));
+                }
             }
         }
     }
 
-    @SuppressFBWarnings(
-            value = "REC_CATCH_EXCEPTION",
-            justification = "caught exceptions are unchecked"
-    )
-    private void notifyIdsSubscribers(final List<Subscription> subscriptions, final Entity entity) {
+    private void notifyIdsSubscribers(final List<Subscription> subscriptions, final Entity entity,
+                                      final UpdateContext context) {
         final var idsRecipients = subscriptions.stream()
                 .filter(Subscription::isIdsProtocol)
                 .map(Subscription::getLocation)
                 .collect(Collectors.toList());
+        if (idsRecipients.isEmpty()) {
+            return;
+        }
 
-        final var resources = getIdsResourcesFromEntity(entity);
+        final var resources = getIdsResourcesFromEntity(entity, context);
 
-        // Iterate over all recipients and send ids resource update messages.
+        // Iterate over all recipients and send ids resource update messages. The resources are
+        // shared by all recipients, each recipient is notified once per resource and update.
         for (final var recipient : idsRecipients) {
             // Send update message for every found resource.
             for (final var resource : resources) {
-                try {
-                    if (connectorConfig.isIdscpEnabled()) {
-                        final var result = template.send("direct:resourceUpdateSender",
-                                ExchangeBuilder.anExchange(context)
-                                        .withProperty(ParameterUtils.RECIPIENT_PARAM, recipient)
-                                        .withProperty(ParameterUtils.RESOURCE_ID_PARAM,
-                                                resource.getId())
-                                        .build());
-                        final var response = result.getIn().getBody(Response.class);
-                        if (response != null) {
-                            if (log.isDebugEnabled()) {
-                                log.debug("Successfully sent update message. [url=({})]",
-                                        recipient);
-                            }
-                        } else {
-                            if (log.isDebugEnabled()) {
-                                log.debug("{} [url=({})]", ErrorMessage.UPDATE_MESSAGE_FAILED,
-                                        recipient);
-                            }
-                        }
-                    } else {
-                        final var response = messageSvc
-                                .sendResourceUpdateMessage(recipient, resource);
-                        if (response.isPresent()) {
-                            if (log.isDebugEnabled()) {
-                                log.debug("Successfully sent update message. [url=({})]",
-                                        recipient);
-                            }
-                        } else {
-                            if (log.isDebugEnabled()) {
-                                log.debug("{} [url=({})]", ErrorMessage.UPDATE_MESSAGE_FAILED,
-                                        recipient);
-                            }
-                        }
-                    }
-                } catch (Exception e) {
-                    if (log.isDebugEnabled()) {
-                        log.debug("{} [url=({}), exception=({})]",
-                                ErrorMessage.UPDATE_MESSAGE_FAILED, recipient, e.getMessage());
-                    }
+                if (context.markNotified(recipient, resource)) {
+                    dispatch(recipient, "resource:" + resource.getId(),
+                            () -> sendUpdateMessage(recipient, resource));
                 }
             }
         }
     }
 
-    private List<Resource> getIdsResourcesFromEntity(final Entity entity) {
-        var updatedResources = new ArrayList<Resource>();
+    private void dispatch(final URI recipient, final String key, final Sender sender) {
+        dispatch(new Delivery(recipient, key, sender, () -> { }));
+    }
+
+    private void dispatch(final Delivery delivery) {
+        if (!dispatcher.dispatch(delivery)) {
+            if (log.isWarnEnabled()) {
+                log.warn("Notification queue is full, dropped notification. [url=({})]",
+                        delivery.getRecipient());
+            }
+        }
+    }
+
+    @SuppressFBWarnings(
+            value = "REC_CATCH_EXCEPTION",
+            justification = "caught exceptions are unchecked"
+    )
+    private void sendUpdateMessage(final URI recipient, final Resource resource)
+            throws NotificationException {
+        boolean success;
+        try {
+            if (connectorConfig.isIdscpEnabled()) {
+                final var result = template.send("direct:resourceUpdateSender",
+                        ExchangeBuilder.anExchange(context)
+                                .withProperty(ParameterUtils.RECIPIENT_PARAM, recipient)
+                                .withProperty(ParameterUtils.RESOURCE_ID_PARAM,
+                                        resource.getId())
+                                .withBody(resource)
+                                .build());
+                success = result.getIn().getBody(Response.class) != null;
+            } else {
+                success = messageSvc.sendResourceUpdateMessage(recipient, resource).isPresent();
+            }
+        } catch (Exception e) {
+            throw new NotificationException(ErrorMessage.UPDATE_MESSAGE_FAILED.toString(), e);
+        }
+
+        if (!success) {
+            throw new NotificationException(ErrorMessage.UPDATE_MESSAGE_FAILED.toString());
+        }
+
+        if (log.isDebugEnabled()) {
+            log.debug("Successfully sent update message. [url=({})]", recipient);
+        }
+    }
+
+    private Collection<Resource> getIdsResourcesFromEntity(final Entity entity,
+                                                           final UpdateContext context) {
+        // Resources linked several times are contained once.
+        final var updatedResources = new LinkedHashMap<UUID, Resource>();
         if (entity instanceof OfferedResource offeredResource) {
-            updatedResources.add(resourceBuilder.create(offeredResource));
+            addIdsResource(updatedResources, offeredResource, context);
         } else if (entity instanceof Representation representation) {
             // Get all resources linked to given representation.
             final var resources = representation.getResources();
@@ -273,7 +336,7 @@ public class SubscriberNotificationService {
                 // Don't add requested resources to that list as ids participants should only know
                 // about offered resources.
                 if (resource instanceof OfferedResource offeredResource) {
-                    updatedResources.add(resourceBuilder.create(offeredResource));
+                    addIdsResource(updatedResources, offeredResource, context);
                 }
             }
         } else if (entity instanceof Artifact artifact) {
@@ -285,90 +348,206 @@ public class SubscriberNotificationService {
                     // Don't add requested resources to that list as ids participants should only
                     // know about offered resources.
                     if (resource instanceof OfferedResource offeredResource) {
-                        updatedResources.add(resourceBuilder.create(offeredResource));
+                        addIdsResource(updatedResources, offeredResource, context);
                     }
                 }
             }
         }
-        return updatedResources;
+        return updatedResources.values();
+    }
+
+    private void addIdsResource(final Map<UUID, Resource> resources,
+                                final OfferedResource offeredResource,
+                                final UpdateContext context) {
+        resources.computeIfAbsent(offeredResource.getId(),
+                x -> context.getResource(offeredResource));
     }
 
     /**
-     * Retrieve data if the entity is of type {@link Artifact}.
+     * Retrieve the data of an {@link Artifact}.
      *
-     * @param entity The database entity.
+     * @param id The id of the artifact.
      * @return Data as input stream.
      */
-    private InputStream retrieveDataByArtifact(final Entity entity) {
-        if (entity instanceof Artifact) {
-            final var id = entity.getId();
-            try {
-                return artifactSvc.getData(accessVerifier, dataReceiver, id, new QueryInput(),
-                        null);
-            } catch (IOException exception) {
-                if (log.isDebugEnabled()) {
-                    log.debug("Failed to retrieve data. [exception=({})]", exception.getMessage());
-                }
+    private InputStream retrieveDataByArtifact(final UUID id) {
+        try {
+            return artifactSvc.getData(accessVerifier, dataReceiver, id, new QueryInput(), null);
+        } catch (IOException exception) {
+            if (log.isDebugEnabled()) {
+                log.debug("Failed to retrieve data. [exception=({})]", exception.getMessage());
             }
         }
         return InputStream.nullInputStream();
     }
 
-    private void sendNotification(final List<URI> recipients,
-                                  final Map<String, String> notification, final InputStream data) {
-        for (final var recipient : recipients) {
-            try {
-                InputStream dataCopy;
-                if (data == null) {
-                    dataCopy = InputStream.nullInputStream();
-                } else {
-                    // Reset the input stream to first position before each read.
-                    if (0 <= data.available()) {
-                        data.reset();
-                    }
-                    dataCopy = data;
-                }
-
-                if (apiReferenceHelper.isRouteReference(recipient.toURL())) {
-                    sendNotificationViaCamel(recipient, notification, dataCopy);
-                } else {
-                    sendNotificationViaHttp(recipient, notification, dataCopy);
-                }
-            } catch (IOException exception) {
-                if (log.isWarnEnabled()) {
-                    log.warn("Could not notify subscriber. [url=({})]",
-                            recipient);
-                }
+    private void sendNotification(final URI recipient, final Map<String, String> notification,
+                                  final SharedPayload data) throws NotificationException {
+        try (data) {
+            if (apiReferenceHelper.isRouteReference(recipient.toURL())) {
+                sendNotificationViaCamel(recipient, notification, data);
+            } else {
+                sendNotificationViaHttp(recipient, notification, data);
             }
+        } catch (IOException | DataDispatchException exception) {
+            throw new NotificationException("Could not notify subscriber. [url=(" + recipient
+                    + ")]", exception);
         }
     }
 
     private void sendNotificationViaCamel(final URI recipient,
                                           final Map<String, String> notification,
-                                          final InputStream data) {
-        try {
-            final var queryInput = new QueryInput();
-            queryInput.setHeaders(notification);
-            routeDataDispatcher.send(recipient, data.readAllBytes(), queryInput);
-        } catch (DataDispatchException | IOException exception) {
-            if (log.isWarnEnabled()) {
-                log.warn("Could not notify subscriber. [url=({}), exception=({})]",
-                        recipient, exception.getMessage());
-            }
-        }
+                                          final SharedPayload data) {
+        final var queryInput = new QueryInput();
+        queryInput.setHeaders(notification);
+        routeDataDispatcher.send(List.of(recipient), data, queryInput);
     }
 
     private void sendNotificationViaHttp(final URI recipient,
                                          final Map<String, String> notification,
-                                         final InputStream data) {
+                                         final SharedPayload data)
+            throws IOException, NotificationException {
         final var args = new HttpService.HttpArgs();
         args.setHeaders(notification);
-        try {
-            httpService.post(recipient.toURL(), args, data);
-        } catch (IOException exception) {
-            if (log.isWarnEnabled()) {
-                log.warn("Could not notify subscriber. [url=({})]", recipient);
+        try (var body = data.open()) {
+            final var response = httpService.post(recipient.toURL(), args, body);
+            if (response instanceof HttpResponse httpResponse
+                    && httpResponse.getCode() >= HttpURLConnection.HTTP_BAD_REQUEST) {
+                throw new NotificationException("Subscriber rejected notification. [url=("
+                        + recipient + "), code=(" + httpResponse.getCode() + ")]");
+            }
+        }
+    }
+
+    /**
+     * The state of a single update. Every affected ids resource is built only once per update,
+     * even if it is reached via several representations or artifacts.
+     */
+    private final class UpdateContext {
+
+        /**
+         * The built ids resources by resource id.
+         */
+        private final Map<UUID, Resource> resources = new HashMap<>();
+
+        /**
+         * The resource update messages queued so far, as recipient and resource id.
+         */
+        private final Set<List<URI>> notified = new HashSet<>();
+
+        private Resource getResource(final OfferedResource offeredResource) {
+            return resources.computeIfAbsent(offeredResource.getId(),
+                    x -> resourceBuilder.create(offeredResource));
+        }
+
+        private boolean markNotified(final URI recipient, final Resource resource) {
+            return notified.add(List.of(recipient, resource.getId()));
+        }
+    }
+
+    /**
+     * Sends a notification.
+     */
+    @FunctionalInterface
+    private interface Sender {
+
+        /**
+         * Send the notification.
+         *
+         * @throws NotificationException if the notification could not be delivered.
+         */
+        void send() throws NotificationException;
+    }
+
+    /**
+     * A notification for a single subscriber.
+     */
+    @Getter
+    @RequiredArgsConstructor
+    private static final class Delivery implements NotificationDelivery {
+
+        /**
+         * The recipient.
+         */
+        private final URI recipient;
+
+        /**
+         * The key of the notification.
+         */
+        private final String key;
+
+        /**
+         * Sends the notification.
+         */
+        private final Sender sender;
+
+        /**
+         * Frees the resources of the notification.
+         */
+        private final Runnable releaser;
+
+        @Override
+        public void deliver() throws NotificationException {
+            sender.send();
+        }
+
+        @Override
+        public void release() {
+            releaser.run();
+        }
+    }
+
+    /**
+     * The data of an artifact, shared by all push-data notifications of one update. The data is
+     * retrieved when it is needed for the first time and released when the last notification is
+     * done with it.
+     */
+    @RequiredArgsConstructor
+    private final class ArtifactPayload {
+
+        /**
+         * The id of the artifact.
+         */
+        private final UUID artifactId;
+
+        /**
+         * The number of notifications using the data.
+         */
+        private int users;
+
+        /**
+         * The retrieved data.
+         */
+        private SharedPayload data;
+
+        private synchronized void retain() {
+            users++;
+        }
+
+        private synchronized void release() {
+            if (--users == 0 && data != null) {
+                data.release();
+                data = null;
+            }
+        }
+
+        private synchronized SharedPayload acquire() {
+            if (data == null) {
+                // Notifications are sent outside the request, the artifact is read within a
+                // transaction of its own.
+                data = new TransactionTemplate(transactionManager).execute(x -> {
+                    try (var stream = retrieveDataByArtifact(artifactId)) {
+                        return SharedPayload.buffer(stream,
+                                notificationConfig.getPayloadMemoryThreshold().toBytes());
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                if (data == null) {
+                    data = SharedPayload.empty();
+                }
             }
+
+            return data.retain();
         }
     }
 }
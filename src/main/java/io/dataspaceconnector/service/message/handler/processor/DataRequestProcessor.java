@@ -161,8 +161,6 @@
  */
 package io.dataspaceconnector.service.message.handler.processor;
 
-import com.fasterxml.jackson.annotation.JsonInclude;
-import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import de.fraunhofer.iais.eis.ArtifactRequestMessageImpl;
 import ids.messaging.handler.message.MessagePayload;
@@ -186,8 +184,8 @@ import org.springframework.util.Base64Utils;
 
 /* AppStore Extension */
 //import com.fasterxml.jackson.annotation.JsonInclude;
-import de.fraunhofer.fit.appstore.model.portainer.Template;
-import de.fraunhofer.fit.appstore.services.registry.RegistryService;
+import de.fraunhofer.fit.appstore.services.registry.RegistryCredentialPool;
+import de.fraunhofer.fit.appstore.services.template.TemplatePayloadWriter;
 /*
  * Copyright 2020 Fraunhofer Institute for Software and Systems Engineering
  *
@@ -244,9 +242,14 @@ class DataRequestProcessor extends IdsProcessor<
 
     /* AppStore Extension */
     /**
-     * Service for registry management.
+     * Pool of registry credentials for pulling images.
      */
-    private final @NonNull RegistryService registryService;
+    private final @NonNull RegistryCredentialPool credentialPool;
+
+    /**
+     * Writes stored templates with registry credentials.
+     */
+    private final @NonNull TemplatePayloadWriter templateWriter;
     /* AppStore Extension  End */
 
     /**
@@ -273,21 +276,17 @@ class DataRequestProcessor extends IdsProcessor<
 
         /* AppStore Extension */
         // Add user credentials to template.
-        final var userCreds = registryService.createUserCredentialsForPullingImages();
+        final var userCreds = credentialPool.take();
         userCreds.setEmail(null);
         userCreds.setRealname(null);
 
-        final var objectMapper = new ObjectMapper();
-        // ToCheck
-        objectMapper.configure(JsonParser.Feature.AUTO_CLOSE_SOURCE, true);
-        objectMapper.setSerializationInclusion(JsonInclude.Include.NON_NULL);
-        // ToCheck
-        final var dataTmp = objectMapper.readValue(data.readAllBytes(), Template.class);
-        dataTmp.setRegistryUser(userCreds);
+        final byte[] template;
+        try (data) {
+            template = data.readAllBytes();
+        }
 
         // TODO: EXCEPTION HANDLING FOR OBJECT MAPPING (JSON TO OBJECT AND OBJECT TO JSON)
-        final var newData
-                = objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(dataTmp);
+        final var newData = templateWriter.write(template, userCreds);
 
 
         /* AppStore Extension End */
@@ -17,9 +17,8 @@ package io.dataspaceconnector.service.message.handler.processor;
 
 import de.fraunhofer.iais.eis.DescriptionRequestMessageImpl;
 import ids.messaging.handler.message.MessagePayload;
-import io.dataspaceconnector.common.ids.ConnectorService;
+import io.dataspaceconnector.common.ids.SelfDescriptionCache;
 import io.dataspaceconnector.common.ids.message.MessageUtils;
-import io.dataspaceconnector.common.ids.mapping.RdfConverter;
 import io.dataspaceconnector.model.message.DescriptionResponseMessageDesc;
 import io.dataspaceconnector.service.message.builder.type.DescriptionResponseService;
 import io.dataspaceconnector.service.message.handler.dto.Response;
@@ -41,9 +40,9 @@ class SelfDescriptionProcessor extends IdsProcessor<
         RouteMsg<DescriptionRequestMessageImpl, MessagePayload>> {
 
     /**
-     * Service for the current connector configuration.
+     * Cache of the self-description with all resources.
      */
-    private final @NonNull ConnectorService connectorService;
+    private final @NonNull SelfDescriptionCache selfDescriptionCache;
 
     /**
      * Service for handling response messages.
@@ -67,13 +66,13 @@ class SelfDescriptionProcessor extends IdsProcessor<
         /***
          Change to the new version of appstore
          */
-        final var connector = connectorService.getAppStoreWithAppResources();
+        final var description = selfDescriptionCache.getSelfDescription();
 
         // Build ids response message.
         final var desc = new DescriptionResponseMessageDesc(issuer, messageId);
         final var header = messageService.buildMessage(desc);
 
         // Send ids response message.
-        return new Response(header, RdfConverter.toRdf(connector));
+        return new Response(header, description.getRdf());
     }
 }
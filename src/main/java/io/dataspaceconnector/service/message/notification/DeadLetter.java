@@ -0,0 +1,55 @@
+/*
+ * Copyright 2020-2022 Fraunhofer Institute for Software and Systems Engineering
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.dataspaceconnector.service.message.notification;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.net.URI;
+import java.time.ZonedDateTime;
+
+/**
+ * A notification that could not be delivered.
+ */
+@Getter
+@RequiredArgsConstructor
+public class DeadLetter {
+
+    /**
+     * The recipient of the notification.
+     */
+    private final URI recipient;
+
+    /**
+     * The key of the notification.
+     */
+    private final String key;
+
+    /**
+     * The number of delivery attempts.
+     */
+    private final int attempts;
+
+    /**
+     * The reason the notification has not been delivered.
+     */
+    private final String reason;
+
+    /**
+     * The date the notification has been given up.
+     */
+    private final ZonedDateTime date = ZonedDateTime.now();
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright 2020-2022 Fraunhofer Institute for Software and Systems Engineering
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.dataspaceconnector.service.message.notification;
+
+import io.dataspaceconnector.common.exception.NotificationException;
+
+import java.net.URI;
+
+/**
+ * A notification for a single subscriber.
+ */
+public interface NotificationDelivery {
+
+    /**
+     * Get the recipient of the notification. Notifications for the same recipient are sent one
+     * after another, notifications for different recipients are sent in parallel.
+     *
+     * @return The recipient.
+     */
+    URI getRecipient();
+
+    /**
+     * Get the key of the notification. A pending notification is replaced by a newer one with
+     * the same key and recipient.
+     *
+     * @return The key.
+     */
+    String getKey();
+
+    /**
+     * Send the notification.
+     *
+     * @throws NotificationException if the notification could not be delivered.
+     */
+    void deliver() throws NotificationException;
+
+    /**
+     * Called once the notification is no longer needed: it has been delivered, replaced by a
+     * newer one, rejected, or given up. Resources held by the notification can be freed here.
+     */
+    default void release() {
+        // Nothing to free by default.
+    }
+}
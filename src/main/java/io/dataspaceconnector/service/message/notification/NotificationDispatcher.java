@@ -0,0 +1,452 @@
+/*
+ * Copyright 2020-2022 Fraunhofer Institute for Software and Systems Engineering
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.dataspaceconnector.service.message.notification;
+
+import io.dataspaceconnector.common.exception.NotificationException;
+import io.dataspaceconnector.config.NotificationConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.NonNull;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends notifications to subscribers in the background. Every recipient has its own lane:
+ * notifications for one recipient are sent in order, different recipients are served in
+ * parallel, so a slow subscriber does not delay the others. Failed notifications are retried
+ * with exponential backoff and moved to a dead-letter store once all attempts failed. A pending
+ * notification is replaced by a newer one with the same key, so repeated updates of a target
+ * within the coalesce window are sent only once. A lane is removed as soon as it is idle, and
+ * metrics are not tagged by recipient, so the number of subscribers does not grow either.
+ */
+@Log4j2
+@Service
+public class NotificationDispatcher {
+
+    /**
+     * The notification settings.
+     */
+    private final @NonNull NotificationConfig config;
+
+    /**
+     * Executor running the lanes.
+     */
+    private final ScheduledExecutorService executor;
+
+    /**
+     * The lanes by recipient.
+     */
+    private final Map<URI, Lane> lanes = new ConcurrentHashMap<>();
+
+    /**
+     * The number of notifications waiting for delivery, over all lanes.
+     */
+    private final AtomicInteger queued = new AtomicInteger();
+
+    /**
+     * Notifications that could not be delivered, the oldest at the head.
+     */
+    private final Deque<DeadLetter> deadLetters = new ConcurrentLinkedDeque<>();
+
+    /**
+     * The number of entries in the dead-letter store.
+     */
+    private final AtomicInteger deadLetterCount = new AtomicInteger();
+
+    /**
+     * Counts notifications replaced by a newer one.
+     */
+    private final Counter coalescedCounter;
+
+    /**
+     * Counts notifications rejected because the queue was full.
+     */
+    private final Counter rejectedCounter;
+
+    /**
+     * Counts notifications moved to the dead-letter store.
+     */
+    private final Counter deadLetterCounter;
+
+    /**
+     * Counts delivered notifications.
+     */
+    private final Counter deliveredCounter;
+
+    /**
+     * Counts failed delivery attempts.
+     */
+    private final Counter failureCounter;
+
+    /**
+     * Measures the time from queueing a notification to its delivery.
+     */
+    private final Timer lagTimer;
+
+    /**
+     * Constructor for NotificationDispatcher.
+     *
+     * @param notificationConfig The notification settings.
+     * @param registry           The meter registry.
+     */
+    public NotificationDispatcher(final @NonNull NotificationConfig notificationConfig,
+                                  final @NonNull MeterRegistry registry) {
+        this.config = notificationConfig;
+
+        final var threadCount = new AtomicInteger();
+        this.executor = Executors.newScheduledThreadPool(
+                Math.max(1, notificationConfig.getThreads()), runnable -> {
+                    final var thread = new Thread(runnable,
+                            "notification-dispatcher-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+
+        this.coalescedCounter = registry.counter("notification.dispatcher.coalesced");
+        this.rejectedCounter = registry.counter("notification.dispatcher.rejected");
+        this.deadLetterCounter = registry.counter("notification.dispatcher.dead.letters");
+        this.deliveredCounter = registry.counter("notification.dispatcher.deliveries",
+                "outcome", "success");
+        this.failureCounter = registry.counter("notification.dispatcher.deliveries",
+                "outcome", "failure");
+        this.lagTimer = registry.timer("notification.dispatcher.lag");
+        Gauge.builder("notification.dispatcher.queue.depth", queued, AtomicInteger::get)
+                .register(registry);
+    }
+
+    /**
+     * Queue a notification for delivery.
+     *
+     * @param delivery The notification.
+     * @return false if the notification has been rejected because the queue is full.
+     */
+    public boolean dispatch(final NotificationDelivery delivery) {
+        while (true) {
+            final var lane = lanes.computeIfAbsent(delivery.getRecipient(), Lane::new);
+            synchronized (lane) {
+                if (!lane.retired) {
+                    return lane.offer(delivery);
+                }
+            }
+            // The lane has been removed while idle, take the one replacing it.
+        }
+    }
+
+    /**
+     * Get the number of notifications waiting for delivery.
+     *
+     * @return The queue depth.
+     */
+    public int getQueueDepth() {
+        return queued.get();
+    }
+
+    /**
+     * Get the notifications that could not be delivered, the oldest first.
+     *
+     * @return The dead letters.
+     */
+    public List<DeadLetter> getDeadLetters() {
+        return new ArrayList<>(deadLetters);
+    }
+
+    /**
+     * Stop sending notifications on shutdown.
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+        if (queued.get() > 0 && log.isWarnEnabled()) {
+            log.warn("Dropping pending notifications on shutdown. [count=({})]", queued.get());
+        }
+
+        for (final var lane : lanes.values()) {
+            lane.clear();
+        }
+    }
+
+    private void addDeadLetter(final DeadLetter letter) {
+        deadLetters.addLast(letter);
+        deadLetterCounter.increment();
+        if (deadLetterCount.incrementAndGet() > config.getDeadLetterCapacity()
+                && deadLetters.pollFirst() != null) {
+            deadLetterCount.decrementAndGet();
+        }
+
+        if (log.isWarnEnabled()) {
+            log.warn("Could not notify subscriber. [url=({}), key=({}), attempts=({}), "
+                    + "reason=({})]", letter.getRecipient(), letter.getKey(),
+                    letter.getAttempts(), letter.getReason());
+        }
+    }
+
+    private void release(final NotificationDelivery delivery) {
+        try {
+            delivery.release();
+        } catch (RuntimeException e) {
+            if (log.isWarnEnabled()) {
+                log.warn("Failed to release notification. [key=({}), exception=({})]",
+                        delivery.getKey(), e.getMessage());
+            }
+        }
+    }
+
+    private long getBackoff(final int attempts) {
+        final var initial = config.getInitialBackoff().toMillis();
+        final var shift = Math.min(attempts - 1, Integer.SIZE - 2);
+        final var backoff = initial * (1L << shift);
+        return Math.min(backoff < 0 ? Long.MAX_VALUE : backoff,
+                config.getMaxBackoff().toMillis());
+    }
+
+    /**
+     * A notification waiting for delivery.
+     */
+    private static final class Pending {
+
+        /**
+         * The notification. Replaced if a newer notification with the same key arrives.
+         */
+        private NotificationDelivery delivery;
+
+        /**
+         * The time the notification has been queued, in milliseconds.
+         */
+        private final long queuedAt = System.currentTimeMillis();
+
+        /**
+         * The earliest time the notification may be sent, in milliseconds.
+         */
+        private long due;
+
+        /**
+         * The number of failed delivery attempts.
+         */
+        private int attempts;
+
+        private Pending(final NotificationDelivery notification, final long dueAt) {
+            this.delivery = notification;
+            this.due = dueAt;
+        }
+    }
+
+    /**
+     * The notifications of one recipient. At most one notification of a lane is sent at a time.
+     */
+    private final class Lane {
+
+        /**
+         * The recipient.
+         */
+        private final URI recipient;
+
+        /**
+         * The pending notifications by key, in order of arrival.
+         */
+        private final Map<String, Pending> pending = new LinkedHashMap<>();
+
+        /**
+         * Whether the lane is sending right now.
+         */
+        private boolean running;
+
+        /**
+         * Whether the lane has been removed. A removed lane accepts no notifications.
+         */
+        private boolean retired;
+
+        /**
+         * The scheduled wake up of the lane.
+         */
+        private ScheduledFuture<?> wakeUp;
+
+        /**
+         * The time of the scheduled wake up, in milliseconds.
+         */
+        private long wakeUpAt;
+
+        private Lane(final URI target) {
+            this.recipient = target;
+        }
+
+        private synchronized boolean offer(final NotificationDelivery delivery) {
+            final var existing = pending.get(delivery.getKey());
+            if (existing != null) {
+                // The newer notification supersedes the pending one.
+                release(existing.delivery);
+                existing.delivery = delivery;
+                existing.attempts = 0;
+                coalescedCounter.increment();
+                return true;
+            }
+
+            if (queued.incrementAndGet() > config.getQueueCapacity()) {
+                queued.decrementAndGet();
+                rejectedCounter.increment();
+                addDeadLetter(new DeadLetter(recipient, delivery.getKey(), 0,
+                        "Notification queue is full."));
+                release(delivery);
+                retireIfIdle();
+                return false;
+            }
+
+            final var due = System.currentTimeMillis() + config.getCoalesceWindow().toMillis();
+            pending.put(delivery.getKey(), new Pending(delivery, due));
+            schedule();
+            return true;
+        }
+
+        /**
+         * Schedule the lane for the earliest pending notification. Must be called while
+         * holding the lock of the lane.
+         */
+        private void schedule() {
+            if (running || pending.isEmpty()) {
+                return;
+            }
+
+            final var earliest = pending.values().stream()
+                    .mapToLong(x -> x.due)
+                    .min()
+                    .orElseThrow();
+            if (wakeUp != null && !wakeUp.isDone()) {
+                if (wakeUpAt <= earliest) {
+                    return;
+                }
+                wakeUp.cancel(false);
+            }
+
+            wakeUpAt = earliest;
+            final var delay = Math.max(0, earliest - System.currentTimeMillis());
+            wakeUp = executor.schedule(this::drain, delay, TimeUnit.MILLISECONDS);
+        }
+
+        private void drain() {
+            synchronized (this) {
+                if (running) {
+                    return;
+                }
+                running = true;
+                wakeUp = null;
+            }
+
+            try {
+                Pending next;
+                while ((next = poll()) != null) {
+                    send(next);
+                }
+            } finally {
+                synchronized (this) {
+                    running = false;
+                    schedule();
+                    retireIfIdle();
+                }
+            }
+        }
+
+        /**
+         * Remove the lane if nothing is pending. Must be called while holding the lock of the
+         * lane.
+         */
+        private void retireIfIdle() {
+            if (!running && pending.isEmpty()) {
+                retired = true;
+                lanes.remove(recipient, this);
+            }
+        }
+
+        private synchronized void clear() {
+            for (final var next : pending.values()) {
+                release(next.delivery);
+            }
+            pending.clear();
+        }
+
+        private synchronized Pending poll() {
+            final var now = System.currentTimeMillis();
+            final var next = pending.values().stream()
+                    .filter(x -> x.due <= now)
+                    .findFirst();
+            next.ifPresent(x -> pending.remove(x.delivery.getKey()));
+            return next.orElse(null);
+        }
+
+        private void send(final Pending next) {
+            final var delivery = next.delivery;
+            try {
+                delivery.deliver();
+                queued.decrementAndGet();
+                deliveredCounter.increment();
+                lagTimer.record(System.currentTimeMillis() - next.queuedAt,
+                        TimeUnit.MILLISECONDS);
+
+                if (log.isDebugEnabled()) {
+                    log.debug("Notified subscriber. [url=({}), key=({})]", recipient,
+                            delivery.getKey());
+                }
+                release(delivery);
+            } catch (NotificationException | RuntimeException e) {
+                failureCounter.increment();
+                next.attempts++;
+                retryOrGiveUp(next, e);
+            }
+        }
+
+        private synchronized void retryOrGiveUp(final Pending failed, final Exception error) {
+            final var key = failed.delivery.getKey();
+            if (pending.containsKey(key)) {
+                // A newer notification with the same key is waiting already.
+                queued.decrementAndGet();
+                release(failed.delivery);
+                return;
+            }
+
+            if (failed.attempts >= config.getMaxAttempts()) {
+                queued.decrementAndGet();
+                addDeadLetter(new DeadLetter(recipient, key, failed.attempts,
+                        error.getMessage()));
+                release(failed.delivery);
+                return;
+            }
+
+            failed.due = System.currentTimeMillis() + getBackoff(failed.attempts);
+            pending.put(key, failed);
+
+            if (log.isDebugEnabled()) {
+                log.debug("Failed to notify subscriber, retrying. [url=({}), key=({}), "
+                        + "attempt=({}), exception=({})]", recipient, key, failed.attempts,
+                        error.getMessage());
+            }
+        }
+    }
+}
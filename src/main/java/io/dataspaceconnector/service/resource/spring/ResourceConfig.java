@@ -15,6 +15,7 @@
  */
 package io.dataspaceconnector.service.resource.spring;
 
+import io.dataspaceconnector.common.event.EntityChangePublisher;
 import io.dataspaceconnector.common.routing.RouteDataDispatcher;
 import io.dataspaceconnector.config.ConnectorConfig;
 import io.dataspaceconnector.model.agreement.AgreementFactory;
@@ -81,6 +82,7 @@ import io.dataspaceconnector.service.resource.type.RuleService;
 import io.dataspaceconnector.service.resource.type.SubscriptionService;
 import io.dataspaceconnector.service.routing.BeanManager;
 import io.dataspaceconnector.service.routing.RouteHelper;
+import io.dataspaceconnector.service.storage.LocalDataStore;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -112,6 +114,8 @@ public class ResourceConfig {
      * @param artifactRouteSvc The artifact-route-relation service.
      * @param retriever        The data retriever.
      * @param dispatcher       The route data dispatcher.
+     * @param dataStore        The local data store.
+     * @param changePublisher  The publisher of entity changes.
      * @return The artifact service bean.
      */
     @Bean("artifactService")
@@ -121,9 +125,11 @@ public class ResourceConfig {
             final AuthenticationRepository authRepo,
             final ArtifactRouteService artifactRouteSvc,
             final DataRetriever retriever,
-            final RouteDataDispatcher dispatcher) {
-        return new ArtifactService(repository, new ArtifactFactory(),
-                dataRepository, authRepo, artifactRouteSvc, retriever, dispatcher);
+            final RouteDataDispatcher dispatcher,
+            final LocalDataStore dataStore,
+            final EntityChangePublisher changePublisher) {
+        return new ArtifactService(repository, new ArtifactFactory(), dataRepository, authRepo,
+                artifactRouteSvc, retriever, dispatcher, dataStore, changePublisher);
     }
 
     /**
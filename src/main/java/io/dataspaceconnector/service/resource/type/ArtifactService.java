@@ -15,7 +15,6 @@
  */
 package io.dataspaceconnector.service.resource.type;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
@@ -23,11 +22,13 @@ import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
+import io.dataspaceconnector.common.event.EntityChangePublisher;
 import io.dataspaceconnector.common.exception.DataDispatchException;
 import io.dataspaceconnector.common.exception.ErrorMessage;
 import io.dataspaceconnector.common.exception.InvalidEntityException;
 import io.dataspaceconnector.common.exception.NotImplemented;
 import io.dataspaceconnector.common.exception.PolicyRestrictionException;
+import io.dataspaceconnector.common.exception.ResourceNotFoundException;
 import io.dataspaceconnector.common.net.QueryInput;
 import io.dataspaceconnector.common.routing.dataretrieval.RetrievalInformation;
 import io.dataspaceconnector.common.routing.RouteDataDispatcher;
@@ -53,6 +54,7 @@ import io.dataspaceconnector.service.DataRetriever;
 import io.dataspaceconnector.service.resource.base.BaseEntityService;
 import io.dataspaceconnector.service.resource.base.RemoteResolver;
 import io.dataspaceconnector.service.resource.relation.ArtifactRouteService;
+import io.dataspaceconnector.service.storage.LocalDataStore;
 import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NonNull;
@@ -95,6 +97,16 @@ public class ArtifactService extends BaseEntityService<Artifact, ArtifactDesc>
      */
     private final @NonNull RouteDataDispatcher routeDispatcher;
 
+    /**
+     * Stores the content of local data.
+     */
+    private final @NonNull LocalDataStore dataStore;
+
+    /**
+     * Publishes changes written by bulk updates.
+     */
+    private final @NonNull EntityChangePublisher changePublisher;
+
     /**
      * Constructor for ArtifactService.
      *
@@ -105,6 +117,8 @@ public class ArtifactService extends BaseEntityService<Artifact, ArtifactDesc>
      * @param artifactRouteService     The Artifact-Route-relation service.
      * @param retriever                The data retriever.
      * @param routeDataDispatcher      The route data dispatcher.
+     * @param localDataStore           The local data store.
+     * @param entityChangePublisher    The publisher of entity changes.
      */
     public ArtifactService(final BaseEntityRepository<Artifact> repository,
                            final AbstractFactory<Artifact, ArtifactDesc> factory,
@@ -112,13 +126,17 @@ public class ArtifactService extends BaseEntityService<Artifact, ArtifactDesc>
                            final @NonNull AuthenticationRepository authenticationRepository,
                            final @NonNull ArtifactRouteService artifactRouteService,
                            final @NonNull DataRetriever retriever,
-                           final @NonNull RouteDataDispatcher routeDataDispatcher) {
+                           final @NonNull RouteDataDispatcher routeDataDispatcher,
+                           final @NonNull LocalDataStore localDataStore,
+                           final @NonNull EntityChangePublisher entityChangePublisher) {
         super(repository, factory);
         this.dataRepo = dataRepository;
         this.authRepo = authenticationRepository;
         this.artifactRouteSvc = artifactRouteService;
         this.dataRetriever = retriever;
         this.routeDispatcher = routeDataDispatcher;
+        this.dataStore = localDataStore;
+        this.changePublisher = entityChangePublisher;
     }
 
     /**
@@ -183,6 +201,7 @@ public class ArtifactService extends BaseEntityService<Artifact, ArtifactDesc>
 
         var artifact = get(artifactId);
         final var cached = SerializationUtils.clone(artifact);
+        final var previousData = ((ArtifactImpl) artifact).getData();
 
         if (getFactory().update(artifact, desc)) {
             final var tmp = (ArtifactImpl) artifact;
@@ -226,6 +245,11 @@ public class ArtifactService extends BaseEntityService<Artifact, ArtifactDesc>
                     throw exception;
                 }
             }
+
+            if (previousData instanceof LocalData previous && previous != tmp.getData()) {
+                // The replaced data is not referenced anymore, free its content.
+                deleteLocalData(artifactId, previous);
+            }
         }
 
         return artifact;
@@ -318,7 +342,7 @@ public class ArtifactService extends BaseEntityService<Artifact, ArtifactDesc>
      */
     private InputStream returnData(final Artifact artifact, final InputStream data,
                                    final List<URI> routeIds) throws IOException {
-        incrementAccessCounter(artifact);
+        ((ArtifactRepository) getRepository()).incrementAccessCounter(artifact.getId());
         return new DataDispatcher(routeIds, data).dispatch();
     }
 
@@ -346,21 +370,62 @@ public class ArtifactService extends BaseEntityService<Artifact, ArtifactDesc>
             throws PolicyRestrictionException, IOException {
         // Check the artifact exists and access is granted.
         final var artifact = get(artifactId);
-        verifyDataAccess(accessVerifier,
-                new AccessVerificationInput(information.getTransferContract(), artifact));
-
-        // Make sure the data exists and is up to date.
-        if (shouldDownload(artifact, information)) {
-            final var data = downloadAndUpdateData(retriever, artifactId, information, artifact,
-                    routeIds);
-            incrementAccessCounter(artifact);
-            return data;
+        final var verificationInput =
+                new AccessVerificationInput(information.getTransferContract(), artifact);
+        verifyDataAccess(accessVerifier, verificationInput);
+
+        // Count the access before serving data, so a restricted number of accesses is never
+        // exceeded.
+        claimAccess(artifactId, verificationInput.getAccessLimit());
+        try {
+            // Make sure the data exists and is up to date.
+            if (shouldDownload(artifact, information)) {
+                return downloadAndUpdateData(retriever, artifactId, information, artifact,
+                        routeIds);
+            }
+
+            // Artifact exists, access granted, data exists and data up to date.
+            final var data = dataRetriever.retrieveData((ArtifactImpl) artifact,
+                    information.getQueryInput());
+            return new DataDispatcher(routeIds, data).dispatch();
+        } catch (IOException | RuntimeException exception) {
+            // The data has not been served.
+            ((ArtifactRepository) getRepository()).decrementAccessCounter(artifactId);
+            throw exception;
+        }
+    }
+
+    /**
+     * Get the number of accesses of an artifact. The number is read from the database, so
+     * accesses counted concurrently are included.
+     *
+     * @param artifactId The id of the artifact.
+     * @return The access counter.
+     * @throws io.dataspaceconnector.common.exception.ResourceNotFoundException if the artifact does
+     *                                                                          not exist.
+     */
+    public long getAccessCounter(final UUID artifactId) {
+        Utils.requireNonNull(artifactId, ErrorMessage.ENTITYID_NULL);
+
+        final var counter = ((ArtifactRepository) getRepository()).getAccessCounter(artifactId);
+        if (counter == null) {
+            throw new ResourceNotFoundException(
+                    this.getClass().getSimpleName() + ": " + artifactId);
         }
 
-        // Artifact exists, access granted, data exists and data up to date.
-        var data = dataRetriever.retrieveData((ArtifactImpl) artifact,
-                information.getQueryInput());
-        return returnData(artifact, data, routeIds);
+        return counter;
+    }
+
+    private void claimAccess(final UUID artifactId, final Integer accessLimit) {
+        final var repo = (ArtifactRepository) getRepository();
+        if (accessLimit == null) {
+            repo.incrementAccessCounter(artifactId);
+        } else if (repo.incrementAccessCounter(artifactId, accessLimit) == 0) {
+            if (log.isDebugEnabled()) {
+                log.debug("Access number reached. [artifactId=({})]", artifactId);
+            }
+            throw new PolicyRestrictionException(ErrorMessage.DATA_ACCESS_NUMBER_REACHED);
+        }
     }
 
     private void verifyDataAccess(final PolicyVerifier<AccessVerificationInput> accessVerifier,
@@ -392,11 +457,6 @@ public class ArtifactService extends BaseEntityService<Artifact, ArtifactDesc>
         }
     }
 
-    private void incrementAccessCounter(final Artifact artifact) {
-        artifact.incrementAccessCounter();
-        persist(artifact);
-    }
-
     private boolean shouldDownload(final Artifact artifact,
                                    final RetrievalInformation information) {
         if (information.getForceDownload() == null && information.getQueryInput() == null) {
@@ -457,23 +517,24 @@ public class ArtifactService extends BaseEntityService<Artifact, ArtifactDesc>
     }
 
     @NonNull
-    private ByteArrayInputStream setLocalData(final UUID artifactId,
-                                              final InputStream data,
-                                              final Artifact artifact,
-                                              final LocalData localData)
+    private InputStream setLocalData(final UUID artifactId,
+                                     final InputStream data,
+                                     final Artifact artifact,
+                                     final LocalData localData)
             throws IOException {
         try {
-            // Update the internal database and return the new data.
-            final var bytes = data.readAllBytes();
-            data.close();
-            dataRepo.setLocalData(localData.getId(), bytes);
-            if (((ArtifactFactory) getFactory()).updateByteSize(artifact, bytes)) {
+            // Stream the data into the store and return the new data.
+            final var stored = dataStore.write(localData, data);
+            if (((ArtifactFactory) getFactory()).updateByteSize(artifact, stored.getByteSize(),
+                    stored.getCheckSum())) {
                 ((ArtifactRepository) getRepository()).setArtifactData(artifactId,
                         artifact.getCheckSum(),
                         artifact.getByteSize());
+                // The bulk update fires no entity event, cached descriptions need to know.
+                changePublisher.publishChange(artifact);
             }
 
-            return new ByteArrayInputStream(bytes);
+            return dataStore.read(localData);
         } catch (IOException e) {
             if (log.isErrorEnabled()) {
                 log.error("Failed to store data. [artifactId=({}), exception=({})]",
@@ -484,9 +545,33 @@ public class ArtifactService extends BaseEntityService<Artifact, ArtifactDesc>
         }
     }
 
+    /**
+     * Remove the underlying data of an artifact. The artifact is kept without data.
+     *
+     * @param artifactId The artifact whose data should be removed.
+     * @throws IOException if the data could not be removed.
+     */
+    public void removeData(final UUID artifactId) throws IOException {
+        final var artifact = get(artifactId);
+        final var currentData = ((ArtifactImpl) artifact).getData();
+        if (!(currentData instanceof LocalData localData)) {
+            throw new NotImplemented();
+        }
+
+        dataStore.delete(localData);
+        if (((ArtifactFactory) getFactory()).updateByteSize(artifact, 0L, 0L)) {
+            ((ArtifactRepository) getRepository()).setArtifactData(artifactId,
+                    artifact.getCheckSum(),
+                    artifact.getByteSize());
+            // The bulk update fires no entity event, cached descriptions need to know.
+            changePublisher.publishChange(artifact);
+        }
+    }
+
     /**
      * Deletes an artifact with the given id. If the artifact references a route in its access URL,
-     * the artifact is removed from the route before deleting it.
+     * the artifact is removed from the route before deleting it. Local data of the artifact is
+     * removed from the data store.
      *
      * @param artifactId The id of the entity.
      * @throws IllegalArgumentException if the passed id is null.
@@ -497,10 +582,25 @@ public class ArtifactService extends BaseEntityService<Artifact, ArtifactDesc>
 
         final var artifact = (ArtifactImpl) get(artifactId);
         artifactRouteSvc.removeRouteLink(artifact);
+        if (artifact.getData() instanceof LocalData localData) {
+            deleteLocalData(artifactId, localData);
+        }
 
         getRepository().deleteById(artifactId);
     }
 
+    private void deleteLocalData(final UUID artifactId, final LocalData localData) {
+        try {
+            dataStore.delete(localData);
+        } catch (IOException e) {
+            // The reference is kept, so the content is still tracked.
+            if (log.isWarnEnabled()) {
+                log.warn("Failed to delete data. [artifactId=({}), exception=({})]",
+                        artifactId, e.getMessage());
+            }
+        }
+    }
+
     /**
      * Returns the route associated with an artifact, if any.
      *
@@ -524,8 +624,7 @@ public class ArtifactService extends BaseEntityService<Artifact, ArtifactDesc>
         final var artifact = get(artifactId);
         final var currentData = ((ArtifactImpl) artifact).getData();
         if (currentData instanceof LocalData localData) {
-            final var value = localData.getValue();
-            return (value == null || !(value.length > 0));
+            return dataStore.isEmpty(localData);
         } else {
             // Only local data deletion supported.
             return false;
@@ -557,13 +656,10 @@ public class ArtifactService extends BaseEntityService<Artifact, ArtifactDesc>
          */
         public InputStream dispatch() throws IOException {
             if (routeIds != null && !routeIds.isEmpty()) {
-                try {
-                    final var data = dataStream.readAllBytes();
-                    dataStream.close();
-                    for (var routeId: routeIds) {
-                        routeDispatcher.send(routeId, data);
-                    }
-                    return new ByteArrayInputStream(data);
+                // The data is buffered once and sent to all routes in parallel. The returned
+                // stream keeps the buffered data until it is closed.
+                try (var payload = routeDispatcher.send(routeIds, dataStream, null)) {
+                    return payload.open();
                 } catch (IOException | DataDispatchException exception) {
                     if (log.isWarnEnabled()) {
                         log.warn("Could not send data via route. [exception=({})]",
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2020-2022 Fraunhofer Institute for Software and Systems Engineering
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.dataspaceconnector.service.storage;
+
+import io.dataspaceconnector.common.exception.PayloadTooLargeException;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Fails as soon as more than a maximum number of bytes has been read from a stream.
+ */
+public class BoundedInputStream extends FilterInputStream {
+
+    /**
+     * The maximum number of bytes.
+     */
+    private final long maxSize;
+
+    /**
+     * The number of bytes read.
+     */
+    private long byteSize;
+
+    /**
+     * Constructor for BoundedInputStream.
+     *
+     * @param in      The stream to read from.
+     * @param maxSize The maximum number of bytes.
+     */
+    public BoundedInputStream(final InputStream in, final long maxSize) {
+        super(in);
+        this.maxSize = maxSize;
+    }
+
+    @Override
+    public int read() throws IOException {
+        final var value = super.read();
+        if (value != -1) {
+            count(1);
+        }
+        return value;
+    }
+
+    @Override
+    public int read(final byte[] b, final int off, final int len) throws IOException {
+        final var count = super.read(b, off, len);
+        if (count > 0) {
+            count(count);
+        }
+        return count;
+    }
+
+    @Override
+    public long skip(final long n) throws IOException {
+        final var count = super.skip(n);
+        count(count);
+        return count;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    private void count(final long count) {
+        byteSize += count;
+        if (byteSize > maxSize) {
+            throw new PayloadTooLargeException("Data exceeds the maximum size. [maxSize=("
+                    + maxSize + ")]");
+        }
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright 2020-2022 Fraunhofer Institute for Software and Systems Engineering
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.dataspaceconnector.service.storage;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.zip.CRC32C;
+
+/**
+ * Computes the size, the CRC32C checksum and a SHA-256 digest of a stream while it is read.
+ */
+public class ChecksumInputStream extends FilterInputStream {
+
+    /**
+     * The maximum buffer size used for skipping bytes.
+     */
+    private static final int SKIP_BUFFER_SIZE = 8192;
+
+    /**
+     * The checksum, compatible to the artifact checksum.
+     */
+    private final CRC32C checksum = new CRC32C();
+
+    /**
+     * The content digest.
+     */
+    private final MessageDigest digest;
+
+    /**
+     * The number of bytes read.
+     */
+    private long byteSize;
+
+    /**
+     * Constructor for ChecksumInputStream.
+     *
+     * @param in The stream to read from.
+     */
+    public ChecksumInputStream(final InputStream in) {
+        super(in);
+        try {
+            this.digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // SHA-256 must be supported by every JVM.
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public int read() throws IOException {
+        final var value = super.read();
+        if (value != -1) {
+            checksum.update(value);
+            digest.update((byte) value);
+            byteSize++;
+        }
+        return value;
+    }
+
+    @Override
+    public int read(final byte[] b, final int off, final int len) throws IOException {
+        final var count = super.read(b, off, len);
+        if (count > 0) {
+            checksum.update(b, off, count);
+            digest.update(b, off, count);
+            byteSize += count;
+        }
+        return count;
+    }
+
+    @Override
+    public long skip(final long n) throws IOException {
+        // Skipped bytes have to be read as well, otherwise they would not be hashed.
+        if (n <= 0) {
+            return 0;
+        }
+
+        final var buffer = new byte[(int) Math.min(n, SKIP_BUFFER_SIZE)];
+        long remaining = n;
+        while (remaining > 0) {
+            final var count = read(buffer, 0, (int) Math.min(remaining, buffer.length));
+            if (count < 0) {
+                break;
+            }
+            remaining -= count;
+        }
+        return n - remaining;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    /**
+     * Get the number of bytes read so far.
+     *
+     * @return The byte size.
+     */
+    public long getByteSize() {
+        return byteSize;
+    }
+
+    /**
+     * Get the CRC32C checksum of the bytes read so far.
+     *
+     * @return The checksum.
+     */
+    public long getCheckSum() {
+        return checksum.getValue();
+    }
+
+    /**
+     * Get the hex encoded SHA-256 digest of the content. Must only be called once after the
+     * stream has been consumed.
+     *
+     * @return The digest.
+     */
+    public String getDigest() {
+        return HexFormat.of().formatHex(digest.digest());
+    }
+}
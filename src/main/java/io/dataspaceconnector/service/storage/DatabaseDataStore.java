@@ -0,0 +1,86 @@
+/*
+ * Copyright 2020-2022 Fraunhofer Institute for Software and Systems Engineering
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.dataspaceconnector.service.storage;
+
+import io.dataspaceconnector.model.artifact.LocalData;
+import io.dataspaceconnector.repository.DataRepository;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.CRC32C;
+
+/**
+ * Keeps the content of local data in the internal database.
+ */
+@RequiredArgsConstructor
+public class DatabaseDataStore implements LocalDataStore {
+
+    /**
+     * Repository for storing data.
+     */
+    private final @NonNull DataRepository dataRepo;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public StoredData write(final LocalData localData, final InputStream data)
+            throws IOException {
+        final byte[] bytes;
+        try (data) {
+            bytes = data.readAllBytes();
+        }
+
+        dataRepo.setLocalData(localData.getId(), bytes);
+        localData.setValue(bytes);
+        localData.setBlobKey(null);
+
+        final var checksum = new CRC32C();
+        checksum.update(bytes, 0, bytes.length);
+        return new StoredData(bytes.length, checksum.getValue());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public InputStream read(final LocalData localData) {
+        final var value = localData.getValue();
+        return value == null ? InputStream.nullInputStream() : new ByteArrayInputStream(value);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isEmpty(final LocalData localData) {
+        final var value = localData.getValue();
+        return value == null || value.length == 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void delete(final LocalData localData) {
+        dataRepo.setLocalData(localData.getId(), new byte[0]);
+        localData.setValue(new byte[0]);
+        localData.setBlobKey(null);
+    }
+}
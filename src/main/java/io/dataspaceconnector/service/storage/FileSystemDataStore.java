@@ -0,0 +1,212 @@
+/*
+ * Copyright 2020-2022 Fraunhofer Institute for Software and Systems Engineering
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.dataspaceconnector.service.storage;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import io.dataspaceconnector.model.artifact.LocalData;
+import io.dataspaceconnector.repository.DataRepository;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Keeps the content of local data as content-addressed files. Files are named by the SHA-256
+ * digest of their content, so equal content is stored only once. A file is deleted as soon as
+ * no local data references it anymore. Content that has been written to the database before is
+ * still served from there.
+ */
+@Log4j2
+@RequiredArgsConstructor
+public class FileSystemDataStore implements LocalDataStore {
+
+    /**
+     * The number of digest characters used for the sub directory of a file.
+     */
+    private static final int PREFIX_LENGTH = 2;
+
+    /**
+     * The number of locks guarding the references to files.
+     */
+    private static final int LOCK_COUNT = 64;
+
+    /**
+     * Repository for storing data.
+     */
+    private final @NonNull DataRepository dataRepo;
+
+    /**
+     * The root directory of the store.
+     */
+    private final @NonNull Path root;
+
+    /**
+     * Locks guarding the references to files, striped by key. A file must not be deleted while
+     * it is being referenced by another write of the same content.
+     */
+    private final Object[] locks = createLocks();
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @SuppressFBWarnings("PATH_TRAVERSAL_IN")
+    public StoredData write(final LocalData localData, final InputStream data)
+            throws IOException {
+        Files.createDirectories(root);
+        final var previousKey = localData.getBlobKey();
+        final var tmp = Files.createTempFile(root, "upload-", ".tmp");
+        try {
+            final var hashing = new ChecksumInputStream(data);
+            try (hashing) {
+                Files.copy(hashing, tmp, StandardCopyOption.REPLACE_EXISTING);
+            }
+
+            if (hashing.getByteSize() == 0) {
+                delete(localData);
+                return new StoredData(0, hashing.getCheckSum());
+            }
+
+            final var key = hashing.getDigest();
+            synchronized (lockFor(key)) {
+                moveToTarget(tmp, resolve(key));
+                dataRepo.setLocalDataBlobKey(localData.getId(), key);
+            }
+            localData.setValue(null);
+            localData.setBlobKey(key);
+
+            if (previousKey != null && !previousKey.equals(key)) {
+                releaseReplaced(previousKey, localData.getId());
+            }
+            return new StoredData(hashing.getByteSize(), hashing.getCheckSum());
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public InputStream read(final LocalData localData) throws IOException {
+        final var key = localData.getBlobKey();
+        if (key != null) {
+            return new MappedFileInputStream(resolve(key));
+        }
+
+        final var value = localData.getValue();
+        return value == null ? InputStream.nullInputStream() : new ByteArrayInputStream(value);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isEmpty(final LocalData localData) {
+        if (localData.getBlobKey() != null) {
+            return false;
+        }
+
+        final var value = localData.getValue();
+        return value == null || value.length == 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void delete(final LocalData localData) throws IOException {
+        // Delete the content before the reference, so a failed deletion can be retried.
+        final var key = localData.getBlobKey();
+        if (key != null) {
+            release(key, localData.getId());
+        }
+
+        dataRepo.setLocalData(localData.getId(), new byte[0]);
+        localData.setValue(new byte[0]);
+        localData.setBlobKey(null);
+    }
+
+    private void moveToTarget(final Path tmp, final Path target) throws IOException {
+        if (Files.exists(target)) {
+            // Same content is stored already.
+            return;
+        }
+
+        Files.createDirectories(target.getParent());
+        try {
+            Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (FileAlreadyExistsException e) {
+            // Stored concurrently with the same content.
+            if (log.isDebugEnabled()) {
+                log.debug("Blob has been stored concurrently. [path=({})]", target);
+            }
+        }
+    }
+
+    /**
+     * Delete a file if no other local data references it.
+     *
+     * @param key         The key of the file.
+     * @param localDataId The local data that does not reference the file anymore.
+     * @throws IOException if the file could not be deleted.
+     */
+    private void release(final String key, final Long localDataId) throws IOException {
+        synchronized (lockFor(key)) {
+            if (dataRepo.countOtherBlobReferences(key, localDataId) == 0) {
+                Files.deleteIfExists(resolve(key));
+                if (log.isDebugEnabled()) {
+                    log.debug("Deleted unreferenced blob. [key=({})]", key);
+                }
+            }
+        }
+    }
+
+    private void releaseReplaced(final String key, final Long localDataId) {
+        try {
+            release(key, localDataId);
+        } catch (IOException e) {
+            // The new content is stored already, the old file is only left over.
+            if (log.isWarnEnabled()) {
+                log.warn("Failed to delete replaced blob. [key=({}), exception=({})]",
+                        key, e.getMessage());
+            }
+        }
+    }
+
+    private Object lockFor(final String key) {
+        return locks[Math.floorMod(key.hashCode(), LOCK_COUNT)];
+    }
+
+    private static Object[] createLocks() {
+        final var result = new Object[LOCK_COUNT];
+        for (var i = 0; i < LOCK_COUNT; i++) {
+            result[i] = new Object();
+        }
+        return result;
+    }
+
+    private Path resolve(final String key) {
+        return root.resolve(key.substring(0, PREFIX_LENGTH)).resolve(key);
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2020-2022 Fraunhofer Institute for Software and Systems Engineering
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.dataspaceconnector.service.storage;
+
+import io.dataspaceconnector.model.artifact.LocalData;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Stores and loads the content of {@link LocalData} entities.
+ */
+public interface LocalDataStore {
+
+    /**
+     * Replace the content of a local data entity. The data is consumed and closed.
+     *
+     * @param localData The persisted local data entity.
+     * @param data      The new content.
+     * @return Information about the stored content.
+     * @throws IOException if the data could not be stored.
+     */
+    StoredData write(LocalData localData, InputStream data) throws IOException;
+
+    /**
+     * Open the content of a local data entity.
+     *
+     * @param localData The local data entity.
+     * @return The content. Empty if no content is stored.
+     * @throws IOException if the content could not be opened.
+     */
+    InputStream read(LocalData localData) throws IOException;
+
+    /**
+     * Check whether a local data entity holds any content.
+     *
+     * @param localData The local data entity.
+     * @return True if no content is stored.
+     */
+    boolean isEmpty(LocalData localData);
+
+    /**
+     * Remove the content of a local data entity. The entity itself is kept with empty content.
+     *
+     * @param localData The persisted local data entity.
+     * @throws IOException if the content could not be removed.
+     */
+    void delete(LocalData localData) throws IOException;
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright 2020-2022 Fraunhofer Institute for Software and Systems Engineering
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.dataspaceconnector.service.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads a file through memory mappings. A mapping is limited to 2 GB, so the file is mapped in
+ * windows. Transferring the stream to another stream is delegated to
+ * {@link FileChannel#transferTo(long, long, java.nio.channels.WritableByteChannel)}, so the
+ * content is not copied through the heap. Mark and reset are supported, so the stream can be
+ * read several times.
+ */
+public class MappedFileInputStream extends InputStream {
+
+    /**
+     * The size of a mapped window.
+     */
+    private static final long WINDOW_SIZE = 1L << 30;
+
+    /**
+     * The file channel.
+     */
+    private final FileChannel channel;
+
+    /**
+     * The size of the file.
+     */
+    private final long size;
+
+    /**
+     * The position in the file.
+     */
+    private long position;
+
+    /**
+     * The marked position in the file.
+     */
+    private long markPosition;
+
+    /**
+     * The window mapped last, null if nothing has been mapped yet.
+     */
+    private MappedByteBuffer window;
+
+    /**
+     * The position of the mapped window in the file.
+     */
+    private long windowStart;
+
+    /**
+     * Constructor for MappedFileInputStream.
+     *
+     * @param path The file to read.
+     * @throws IOException if the file could not be opened.
+     */
+    public MappedFileInputStream(final Path path) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            this.size = channel.size();
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (position >= size) {
+            return -1;
+        }
+
+        final var value = windowAt(position).get() & 0xFF;
+        position++;
+        return value;
+    }
+
+    @Override
+    public int read(final byte[] b, final int off, final int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+
+        if (position >= size) {
+            return -1;
+        }
+
+        final var buffer = windowAt(position);
+        final var count = Math.min(len, buffer.remaining());
+        buffer.get(b, off, count);
+        position += count;
+        return count;
+    }
+
+    @Override
+    public long skip(final long n) {
+        final var count = Math.max(0, Math.min(n, size - position));
+        position += count;
+        return count;
+    }
+
+    @Override
+    public int available() {
+        return (int) Math.min(Integer.MAX_VALUE, size - position);
+    }
+
+    @Override
+    public boolean markSupported() {
+        return true;
+    }
+
+    @Override
+    public synchronized void mark(final int readLimit) {
+        markPosition = position;
+    }
+
+    @Override
+    public synchronized void reset() {
+        position = markPosition;
+    }
+
+    @Override
+    public long transferTo(final OutputStream out) throws IOException {
+        final var target = Channels.newChannel(out);
+        final var start = position;
+        while (position < size) {
+            position += channel.transferTo(position, size - position, target);
+        }
+        return position - start;
+    }
+
+    @Override
+    public void close() throws IOException {
+        window = null;
+        channel.close();
+    }
+
+    private MappedByteBuffer windowAt(final long filePosition) throws IOException {
+        if (window == null || filePosition < windowStart
+                || filePosition >= windowStart + window.capacity()) {
+            windowStart = filePosition - filePosition % WINDOW_SIZE;
+            window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart,
+                    Math.min(WINDOW_SIZE, size - windowStart));
+        }
+
+        window.position((int) (filePosition - windowStart));
+        return window;
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2020-2022 Fraunhofer Institute for Software and Systems Engineering
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.dataspaceconnector.service.usagecontrol;
+
+import io.dataspaceconnector.common.event.EntityChangeEvent;
+import io.dataspaceconnector.common.ids.DeserializationService;
+import io.dataspaceconnector.common.ids.policy.CompiledPolicy;
+import io.dataspaceconnector.model.agreement.Agreement;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps the compiled policies of contract agreements, so enforcing a policy on data access does
+ * not deserialize the agreement again. An entry is only used for the version of the agreement it
+ * has been compiled from and is dropped when the agreement changes.
+ */
+@Component
+@RequiredArgsConstructor
+public class CompiledPolicyCache {
+
+    /**
+     * Service for deserialization.
+     */
+    private final @NonNull DeserializationService deserializationService;
+
+    /**
+     * The compiled policies by agreement id.
+     */
+    private final Map<UUID, CompiledPolicy> cache = new ConcurrentHashMap<>();
+
+    /**
+     * Get the compiled policy of an agreement, compiling it if it is not cached.
+     *
+     * @param agreement The agreement.
+     * @return The compiled policy.
+     */
+    public CompiledPolicy get(final Agreement agreement) {
+        final var id = agreement.getId();
+        final var version = agreement.getModificationDate();
+
+        final var cached = cache.get(id);
+        if (cached != null && cached.getVersion().equals(version)) {
+            return cached;
+        }
+
+        final var idsAgreement = deserializationService.getContractAgreement(agreement.getValue());
+        final var policy = CompiledPolicy.compile(idsAgreement, version);
+        if (id != null && version != null) {
+            cache.put(id, policy);
+        }
+        return policy;
+    }
+
+    /**
+     * Drop the compiled policy of a changed agreement.
+     *
+     * @param event The change event.
+     */
+    @EventListener
+    public void onEntityChange(final EntityChangeEvent event) {
+        final var entity = event.getEntity();
+        if (entity instanceof Agreement && entity.getId() != null) {
+            cache.remove(entity.getId());
+        }
+    }
+}
@@ -15,9 +15,7 @@
  */
 package io.dataspaceconnector.service.usagecontrol;
 
-import io.dataspaceconnector.common.ids.policy.ContractUtils;
 import io.dataspaceconnector.common.ids.policy.PolicyPattern;
-import io.dataspaceconnector.common.ids.policy.RuleUtils;
 import io.dataspaceconnector.common.net.SelfLinkHelper;
 import io.dataspaceconnector.common.exception.PolicyExecutionException;
 import io.dataspaceconnector.common.exception.PolicyRestrictionException;
@@ -65,14 +63,20 @@ public final class DataAccessVerifier implements PolicyVerifier<AccessVerificati
      */
     private final @NonNull SelfLinkHelper selfLinkHelper;
 
+    /**
+     * The compiled policies of agreements.
+     */
+    private final @NonNull CompiledPolicyCache policyCache;
+
     /**
      * Policy check on data access on consumer side. Ignore if unknown patterns are allowed.
      *
      * @param target      The requested artifact.
      * @param agreementId The id of the transfer contract (agreement).
+     * @return The maximum number of accesses allowed by the enforced rules, if restricted.
      * @throws PolicyRestrictionException If a policy restriction has been detected.
      */
-    public void checkPolicy(final Artifact target, final URI agreementId) throws
+    public Optional<Integer> checkPolicy(final Artifact target, final URI agreementId) throws
             PolicyRestrictionException {
         final var patternsToCheck = Arrays.asList(
                 PolicyPattern.PROVIDE_ACCESS,
@@ -85,13 +89,16 @@ public final class DataAccessVerifier implements PolicyVerifier<AccessVerificati
 
         try {
             final var artifactId = selfLinkHelper.getSelfLink(target);
-            checkForAccess(patternsToCheck, artifactId, target.getRemoteId(), agreementId);
+            return checkForAccess(patternsToCheck, artifactId, target.getRemoteId(),
+                    agreementId);
         } catch (PolicyRestrictionException exception) {
             // Unknown patterns cause an exception. Ignore if unsupported patterns are allowed.
             if (!connectorConfig.isAllowUnsupported()) {
                 throw exception;
             }
         }
+
+        return Optional.empty();
     }
 
     /**
@@ -101,26 +108,34 @@ public final class DataAccessVerifier implements PolicyVerifier<AccessVerificati
      * @param artifactId  The requested artifact.
      * @param remoteId    The remote id of the requested artifact.
      * @param agreementId The id of the transfer contract (agreement).
+     * @return The maximum number of accesses allowed by the enforced rules, if restricted.
      * @throws io.dataspaceconnector.common.exception.UnsupportedPatternException if no suitable
      * pattern could be found.
      */
-    public void checkForAccess(final List<PolicyPattern> patterns, final URI artifactId,
-                               final URI remoteId, final URI agreementId) {
+    public Optional<Integer> checkForAccess(final List<PolicyPattern> patterns,
+                                            final URI artifactId, final URI remoteId,
+                                            final URI agreementId) {
+        Integer accessLimit = null;
         // Get the contract agreement's rules for the target.
-        final var agreements = entityResolver.getContractAgreementsByTarget(artifactId);
+        final var agreements = entityResolver.getAgreementsByTarget(artifactId);
         for (final var agreement : agreements) {
-            final var rules = ContractUtils.getRulesForTargetId(agreement, remoteId);
+            final var rules = policyCache.get(agreement).getRules(remoteId);
 
             // Check the policy of each rule.
             for (final var rule : rules) {
-                final var pattern = RuleUtils.getPatternByRule(rule);
                 // Enforce only a set of patterns.
-                if (patterns.contains(pattern)) {
-                    ruleValidator.validatePolicy(pattern, rule, artifactId, null,
-                            Optional.empty(), agreementId);
+                if (patterns.contains(rule.getPattern())) {
+                    ruleValidator.validatePolicy(rule, artifactId, null, Optional.empty(),
+                            agreementId);
+                    if (rule.getPattern() == PolicyPattern.N_TIMES_USAGE
+                            && (accessLimit == null || rule.getMaxAccess() < accessLimit)) {
+                        accessLimit = rule.getMaxAccess();
+                    }
                 }
             }
         }
+
+        return Optional.ofNullable(accessLimit);
     }
 
     /**
@@ -129,7 +144,8 @@ public final class DataAccessVerifier implements PolicyVerifier<AccessVerificati
     @Override
     public VerificationResult verify(final AccessVerificationInput input) {
         try {
-            this.checkPolicy(input.getArtifact(), input.getAgreementId());
+            input.setAccessLimit(this.checkPolicy(input.getArtifact(), input.getAgreementId())
+                    .orElse(null));
             return VerificationResult.ALLOWED;
         } catch (PolicyRestrictionException exception) {
             if (log.isDebugEnabled()) {
@@ -0,0 +1,230 @@
+/*
+ * Copyright 2020-2022 Fraunhofer Institute for Software and Systems Engineering
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.dataspaceconnector.service.usagecontrol;
+
+import io.dataspaceconnector.common.event.EntityChangeEvent;
+import io.dataspaceconnector.common.ids.DeserializationService;
+import io.dataspaceconnector.common.ids.policy.ContractUtils;
+import io.dataspaceconnector.common.ids.policy.RuleUtils;
+import io.dataspaceconnector.model.agreement.Agreement;
+import io.dataspaceconnector.service.resource.type.AgreementService;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Keeps the deletion deadlines of all agreements, ordered by due date. Deadlines are extracted
+ * once when an agreement is stored, so agreements without delete post duties are never read
+ * again. The index is built from the stored agreements on startup. If that fails, it is built
+ * again by the next run of {@link ScheduledDataRemoval}.
+ */
+@Log4j2
+@Component
+@RequiredArgsConstructor
+public class DeletionDeadlineIndex {
+
+    /**
+     * The number of agreements loaded at once on startup.
+     */
+    private static final int PAGE_SIZE = 100;
+
+    /**
+     * Service for ids deserialization.
+     */
+    private final @NonNull DeserializationService deserializationService;
+
+    /**
+     * Service for agreements.
+     */
+    private final @NonNull AgreementService agreementService;
+
+    /**
+     * The deadlines, the earliest at the head. Guarded by this.
+     */
+    private final PriorityQueue<Deadline> deadlines =
+            new PriorityQueue<>(Comparator.comparing(Deadline::getDue));
+
+    /**
+     * Indicates whether the stored agreements have been indexed.
+     */
+    private volatile boolean ready;
+
+    /**
+     * Indicates whether the stored agreements are being indexed right now.
+     */
+    private final AtomicBoolean loading = new AtomicBoolean();
+
+    /**
+     * The deletion deadline of a rule target.
+     */
+    @Getter
+    @RequiredArgsConstructor
+    public static final class Deadline {
+        /**
+         * The id of the agreement defining the deadline.
+         */
+        private final UUID agreementId;
+
+        /**
+         * The rule target whose data has to be deleted.
+         */
+        private final URI target;
+
+        /**
+         * The date at which the data has to be deleted.
+         */
+        private final ZonedDateTime due;
+    }
+
+    /**
+     * Index the stored agreements, unless that has been done already or is running. If
+     * indexing fails, the index stays not ready and can be loaded again.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (ready || !loading.compareAndSet(false, true)) {
+            return;
+        }
+
+        try {
+            var page = agreementService.getAll(PageRequest.of(0, PAGE_SIZE));
+            while (true) {
+                page.forEach(this::index);
+                if (!page.hasNext()) {
+                    break;
+                }
+                page = agreementService.getAll(page.nextPageable());
+            }
+
+            ready = true;
+            if (log.isInfoEnabled()) {
+                log.info("Indexed deletion deadlines. [agreements=({}), deadlines=({})]",
+                        page.getTotalElements(), size());
+            }
+        } catch (RuntimeException e) {
+            if (log.isWarnEnabled()) {
+                log.warn("Failed to index deletion deadlines, retrying with the next run. "
+                        + "[exception=({})]", e.getMessage());
+            }
+        } finally {
+            loading.set(false);
+        }
+    }
+
+    /**
+     * Update the deadlines of a changed agreement.
+     *
+     * @param event The change event.
+     */
+    @EventListener
+    public void onEntityChange(final EntityChangeEvent event) {
+        if (event.getEntity() instanceof Agreement agreement) {
+            if (event.isDeleted()) {
+                remove(agreement.getId());
+            } else {
+                index(agreement);
+            }
+        }
+    }
+
+    /**
+     * Check whether the stored agreements have been indexed.
+     *
+     * @return True if the index is complete.
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Remove and return the deadlines that are due.
+     *
+     * @param now   The current date.
+     * @param limit The maximum number of deadlines.
+     * @return The due deadlines, the earliest first.
+     */
+    public synchronized List<Deadline> pollDue(final ZonedDateTime now, final int limit) {
+        final var due = new ArrayList<Deadline>();
+        while (due.size() < limit && !deadlines.isEmpty()
+                && !deadlines.peek().getDue().isAfter(now)) {
+            due.add(deadlines.poll());
+        }
+
+        return due;
+    }
+
+    /**
+     * Add a deadline again, for example if it could not be processed yet.
+     *
+     * @param deadline The deadline.
+     * @param due      The new due date.
+     */
+    public synchronized void reschedule(final Deadline deadline, final ZonedDateTime due) {
+        deadlines.add(new Deadline(deadline.getAgreementId(), deadline.getTarget(), due));
+    }
+
+    /**
+     * Get the number of deadlines.
+     *
+     * @return The number of deadlines.
+     */
+    public synchronized int size() {
+        return deadlines.size();
+    }
+
+    private void index(final Agreement agreement) {
+        final var found = new ArrayList<Deadline>();
+        try {
+            final var idsAgreement = deserializationService.getContractAgreement(
+                    agreement.getValue());
+            for (final var rule : ContractUtils.extractRulesFromContract(idsAgreement)) {
+                final var due = RuleUtils.getDeletionDate(rule);
+                if (due != null) {
+                    found.add(new Deadline(agreement.getId(), rule.getTarget(), due));
+                }
+            }
+        } catch (RuntimeException e) {
+            // Includes deserialization and date parsing errors of a malformed agreement.
+            if (log.isWarnEnabled()) {
+                log.warn("Failed to read deletion deadlines. [agreement=({}), exception=({})]",
+                        agreement.getId(), e.getMessage());
+            }
+        }
+
+        synchronized (this) {
+            deadlines.removeIf(x -> x.getAgreementId().equals(agreement.getId()));
+            deadlines.addAll(found);
+        }
+    }
+
+    private synchronized void remove(final UUID agreementId) {
+        deadlines.removeIf(x -> x.getAgreementId().equals(agreementId));
+    }
+}
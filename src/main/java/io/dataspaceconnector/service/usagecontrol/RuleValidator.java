@@ -17,11 +17,10 @@ package io.dataspaceconnector.service.usagecontrol;
 
 import de.fraunhofer.iais.eis.Rule;
 import de.fraunhofer.iais.eis.SecurityProfile;
-import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import io.dataspaceconnector.common.exception.ErrorMessage;
+import io.dataspaceconnector.common.ids.policy.CompiledRule;
 import io.dataspaceconnector.common.ids.policy.PolicyPattern;
 import io.dataspaceconnector.common.ids.policy.RuleUtils;
-import io.dataspaceconnector.common.time.TimeInterval;
 import io.dataspaceconnector.common.exception.PolicyRestrictionException;
 import io.dataspaceconnector.model.contract.Contract;
 import io.dataspaceconnector.model.rule.ContractRule;
@@ -33,7 +32,6 @@ import lombok.extern.log4j.Log4j2;
 import org.springframework.stereotype.Service;
 
 import java.net.URI;
-import java.time.Duration;
 import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.List;
@@ -84,7 +82,24 @@ public class RuleValidator {
     public void validatePolicy(final PolicyPattern pattern, final Rule rule, final URI target,
                                final URI issuerConnector, final Optional<SecurityProfile> profile,
                                final URI agreementId) throws PolicyRestrictionException {
-        switch (pattern) {
+        validatePolicy(CompiledRule.compile(rule, pattern), target, issuerConnector, profile,
+                agreementId);
+    }
+
+    /**
+     * Validates the data access for a given compiled rule.
+     *
+     * @param rule            The compiled rule.
+     * @param target          The requested/accessed element.
+     * @param issuerConnector The issuer connector.
+     * @param profile         The security profile.
+     * @param agreementId     The id of the transfer contract (agreement).
+     * @throws PolicyRestrictionException If a policy restriction was detected.
+     */
+    public void validatePolicy(final CompiledRule rule, final URI target,
+                               final URI issuerConnector, final Optional<SecurityProfile> profile,
+                               final URI agreementId) throws PolicyRestrictionException {
+        switch (rule.getPattern()) {
             case PROVIDE_ACCESS:
                 break;
             case USAGE_DURING_INTERVAL:
@@ -101,7 +116,7 @@ public class RuleValidator {
                 validateAccessNumber(rule, target);
                 break;
             case USAGE_NOTIFICATION:
-                executionService.reportDataAccess(rule, target);
+                executionService.reportDataAccess(rule.getRule(), target);
                 break;
             case CONNECTOR_RESTRICTED_USAGE:
                 validateIssuerConnector(rule, issuerConnector);
@@ -173,25 +188,26 @@ public class RuleValidator {
     /**
      * Checks if the requested data access is in the allowed time interval.
      *
-     * @param rule The ids rule.
+     * @param rule The compiled rule.
      * @throws PolicyRestrictionException If the policy could not be read or a restriction is
      *                                    detected.
      */
-    private void validateInterval(final Rule rule) throws PolicyRestrictionException {
-        TimeInterval timeInterval;
-        try {
-            timeInterval = RuleUtils.getTimeInterval(rule);
-        } catch (DateTimeParseException e) {
+    private void validateInterval(final CompiledRule rule) throws PolicyRestrictionException {
+        if (rule.getError() instanceof DateTimeParseException e) {
             if (log.isWarnEnabled()) {
                 log.warn("Could not read time interval. [exception=({})]", e.getMessage());
             }
             throw new PolicyRestrictionException(ErrorMessage.DATA_ACCESS_INVALID_INTERVAL, e);
+        } else if (rule.getError() != null) {
+            throw rule.getError();
         }
 
+        final var start = rule.getIntervalStart();
+        final var end = rule.getIntervalEnd();
         final var current = RuleUtils.getCurrentDate();
-        if (!current.isAfter(timeInterval.getStart()) || !current.isBefore(timeInterval.getEnd())) {
+        if (!current.isAfter(start) || !current.isBefore(end)) {
             if (log.isWarnEnabled()) {
-                log.warn("Invalid time interval. [timeInterval=({})]", timeInterval);
+                log.warn("Invalid time interval. [start=({}), end=({})]", start, end);
             }
             throw new PolicyRestrictionException(ErrorMessage.DATA_ACCESS_INVALID_INTERVAL);
         }
@@ -200,26 +216,27 @@ public class RuleValidator {
     /**
      * Adds a duration to a given date and checks if the duration has already been exceeded.
      *
-     * @param rule   The ids rule.
+     * @param rule   The compiled rule.
      * @param target The accessed element.
      * @throws PolicyRestrictionException If the policy could not be read or a restriction is
      *                                    detected.
      */
-    private void validateDuration(final Rule rule, final URI target)
+    private void validateDuration(final CompiledRule rule, final URI target)
             throws PolicyRestrictionException {
         final var created = informationService.getCreationDate(target);
 
-        final Duration duration;
-        try {
-            duration = RuleUtils.getDuration(rule);
-        } catch (DateTimeParseException e) {
+        if (rule.getError() instanceof DateTimeParseException e) {
             if (log.isWarnEnabled()) {
                 log.warn("Could not read duration. [target=({}), exception=({})]",
                         target, e.getMessage(), e);
             }
             throw new PolicyRestrictionException(ErrorMessage.DATA_ACCESS_INVALID_INTERVAL, e);
+        } else if (rule.getError() != null) {
+            throw rule.getError();
         }
 
+        final var duration = rule.getDuration();
+
         if (duration == null) {
             if (log.isWarnEnabled()) {
                 log.warn("Duration is null. [target=({})]", target);
@@ -236,15 +253,21 @@ public class RuleValidator {
     }
 
     /**
-     * Checks whether the maximum number of accesses has already been reached.
+     * Checks whether the maximum number of accesses has already been reached. The access itself
+     * is counted against the limit in a single atomic update when the data is served, see
+     * {@link io.dataspaceconnector.common.usagecontrol.AccessVerificationInput#getAccessLimit()}.
      *
-     * @param rule   The ids rule.
+     * @param rule   The compiled rule.
      * @param target The accessed element.
      * @throws PolicyRestrictionException If the access number has been reached.
      */
-    private void validateAccessNumber(final Rule rule, final URI target)
+    private void validateAccessNumber(final CompiledRule rule, final URI target)
             throws PolicyRestrictionException {
-        final var max = RuleUtils.getMaxAccess(rule);
+        if (rule.getError() != null) {
+            throw rule.getError();
+        }
+
+        final var max = rule.getMaxAccess();
         final var accessed = informationService.getAccessNumber(target);
         if (accessed >= max) {
             if (log.isDebugEnabled()) {
@@ -257,15 +280,17 @@ public class RuleValidator {
     /**
      * Checks whether the requesting connector corresponds to the allowed connector.
      *
-     * @param rule            The ids rule.
+     * @param rule            The compiled rule.
      * @param issuerConnector The issuer connector.
      * @throws PolicyRestrictionException If the connector ids do no match.
      */
-    private void validateIssuerConnector(final Rule rule, final URI issuerConnector)
+    private void validateIssuerConnector(final CompiledRule rule, final URI issuerConnector)
             throws PolicyRestrictionException {
-        final var allowedConsumer = RuleUtils.getEndpoint(rule);
-        final var allowedConsumerAsUri = URI.create(allowedConsumer);
-        if (!allowedConsumerAsUri.equals(issuerConnector)) {
+        if (rule.getError() != null) {
+            throw rule.getError();
+        }
+
+        if (!rule.getAllowedConsumer().equals(issuerConnector)) {
             if (log.isDebugEnabled()) {
                 log.debug("Invalid consumer connector. [issuer=({})]", issuerConnector);
             }
@@ -276,25 +301,24 @@ public class RuleValidator {
     /**
      * Checks whether the requesting connector has the right security level.
      *
-     * @param rule    The ids rule.
+     * @param rule    The compiled rule.
      * @param profile The security profile.
      * @throws PolicyRestrictionException If the connector ids do no match.
      */
-    @SuppressFBWarnings("DCN_NULLPOINTER_EXCEPTION")
-    private void validateSecurityProfile(final Rule rule, final Optional<SecurityProfile> profile)
+    private void validateSecurityProfile(final CompiledRule rule,
+                                         final Optional<SecurityProfile> profile)
             throws PolicyRestrictionException {
         if (profile.isEmpty()) {
             throw new PolicyRestrictionException(ErrorMessage.MISSING_SECURITY_PROFILE_CLAIM);
         }
 
-        try {
-            final var allowedProfile = RuleUtils.getSecurityProfile(rule);
-            final var securityProfile = profile.get();
-            if (!allowedProfile.equals(securityProfile.toString())) {
-                throw new PolicyRestrictionException(
-                        ErrorMessage.DATA_ACCESS_INVALID_SECURITY_PROFILE);
-            }
-        } catch (NullPointerException e) {
+        if (rule.getError() != null && !(rule.getError() instanceof NullPointerException)) {
+            throw rule.getError();
+        }
+
+        final var allowedProfile = rule.getSecurityProfile();
+        final var securityProfile = profile.get();
+        if (allowedProfile == null || !allowedProfile.equals(securityProfile.toString())) {
             throw new PolicyRestrictionException(
                     ErrorMessage.DATA_ACCESS_INVALID_SECURITY_PROFILE);
         }
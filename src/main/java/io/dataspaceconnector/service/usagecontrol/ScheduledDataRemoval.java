@@ -15,29 +15,27 @@
  */
 package io.dataspaceconnector.service.usagecontrol;
 
-import io.dataspaceconnector.common.ids.policy.ContractUtils;
-import io.dataspaceconnector.common.ids.policy.RuleUtils;
 import io.dataspaceconnector.common.exception.ResourceNotFoundException;
+import io.dataspaceconnector.common.ids.policy.RuleUtils;
 import io.dataspaceconnector.common.ids.policy.UsageControlFramework;
 import io.dataspaceconnector.config.ConnectorConfig;
-import io.dataspaceconnector.common.ids.DeserializationService;
-import io.dataspaceconnector.service.resource.type.AgreementService;
 import io.dataspaceconnector.service.resource.type.ArtifactService;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
-import org.springframework.data.domain.Pageable;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
-import java.io.InputStream;
-import java.time.format.DateTimeParseException;
+import java.time.Duration;
 import java.util.UUID;
 
 /**
- * This class implements automated policy check.
+ * This class implements automated policy check. It only processes the deletion deadlines of the
+ * {@link DeletionDeadlineIndex} that are due. A due deadline stays in the index until its
+ * agreement is removed, so data written again after the deadline is deleted with the next run.
  */
 @EnableScheduling
 @Log4j2
@@ -56,59 +54,72 @@ public class ScheduledDataRemoval {
     private final @NonNull ConnectorConfig connectorConfig;
 
     /**
-     * Service for ids deserialization.
+     * The deletion deadlines of all agreements.
      */
-    private final @NonNull DeserializationService deserializationService;
+    private final @NonNull DeletionDeadlineIndex deadlineIndex;
 
     /**
-     * Service for ids deserialization.
+     * Service for updating artifacts.
      */
-    private final @NonNull AgreementService agreementService;
+    private final @NonNull ArtifactService artifactService;
 
     /**
-     * Service for updating artifacts.
+     * The maximum number of deadlines processed per run.
      */
-    private final @NonNull ArtifactService artifactService;
+    @Value("${policy.data-removal.batch-size:100}")
+    private int batchSize;
 
     /**
-     * Periodically checks agreements for data deletion.
+     * Periodically processes due deletion deadlines.
      */
     @Scheduled(fixedDelay = FIXED_DELAY)
     public void schedule() {
-        try {
-            if (connectorConfig.getUcFramework() == UsageControlFramework.INTERNAL) {
-                if (log.isInfoEnabled()) {
-                    log.info("Scanning agreements...");
-                }
-                scanAgreements();
+        if (connectorConfig.getUcFramework() != UsageControlFramework.INTERNAL) {
+            return;
+        }
+
+        if (!deadlineIndex.isReady()) {
+            // Indexing on startup failed or has not finished yet.
+            deadlineIndex.load();
+            if (!deadlineIndex.isReady()) {
+                return;
             }
-        } catch (IllegalArgumentException | DateTimeParseException | ResourceNotFoundException e) {
-            if (log.isWarnEnabled()) {
-                log.warn("Failed to check policy. [exception=({})]", e.getMessage());
+        }
+
+        final var now = RuleUtils.getCurrentDate();
+        var due = deadlineIndex.pollDue(now, batchSize);
+        while (!due.isEmpty()) {
+            if (log.isInfoEnabled()) {
+                log.info("Processing deletion deadlines... [count=({})]", due.size());
+            }
+
+            for (final var deadline : due) {
+                process(deadline);
             }
+            due = deadlineIndex.pollDue(now, batchSize);
         }
     }
 
     /**
-     * Checks all known agreements for artifacts that have to be deleted.
+     * Deletes the data of a due deadline's target. The deadline is checked again with the next
+     * run in any case: the target may not be known yet, its data may not have been deleted, or
+     * it may be downloaded or written again later.
      *
-     * @throws DateTimeParseException    If a date from a policy cannot be parsed.
-     * @throws IllegalArgumentException  If the rule could not be deserialized.
-     * @throws ResourceNotFoundException If the data could not be deleted.
+     * @param deadline The due deadline.
      */
-    private void scanAgreements() throws DateTimeParseException, IllegalArgumentException,
-            ResourceNotFoundException {
-        for (final var agreement : agreementService.getAll(Pageable.unpaged())) {
-            final var value = agreement.getValue();
-            final var idsAgreement = deserializationService.getContractAgreement(value);
-            for (final var rule : ContractUtils.extractRulesFromContract(idsAgreement)) {
-                if (RuleUtils.checkRuleForPostDuties(rule)) {
-                    final var artifactId = artifactService.identifyByRemoteId(rule.getTarget());
-                    if (artifactId.isPresent() && !isDataDeleted(artifactId.get())) {
-                        removeDataFromArtifact(artifactId.get());
-                    }
-                }
+    private void process(final DeletionDeadlineIndex.Deadline deadline) {
+        try {
+            final var artifactId = artifactService.identifyByRemoteId(deadline.getTarget());
+            if (artifactId.isPresent() && !isDataDeleted(artifactId.get())) {
+                removeDataFromArtifact(artifactId.get());
+            }
+        } catch (IllegalArgumentException | ResourceNotFoundException e) {
+            if (log.isWarnEnabled()) {
+                log.warn("Failed to check policy. [exception=({})]", e.getMessage());
             }
+        } finally {
+            deadlineIndex.reschedule(deadline,
+                    RuleUtils.getCurrentDate().plus(Duration.ofMillis(FIXED_DELAY)));
         }
     }
 
@@ -129,7 +140,7 @@ public class ScheduledDataRemoval {
      */
     private void removeDataFromArtifact(final UUID artifactId) {
         try {
-            artifactService.setData(artifactId, InputStream.nullInputStream());
+            artifactService.removeData(artifactId);
             if (log.isDebugEnabled()) {
                 log.debug("Removed data from artifact. [id=({})]", artifactId);
             }